@@ -14,17 +14,22 @@ import android.bluetooth.BluetoothProfile;
 import android.bluetooth.le.BluetoothLeScanner;
 import android.bluetooth.le.ScanCallback;
 import android.bluetooth.le.ScanFilter;
+import android.bluetooth.le.ScanRecord;
 import android.bluetooth.le.ScanResult;
 import android.bluetooth.le.ScanSettings;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
+import android.os.Build;
 import android.os.Handler;
 import android.os.ParcelUuid;
+import android.os.SystemClock;
 import android.preference.PreferenceManager;
 import android.util.Base64;
 import android.util.Log;
 
+import com.bleclient.plugin.decoders.CharacteristicDecoder;
+import com.bleclient.plugin.decoders.CharacteristicDecoders;
 import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.NativePlugin;
@@ -33,12 +38,19 @@ import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 
 import org.json.JSONException;
+import org.json.JSONObject;
 
+import java.io.File;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @NativePlugin(
         permissions = {
@@ -59,21 +71,63 @@ public class BluetoothLEClient extends Plugin {
     static final int SERVICES_DISCOVERING = 1;
     static final int SERVICES_DISCOVERED = 2;
 
-    static final String BASE_UUID_HEAD = "0000";
-    static final String BASE_UUID_TAIL = "-0000-1000-8000-00805F9B34FB";
-
-    static final String keyDiscovered = "discoveredState";
-    static final String keyPeripheral = "peripheral";
-    static final String keyConnectionState = "connectionState";
-
     static final String keyEnabled = "enabled";
     static final String keyAvailable = "isAvailable";
     static final String keyAvailableDevices = "devices";
     static final String keyAddress = "id";
     static final String keyUuid = "uuid";
     static final String keyServices = "services";
+    static final String keyStream = "stream";
+    static final String keyDuration = "duration";
+    static final String keyContinuous = "continuous";
+    static final String keyStopped = "stopped";
+    static final String keyStarted = "started";
+    static final String keyRssi = "rssi";
+    static final String keyLastRssi = "lastRssi";
+    static final String keyAdvertisement = "advertisement";
+    static final String keyScanMode = "scanMode";
+    static final String keyReportDelay = "reportDelay";
+    static final String keyMatchMode = "matchMode";
+    static final String keyNumOfMatches = "numOfMatches";
+    static final String keyTtl = "ttl";
+    static final String keyRssiSmoothing = "rssiSmoothing";
+    static final String keyTxPower = "txPower";
+    static final String keyInterval = "interval";
+    static final String keyWindowSize = "windowSize";
+    static final String keyReportInterval = "reportInterval";
+    static final String keyMean = "mean";
+    static final String keyVariance = "variance";
+    static final String keyTrend = "trend";
+    static final String keySamples = "samples";
+    static final String keyFirstSeen = "firstSeen";
+    static final String keyLastSeen = "lastSeen";
+    static final String keyManufacturerData = "manufacturerData";
+    static final String keyServiceData = "serviceData";
     static final String keyService = "service";
     static final String keyAutoConnect = "autoConnect";
+    static final String keyReconnect = "reconnect";
+    static final String keyReconnectDelay = "reconnectDelay";
+    static final String keyMaxReconnectDelay = "maxReconnectDelay";
+    static final String keyMaxReconnectAttempts = "maxReconnectAttempts";
+    static final String keyState = "state";
+    static final String keyAttempt = "attempt";
+    static final String keyDelay = "delay";
+    static final String keyDowntime = "downtime";
+    static final String keyGap = "gap";
+    static final String keyPriority = "priority";
+    static final String keyWaitTime = "waitTime";
+    static final String keyMaxConnections = "maxConnections";
+    static final String keyMaxConnectionAttempts = "maxConnectionAttempts";
+    static final String keyConnecting = "connecting";
+    static final String keyQueued = "queued";
+    static final String keyAverageWaitTime = "averageWaitTime";
+    static final String keyMaxWaitTime = "maxWaitTime";
+    static final String keyOldestWaitTime = "oldestWaitTime";
+    static final String keyEncoding = "encoding";
+    static final String keyDecode = "decode";
+    static final String keyBatchSize = "batchSize";
+    static final String keyBatchInterval = "batchInterval";
+    static final String keyTimestamps = "timestamps";
     static final String keyConnected = "connected";
     static final String keyDisconnected = "disconnected";
     static final String keyIncludedServices = "included";
@@ -81,7 +135,54 @@ public class BluetoothLEClient extends Plugin {
     static final String keyCharacteristic = "characteristic";
     static final String keyDescriptor = "descriptor";
     static final String keyValue = "value";
+    static final String keyValues = "values";
+    static final String keyMtu = "mtu";
+    static final String keyChunked = "chunked";
+    static final String keyChunks = "chunks";
+    static final String keyChunkSize = "chunkSize";
+    static final String keyWrites = "writes";
+    static final String keyExecuted = "executed";
+    static final String keyConnectionPriority = "connectionPriority";
+    static final String keyPhy = "phy";
+    static final String keyCodedOption = "codedOption";
+    static final String keyTxPhy = "txPhy";
+    static final String keyRxPhy = "rxPhy";
+    static final String keyCredits = "credits";
+    static final String keyBytesWritten = "bytesWritten";
+    static final String keyThroughput = "throughput";
     static final String keyDiscoveryState = "discovered";
+    static final String keyUseCache = "useCache";
+    static final String keyDatabaseHash = "databaseHash";
+    static final String keyCached = "cached";
+    static final String keyTimeout = "timeout";
+    static final String keyCancelled = "cancelled";
+    static final String keyRecord = "record";
+    static final String keyRecords = "records";
+    static final String keyFrom = "from";
+    static final String keyTo = "to";
+    static final String keyLimit = "limit";
+    static final String keyCursor = "cursor";
+    static final String keyTime = "time";
+    static final String keyCleared = "cleared";
+    static final String keyDevices = "devices";
+    static final String keyReset = "reset";
+    static final String keyConnectTime = "connectTime";
+    static final String keyDiscoveryTime = "discoveryTime";
+    static final String keyOperations = "operations";
+    static final String keyNotifications = "notifications";
+    static final String keyNotificationRate = "notificationRate";
+    static final String keyEmitTime = "emitTime";
+    static final String keyQueueDepth = "queueDepth";
+    static final String keyMaxQueueDepth = "maxQueueDepth";
+    static final String keyFailures = "failures";
+    static final String keyTimeouts = "timeouts";
+    static final String keyCount = "count";
+    static final String keyMin = "min";
+    static final String keyMax = "max";
+    static final String keyP50 = "p50";
+    static final String keyP95 = "p95";
+    static final String keyP99 = "p99";
+    static final String keyBuckets = "buckets";
     static final String keySuccess = "success";
     static final String keyDeviceType = "type";
     static final String keyBondState = "bondState";
@@ -109,329 +210,522 @@ public class BluetoothLEClient extends Plugin {
     static final String keyErrorValueSet = "Failed to set value";
     static final String keyErrorValueWrite = "Failed to write value";
     static final String keyErrorValueRead = "Failed to read value";
-
-
-    static final String keyOperationConnect = "connectCallback";
-    static final String keyOperationDisconnect = "disconnectCallback";
-    static final String keyOperationDiscover = "discoverCallback";
-    static final String keyOperationReadDescriptor = "readDescriptorCallback";
-    static final String keyOperationWriteDescriptor = "writeDescriptorCallback";
-    static final String keyOperationRead = "readCharacteristicCallback";
-    static final String keyOperationWrite = "writeCharacteristicCallback";
+    static final String keyErrorEncodingUnsupported = "Unsupported encoding";
+    static final String keyErrorMtuMissing = "Property mtu is required";
+    static final String keyErrorMtuInvalid = "Property mtu must be between 23 and 517";
+    static final String keyErrorMtuRequest = "Failed to request MTU";
+    static final String keyErrorConnectionPriorityMissing = "Property connectionPriority is required";
+    static final String keyErrorConnectionPriorityUnsupported = "Unsupported connection priority";
+    static final String keyErrorConnectionPriorityRequest = "Failed to request connection priority";
+    static final String keyErrorPhyMissing = "Property phy is required";
+    static final String keyErrorPhyUnsupported = "PHY not supported by this device";
+    static final String keyErrorCodedOptionUnsupported = "Unsupported coded option";
+    static final String keyErrorPhyUnavailable = "PHY control requires Android 8.0 or newer";
+    static final String keyErrorPhyRequest = "Failed to update PHY";
+    static final String keyErrorPhyRead = "Failed to read PHY";
+    static final String keyErrorWritesMissing = "Property writes is required";
+    static final String keyErrorReliableWriteBegin = "Failed to begin reliable write";
+    static final String keyErrorReliableWriteVerify = "Reliable write verification failed";
+    static final String keyErrorReliableWriteExecute = "Failed to execute reliable write";
+    static final String keyErrorWriteWithoutResponseUnsupported = "Characteristic does not support write without response";
+    static final String keyErrorStreamOptionsInvalid = "Properties chunkSize and credits must be positive";
+    static final String keyErrorChunkSizeInvalid = "Property chunkSize must not exceed the MTU minus 3";
+    static final String keyErrorBatchInvalid = "Properties batchSize and batchInterval must be positive";
+    static final String keyErrorDecoderNotFound = "No decoder available for characteristic";
+    static final String keyErrorScanInProgress = "Scan already in progress";
+    static final String keyErrorScanUnavailable = "Bluetooth LE scanner not available";
+    static final String keyErrorDurationInvalid = "Property duration must be positive";
+    static final String keyErrorScanModeUnsupported = "Unsupported scan mode";
+    static final String keyErrorReportDelayInvalid = "Property reportDelay must not be negative";
+    static final String keyErrorMatchModeUnsupported = "Unsupported match mode";
+    static final String keyErrorNumOfMatchesUnsupported = "Unsupported number of matches";
+    static final String keyErrorConnectionPending = "Connection to peripheral already pending";
+    static final String keyErrorConnectionCancelled = "Connection cancelled";
+    static final String keyErrorReconnectOptionsInvalid = "Properties reconnectDelay and maxReconnectDelay must be positive and maxReconnectAttempts must not be negative";
+    static final String keyErrorConnectionLimitsInvalid = "Properties maxConnections and maxConnectionAttempts must be positive";
+    static final String keyErrorTtlInvalid = "Property ttl must be positive";
+    static final String keyErrorRssiSmoothingInvalid = "Property rssiSmoothing must be greater than 0 and at most 1";
+    static final String keyErrorRssiMonitorOptionsInvalid = "Properties interval, windowSize and reportInterval must be positive";
+    static final String keyErrorRssiRead = "Failed to read RSSI";
+    static final String keyErrorDatabaseHashInvalid = "Property databaseHash must be a hex string";
+    static final String keyErrorTimeoutInvalid = "Property timeout must not be negative";
+    static final String keyErrorOperationTimeout = "Operation timed out";
+    static final String keyErrorOperationCancelled = "Operation cancelled";
+    static final String keyErrorRecordConflict = "Property record can not be combined with batchSize, batchInterval or decode";
+    static final String keyErrorLimitInvalid = "Property limit must be positive";
+    static final String keyErrorCursorInvalid = "Property cursor is invalid";
+    static final String keyErrorMetricsIntervalInvalid = "Property interval must be positive";
+
+    static final String keyEventScanResult = "scanResult";
+    static final String keyEventServicesChanged = "servicesChanged";
+    static final String keyEventLinkQuality = "linkQuality";
+    static final String keyEventReconnect = "reconnect";
+    static final String keyEventMetrics = "metrics";
+
+    static final String ENCODING_ARRAY = "array";
+    static final String ENCODING_BASE64 = "base64";
+    static final String ENCODING_HEX = "hex";
+
+    static final String SCAN_MODE_LOW_POWER = "lowPower";
+    static final String SCAN_MODE_BALANCED = "balanced";
+    static final String SCAN_MODE_LOW_LATENCY = "lowLatency";
+    static final String SCAN_MODE_OPPORTUNISTIC = "opportunistic";
+
+    static final String MATCH_MODE_AGGRESSIVE = "aggressive";
+    static final String MATCH_MODE_STICKY = "sticky";
+
+    static final String MATCH_NUM_ONE = "one";
+    static final String MATCH_NUM_FEW = "few";
+    static final String MATCH_NUM_MAX = "max";
+
+    static final String CONNECTION_PRIORITY_HIGH = "high";
+    static final String CONNECTION_PRIORITY_BALANCED = "balanced";
+    static final String CONNECTION_PRIORITY_LOW_POWER = "lowPower";
+
+    static final String PHY_1M = "1M";
+    static final String PHY_2M = "2M";
+    static final String PHY_CODED = "coded";
+
+    static final String RECONNECT_STATE_RECONNECTING = "reconnecting";
+    static final String RECONNECT_STATE_RECONNECTED = "reconnected";
+    static final String RECONNECT_STATE_FAILED = "failed";
+
+    static final String CODED_OPTION_ANY = "any";
+    static final String CODED_OPTION_S2 = "s2";
+    static final String CODED_OPTION_S8 = "s8";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    static final int defaultBatchCapacity = 256;
+    static final int defaultScanDuration = 2000;
+    static final int defaultMtu = 23;
+    static final int maxMtu = 517;
+    static final int attHeaderLength = 3;
+    static final int defaultWriteCredits = 8;
+    static final int defaultMaxConnections = 6;
+    static final int defaultMaxConnectionAttempts = 1;
+    static final int defaultScanResultTtl = 10000;
+    static final double defaultRssiSmoothing = 0.25;
+    static final int defaultRssiInterval = 1000;
+    static final int defaultRssiWindowSize = 10;
+    static final int defaultRssiReportInterval = 5000;
+    static final int defaultReconnectDelay = 1000;
+    static final int defaultMaxReconnectDelay = 30000;
+    static final int defaultOperationTimeout = 10000;
+    static final int defaultDiscoverTimeout = 30000;
+    static final int defaultConnectTimeout = 30000;
+    static final int defaultRecordingSegmentSize = 4 * 1024 * 1024;
+    static final int defaultRecordingSegments = 64;
+    static final int defaultRecordingReadLimit = 1000;
+    static final int defaultMetricsInterval = 10000;
 
     static final int clientCharacteristicConfigurationUuid = 0x2902;
 
+    static final String gattCacheDirectory = "gatt-cache";
+    static final String recordingDirectory = "recordings";
+
     private BluetoothAdapter bluetoothAdapter;
     private BluetoothLeScanner bleScanner;
 
     private ScanCallback scanCallback;
-    private HashMap<String, BluetoothDevice> availableDevices = new HashMap<String, BluetoothDevice>();
-    private HashMap<String, Object> connections = new HashMap<>();
-
-    private BluetoothGattCallback bluetoothGattCallback = new BluetoothGattCallback() {
+    private PluginCall scanCall;
+    private boolean scanStream;
+    private String scanEncoding;
+    private final Runnable scanTimeout = this::finishScan;
+    private ScanResultCache scanResults = new ScanResultCache(defaultScanResultTtl, defaultRssiSmoothing);
+    private final ConcurrentHashMap<String, Connection> connections = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, GattMetrics> metrics = new ConcurrentHashMap<>();
+    private final Object metricsReporter = new Object();
+    private final ConnectionScheduler connectionScheduler = new ConnectionScheduler(defaultMaxConnections, defaultMaxConnectionAttempts);
+    private volatile GattDatabaseStore gattDatabaseStore;
+    private volatile NotificationRecorder notificationRecorder;
+    private final Random reconnectJitter = new Random();
+
+    private volatile GattWorkerPool workers;
+
+    /**
+     * Runs on binder threads. Values the stack overwrites with the next callback are captured here,
+     * everything else is left to the worker of the peripheral.
+     */
+    private final BluetoothGattCallback bluetoothGattCallback = new BluetoothGattCallback() {
         @Override
         public void onPhyUpdate(BluetoothGatt gatt, int txPhy, int rxPhy, int status) {
-            super.onPhyUpdate(gatt, txPhy, rxPhy, status);
+
+            dispatch(gatt, () -> {
+                updatePhy(gatt, txPhy, rxPhy, status);
+                completeOperation(gatt, GattOperation.TYPE_SET_PHY, null, status, null, keyErrorPhyRequest);
+            });
         }
 
         @Override
         public void onPhyRead(BluetoothGatt gatt, int txPhy, int rxPhy, int status) {
-            super.onPhyRead(gatt, txPhy, rxPhy, status);
+
+            dispatch(gatt, () -> {
+                updatePhy(gatt, txPhy, rxPhy, status);
+                completeOperation(gatt, GattOperation.TYPE_READ_PHY, null, status, null, keyErrorPhyRead);
+            });
         }
 
         @Override
         public void onConnectionStateChange(BluetoothGatt gatt, int status, int newState) {
+            dispatch(gatt, () -> handleConnectionStateChange(gatt, status, newState));
+        }
 
-            BluetoothDevice device = gatt.getDevice();
-            String address = device.getAddress();
+        @Override
+        public void onServicesDiscovered(BluetoothGatt gatt, int status) {
+            dispatch(gatt, () -> handleServicesDiscovered(gatt, status));
+        }
 
-            HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        public void onServiceChanged(BluetoothGatt gatt) {
+            dispatch(gatt, () -> handleServiceChanged(gatt));
+        }
 
-            if (connection == null) {
-                return;
-            }
+        @Override
+        public void onCharacteristicRead(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic, int status) {
 
-            if (status == BluetoothGatt.GATT_SUCCESS) {
+            byte[] characteristicValue = characteristic.getValue();
 
-                switch (newState) {
+            dispatch(gatt, () -> completeOperation(gatt, GattOperation.TYPE_READ, GattOperation.targetOf(characteristic), status, characteristicValue, keyErrorValueRead));
+        }
 
-                    case BluetoothProfile.STATE_CONNECTING: {
-                        connection.put(keyConnectionState, BluetoothProfile.STATE_CONNECTING);
-                        break;
-                    }
-                    case BluetoothProfile.STATE_CONNECTED: {
-                        connection.put(keyConnectionState, BluetoothProfile.STATE_CONNECTED);
+        @Override
+        public void onCharacteristicWrite(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic, int status) {
 
-                        PluginCall call = (PluginCall) connection.get(keyOperationConnect);
+            byte[] value = characteristic.getValue();
 
-                        if (call == null) {
-                            break;
-                        }
+            dispatch(gatt, () -> completeOperation(gatt, GattOperation.TYPE_WRITE, GattOperation.targetOf(characteristic), status, value, keyErrorValueWrite));
+        }
 
-                        JSObject ret = new JSObject();
-                        addProperty(ret, keyConnected, true);
-                        call.resolve(ret);
-                        connection.remove(keyOperationConnect);
-                        break;
-                    }
-                    case BluetoothProfile.STATE_DISCONNECTING: {
-                        connection.put(keyConnectionState, BluetoothProfile.STATE_DISCONNECTING);
-                        break;
-                    }
-                    case BluetoothProfile.STATE_DISCONNECTED: {
-                        connection.put(keyConnectionState, BluetoothProfile.STATE_DISCONNECTED);
+        @Override
+        public void onCharacteristicChanged(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic) {
 
-                        PluginCall call = (PluginCall) connection.get(keyOperationDisconnect);
+            UUID characteristicUuid = characteristic.getUuid();
+            byte[] characteristicValue = characteristic.getValue();
+            long time = System.currentTimeMillis();
 
-                        if (call == null) {
-                            break;
-                        }
+            dispatch(gatt, () -> handleCharacteristicChanged(gatt, characteristicUuid, characteristicValue, time));
+        }
 
-                        JSObject ret = new JSObject();
-                        addProperty(ret, keyDisconnected, true);
-                        call.resolve(ret);
+        @Override
+        public void onDescriptorRead(BluetoothGatt gatt, BluetoothGattDescriptor descriptor, int status) {
 
-                        connection.remove(keyOperationDisconnect);
-                        connections.remove(address);
-                        break;
-                    }
-                }
+            byte[] value = descriptor.getValue();
 
-            } else {
+            dispatch(gatt, () -> completeOperation(gatt, GattOperation.TYPE_READ_DESCRIPTOR, GattOperation.targetOf(descriptor), status, value, keyErrorValueRead));
+        }
+
+        @Override
+        public void onDescriptorWrite(BluetoothGatt gatt, BluetoothGattDescriptor descriptor, int status) {
 
+            byte[] value = descriptor.getValue();
 
-                if (connection.get(keyOperationConnect) != null) {
+            dispatch(gatt, () -> completeOperation(gatt, GattOperation.TYPE_WRITE_DESCRIPTOR, GattOperation.targetOf(descriptor), status, value, keyErrorValueWrite));
+        }
 
-                    PluginCall call = (PluginCall) connection.get(keyOperationConnect);
+        @Override
+        public void onReliableWriteCompleted(BluetoothGatt gatt, int status) {
+            dispatch(gatt, () -> completeOperation(gatt, GattOperation.TYPE_EXECUTE_RELIABLE_WRITE, null, status, null, keyErrorReliableWriteExecute));
+        }
 
-                    call.error("Unable to connect to Peripheral");
-                    connection.remove(keyOperationConnect);
-                    return;
+        @Override
+        public void onReadRemoteRssi(BluetoothGatt gatt, int rssi, int status) {
 
-                } else if (connection.get(keyOperationDisconnect) != null) {
+            dispatch(gatt, () -> {
 
-                    PluginCall call = (PluginCall) connection.get(keyOperationDisconnect);
+                Connection connection = connections.get(gatt.getDevice().getAddress());
 
-                    call.error("Unable to disconnect from Peripheral");
-                    connection.remove(keyOperationDisconnect);
+                if (connection != null && status == BluetoothGatt.GATT_SUCCESS) {
+                    connection.rssi = rssi;
+                }
 
-                    return;
+                completeOperation(gatt, GattOperation.TYPE_READ_RSSI, null, status, null, keyErrorRssiRead);
+            });
+        }
 
-                } else {
+        @Override
+        public void onMtuChanged(BluetoothGatt gatt, int mtu, int status) {
 
-                    Log.e(getLogTag(), "GATT operation unsuccessfull");
-                    return;
+            dispatch(gatt, () -> {
+
+                Connection connection = connections.get(gatt.getDevice().getAddress());
 
+                if (connection != null && status == BluetoothGatt.GATT_SUCCESS) {
+                    connection.mtu = mtu;
                 }
 
-            }
+                completeOperation(gatt, GattOperation.TYPE_MTU, null, status, null, keyErrorMtuRequest);
+            });
         }
 
-        @Override
-        public void onServicesDiscovered(BluetoothGatt gatt, int status) {
+    };
 
-            BluetoothDevice device = gatt.getDevice();
-            String address = device.getAddress();
+    /**
+     * Hands a GATT callback to the worker of the peripheral, callbacks arriving after the plugin was destroyed are dropped.
+     */
+    private void dispatch(BluetoothGatt gatt, Runnable event) {
 
-            HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        GattWorkerPool pool = workers;
 
-            PluginCall call = (PluginCall) connection.get(keyOperationDiscover);
+        if (pool != null) {
+            pool.get(gatt.getDevice().getAddress()).post(event);
+        }
+    }
 
-            if (connection == null || call == null) {
-                Log.e(getLogTag(), "No connection or saved call");
-                return;
-            }
+    private void handleConnectionStateChange(BluetoothGatt gatt, int status, int newState) {
 
-            JSObject ret = new JSObject();
+        BluetoothDevice device = gatt.getDevice();
+        String address = device.getAddress();
 
-            if (status == BluetoothGatt.GATT_SUCCESS) {
-                connection.put(keyDiscovered, SERVICES_DISCOVERED);
-                addProperty(ret, keyDiscoveryState, true);
-                call.resolve(ret);
-            } else {
-                call.error("Service discovery unsuccessful");
-            }
+        Connection connection = connections.get(address);
 
-            connection.remove(keyOperationDiscover);
+        if (connection == null) {
+            return;
         }
 
-        @Override
-        public void onCharacteristicRead(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic, int status) {
+        if (status == BluetoothGatt.GATT_SUCCESS) {
 
-            BluetoothDevice device = gatt.getDevice();
-            String address = device.getAddress();
+            switch (newState) {
 
-            HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+                case BluetoothProfile.STATE_CONNECTING: {
+                    connection.setState(BluetoothProfile.STATE_CONNECTING);
+                    break;
+                }
+                case BluetoothProfile.STATE_CONNECTED: {
+                    connection.setState(BluetoothProfile.STATE_CONNECTED);
+                    connectionScheduler.onConnected(address);
+                    recordDuration(getDeviceMetrics(address).connectTime, connection.connectStarted);
+                    connection.connectStarted = 0;
 
-            if (connection == null) {
-                Log.e(getLogTag(), "No connection found");
-                return;
-            }
+                    ReconnectPolicy policy = connection.reconnectPolicy;
 
-            PluginCall call = (PluginCall) connection.get(keyOperationRead);
-            connection.remove(keyOperationRead);
+                    if (policy != null && policy.isReconnecting()) {
+                        restoreConnection(address, connection, gatt, policy);
+                    }
 
-            if (call == null) {
-                Log.e(getLogTag(), "No callback for operation found");
-                return;
-            }
+                    PluginCall call = connection.connectCall.getAndSet(null);
 
-            JSObject ret = new JSObject();
+                    if (call == null) {
+                        break;
+                    }
 
-            if (status == BluetoothGatt.GATT_SUCCESS) {
-                byte[] characteristicValue = characteristic.getValue();
-                addProperty(ret, keyValue, JSArray.from(characteristicValue));
-                call.resolve(ret);
-            } else {
-                call.error(keyErrorValueRead);
-            }
+                    JSObject ret = new JSObject();
+                    addProperty(ret, keyConnected, true);
+                    addProperty(ret, keyWaitTime, connection.waitTime);
+                    call.resolve(ret);
+                    break;
+                }
+                case BluetoothProfile.STATE_DISCONNECTING: {
+                    connection.setState(BluetoothProfile.STATE_DISCONNECTING);
+                    break;
+                }
+                case BluetoothProfile.STATE_DISCONNECTED: {
+                    connection.setState(BluetoothProfile.STATE_DISCONNECTED);
 
-        }
+                    releaseConnection(address, connection);
 
-        @Override
-        public void onCharacteristicWrite(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic, int status) {
+                    PluginCall call = connection.disconnectCall.getAndSet(null);
 
-            BluetoothDevice device = gatt.getDevice();
-            String address = device.getAddress();
+                    if (call == null) {
+                        onConnectionLost(address, connection);
+                        break;
+                    }
 
-            HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+                    JSObject ret = new JSObject();
+                    addProperty(ret, keyDisconnected, true);
+                    call.resolve(ret);
 
-            if (connection == null) {
-                Log.e(getLogTag(), "No connection found");
-                return;
+                    gatt.close();
+                    connections.remove(address, connection);
+                    break;
+                }
             }
 
-            PluginCall call = (PluginCall) connection.get(keyOperationWrite);
-            connection.remove(keyOperationWrite);
+        } else {
 
-            if (call == null) {
-                Log.e(getLogTag(), "No callback for operation found");
-                return;
+            getDeviceMetrics(address).addFailure(status);
+
+            if (newState == BluetoothProfile.STATE_DISCONNECTED) {
+                connection.setState(BluetoothProfile.STATE_DISCONNECTED);
+                releaseConnection(address, connection);
             }
 
-            JSObject ret = new JSObject();
+            PluginCall connectCall = connection.connectCall.getAndSet(null);
+            PluginCall disconnectCall = connectCall == null ? connection.disconnectCall.getAndSet(null) : null;
 
-            if (status == BluetoothGatt.GATT_SUCCESS) {
+            if (connectCall != null) {
 
-                byte[] value = characteristic.getValue();
-                addProperty(ret, keyValue, JSArray.from(value));
+                connection.worker.removeCallbacksAndMessages(connectCall);
+                connection.connectStarted = 0;
 
-            } else {
-                call.error(keyErrorValueWrite);
-            }
-        }
+                if (newState != BluetoothProfile.STATE_DISCONNECTED) {
+                    connection.setState(BluetoothProfile.STATE_DISCONNECTED);
+                    releaseConnection(address, connection);
+                    gatt.disconnect();
+                }
 
-        @Override
-        public void onCharacteristicChanged(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic) {
+                // the failed client would otherwise keep its connection slot in the Android stack
+                gatt.close();
+                connections.remove(address, connection);
 
-            BluetoothDevice device = gatt.getDevice();
-            String address = device.getAddress();
+                connectCall.error("Unable to connect to Peripheral");
+                return;
 
-            UUID characteristicUuid = characteristic.getUuid();
+            } else if (disconnectCall != null) {
 
-            BluetoothGattService service = characteristic.getService();
-            UUID serviceUuid = service.getUuid();
+                disconnectCall.error("Unable to disconnect from Peripheral");
 
-            byte[] characteristicValue = characteristic.getValue();
+                return;
 
+            } else if (newState == BluetoothProfile.STATE_DISCONNECTED) {
 
-            Integer characteristic16BitUuid = get16BitUUID(characteristicUuid);
+                onConnectionLost(address, connection);
+                return;
+
+            } else {
 
-            if (characteristic16BitUuid == null) {
+                Log.e(getLogTag(), "GATT operation unsuccessfull");
                 return;
-            }
 
-            JSObject ret = new JSObject();
-            addProperty(ret, keyValue, JSArray.from(characteristicValue));
+            }
 
-            notifyListeners(characteristic16BitUuid.toString(), ret);
         }
+    }
 
-        @Override
-        public void onDescriptorRead(BluetoothGatt gatt, BluetoothGattDescriptor descriptor, int status) {
+    private void handleServicesDiscovered(BluetoothGatt gatt, int status) {
 
-            BluetoothDevice device = gatt.getDevice();
-            String address = device.getAddress();
+        BluetoothDevice device = gatt.getDevice();
+        String address = device.getAddress();
 
-            HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        Connection connection = connections.get(address);
 
-            if (connection == null) {
-                return;
-            }
+        if (connection == null) {
+            Log.e(getLogTag(), "No connection");
+            return;
+        }
 
-            PluginCall call = (PluginCall) connection.get(keyOperationReadDescriptor);
+        GattMetrics deviceMetrics = getDeviceMetrics(address);
 
-            if (call == null) {
-                return;
+        if (status == BluetoothGatt.GATT_SUCCESS) {
+            recordDuration(deviceMetrics.discoveryTime, connection.discoveryStarted);
+            connection.serviceIndex = new GattServiceIndex(gatt.getServices());
+            connection.setDiscoveryState(SERVICES_DISCOVERED);
+            updateGattDatabase(connection, address, gatt.getServices());
+
+            if (connection.restoreNotifications.getAndSet(false)) {
+                restoreNotifications(gatt, connection);
             }
+        } else {
+            deviceMetrics.addFailure(status);
+            connection.setDiscoveryState(SERVICES_UNDISCOVERED);
+        }
 
-            if (status == BluetoothGatt.GATT_SUCCESS) {
+        connection.discoveryStarted = 0;
 
-                JSObject ret = new JSObject();
+        runPendingCalls(connection);
 
-                byte[] value = descriptor.getValue();
-                addProperty(ret, keyValue, JSArray.from(value));
+        PluginCall call = connection.discoverCall.getAndSet(null);
 
-                call.resolve(ret);
-            } else {
-                call.error(keyErrorValueRead);
-            }
+        if (call == null) {
+            return;
+        }
+
+        if (status == BluetoothGatt.GATT_SUCCESS) {
+            JSObject ret = new JSObject();
+            addProperty(ret, keyDiscoveryState, true);
+            call.resolve(ret);
+        } else {
+            call.error("Service discovery unsuccessful");
+        }
+    }
 
-            connection.remove(keyOperationReadDescriptor);
+    /**
+     * Called by Android 12 and newer when the peripheral indicated that its GATT database changed.
+     * Cached services and characteristics are stale then, so the index is dropped and services are rediscovered.
+     * The database is kept until the rediscovery replaced it, so the change can be reported to listeners.
+     */
+    private void handleServiceChanged(BluetoothGatt gatt) {
 
+        Connection connection = connections.get(gatt.getDevice().getAddress());
+
+        if (connection == null) {
+            return;
         }
 
-        @Override
-        public void onDescriptorWrite(BluetoothGatt gatt, BluetoothGattDescriptor descriptor, int status) {
+        connection.serviceIndex = null;
 
-            BluetoothDevice device = gatt.getDevice();
-            String address = device.getAddress();
+        connection.discoveryStarted = System.nanoTime();
 
-            HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        if (gatt.discoverServices()) {
+            connection.setDiscoveryState(SERVICES_DISCOVERING);
+        } else {
+            connection.setDiscoveryState(SERVICES_UNDISCOVERED);
+        }
+    }
 
-            if (connection == null) {
-                return;
-            }
+    /**
+     * @param time when the notification arrived, batches are timestamped with it rather than with the time they are processed
+     */
+    private void handleCharacteristicChanged(BluetoothGatt gatt, UUID characteristicUuid, byte[] characteristicValue, long time) {
 
-            PluginCall call = (PluginCall) connection.get(keyOperationWriteDescriptor);
+        BluetoothDevice device = gatt.getDevice();
+        String address = device.getAddress();
 
-            if (call == null) {
-                return;
-            }
+        String eventName = BluetoothUUIDs.toEventName(characteristicUuid);
 
-            byte[] value = descriptor.getValue();
+        Connection connection = connections.get(address);
 
-            JSObject ret = new JSObject();
+        if (connection == null) {
+            return;
+        }
 
-            if (status == BluetoothGatt.GATT_SUCCESS) {
+        GattMetrics deviceMetrics = getDeviceMetrics(address);
+        deviceMetrics.addNotification(time);
 
-                addProperty(ret, keyValue, JSArray.from(value));
-                call.resolve(ret);
+        if (connection.recordedNotifications.contains(characteristicUuid)) {
 
-            } else {
-                call.error(keyErrorValueWrite);
+            if (!notificationRecorder.append(time, connection.addressBytes, characteristicUuid, characteristicValue)) {
+                Log.e(getLogTag(), "Unable to record notification");
             }
 
-            connection.remove(keyOperationWriteDescriptor);
-
+            return;
         }
 
-        @Override
-        public void onReliableWriteCompleted(BluetoothGatt gatt, int status) {
-            super.onReliableWriteCompleted(gatt, status);
+        Map<UUID, String> encodings = connection.notificationEncodings;
+        String encoding = encodings.get(characteristicUuid);
+
+        if (encoding == null) {
+            encoding = connection.encoding;
         }
 
-        @Override
-        public void onReadRemoteRssi(BluetoothGatt gatt, int rssi, int status) {
-            super.onReadRemoteRssi(gatt, rssi, status);
+        Map<UUID, NotificationBuffer> buffers = connection.notificationBuffers;
+        NotificationBuffer buffer = buffers.get(characteristicUuid);
+
+        if (buffer != null) {
+
+            NotificationBuffer.Batch batch = buffer.add(characteristicValue, time);
+
+            if (batch != null) {
+                notifyBatch(connection, eventName, batch, buffer);
+            }
+
+            return;
         }
 
-        @Override
-        public void onMtuChanged(BluetoothGatt gatt, int mtu, int status) {
-            super.onMtuChanged(gatt, mtu, status);
+        Map<UUID, CharacteristicDecoder> decoders = connection.notificationDecoders;
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyValue, toJSValue(characteristicValue, encoding, decoders.get(characteristicUuid)));
+
+        Set<UUID> gaps = connection.notificationGaps;
+
+        if (gaps.remove(characteristicUuid)) {
+            addProperty(ret, keyGap, true);
         }
 
-    };
+        long emitStarted = System.nanoTime();
+        notifyListeners(eventName, ret);
+        deviceMetrics.emitTime.add((System.nanoTime() - emitStarted) / 1000);
+    }
 
     private class BLEScanCallback extends ScanCallback {
 
@@ -440,13 +734,35 @@ public class BluetoothLEClient extends Plugin {
             super.onScanResult(callbackType, result);
 
             BluetoothDevice device = result.getDevice();
+            ScanRecord record = result.getScanRecord();
+            JSObject scanResult;
+
+            // the cache is guarded by the plugin instance, like the rest of the scan state
+            synchronized (BluetoothLEClient.this) {
+
+                if (scanCallback != this) {
+                    return;
+                }
+
+                boolean isNew = scanResults.update(device.getAddress(), device, result.getRssi(), record == null ? null : record.getBytes(), System.currentTimeMillis());
+
+                if (!isNew || !scanStream) {
+                    return;
+                }
 
-            if (!availableDevices.containsKey(device.getAddress())) {
-                availableDevices.put(device.getAddress(), device);
+                scanResult = createScanResult(scanResults.get(device.getAddress()), scanEncoding);
             }
 
-            return;
+            notifyListeners(keyEventScanResult, scanResult);
+
+        }
+
+        @Override
+        public void onBatchScanResults(List<ScanResult> results) {
 
+            for (ScanResult result : results) {
+                onScanResult(ScanSettings.CALLBACK_TYPE_ALL_MATCHES, result);
+            }
         }
 
         @Override
@@ -460,6 +776,34 @@ public class BluetoothLEClient extends Plugin {
     protected void handleOnStart() {
         BluetoothManager bluetoothManager = (BluetoothManager) getContext().getSystemService(Context.BLUETOOTH_SERVICE);
         bluetoothAdapter = bluetoothManager.getAdapter();
+
+        if (gattDatabaseStore == null) {
+            gattDatabaseStore = new GattDatabaseStore(new File(getContext().getFilesDir(), gattCacheDirectory));
+        }
+
+        // a second recorder would continue the segment the workers still append to through the first one
+        if (notificationRecorder == null) {
+            notificationRecorder = new NotificationRecorder(new File(getContext().getFilesDir(), recordingDirectory), defaultRecordingSegmentSize, defaultRecordingSegments);
+        }
+
+        if (workers == null) {
+            workers = new GattWorkerPool("BluetoothLEClientWorker", GattWorkerPool.defaultSize());
+        }
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+
+        finishScan();
+
+        if (workers != null) {
+            workers.quit();
+            workers = null;
+        }
+
+        if (notificationRecorder != null) {
+            notificationRecorder.close();
+        }
     }
 
     @PluginMethod()
@@ -502,59 +846,133 @@ public class BluetoothLEClient extends Plugin {
     @PluginMethod()
     public void scan(PluginCall call) {
 
-        bleScanner = bluetoothAdapter.getBluetoothLeScanner();
-        availableDevices = new HashMap<String, BluetoothDevice>();
+        boolean continuous = call.getBoolean(keyContinuous, false);
+        Integer duration = call.getInt(keyDuration, defaultScanDuration);
+
+        if (!continuous && (duration == null || duration <= 0)) {
+            call.reject(keyErrorDurationInvalid);
+            return;
+        }
 
-        scanCallback = new BLEScanCallback();
+        String encoding = call.getString(keyEncoding, ENCODING_ARRAY);
 
-        ScanSettings settings = new ScanSettings.Builder()
-                .setScanMode(ScanSettings.SCAN_MODE_LOW_POWER)
-                .build();
+        if (!isSupportedEncoding(encoding)) {
+            call.reject(keyErrorEncodingUnsupported);
+            return;
+        }
 
+        Integer scanMode = getScanMode(call.getString(keyScanMode, SCAN_MODE_LOW_POWER));
 
-        ArrayList<UUID> uuids = getServiceUuids(call.getArray(keyServices));
+        if (scanMode == null) {
+            call.reject(keyErrorScanModeUnsupported);
+            return;
+        }
 
-        List<ScanFilter> filters = new ArrayList<ScanFilter>();
+        Integer reportDelay = call.getInt(keyReportDelay, 0);
 
-        for (UUID uuid : uuids) {
-            ScanFilter filter = new ScanFilter.Builder().setServiceUuid(new ParcelUuid(uuid)).build();
-            filters.add(filter);
+        if (reportDelay == null || reportDelay < 0) {
+            call.reject(keyErrorReportDelayInvalid);
+            return;
         }
 
-        filters = new ArrayList<>();
+        int matchMode = getMatchMode(call.getString(keyMatchMode, MATCH_MODE_AGGRESSIVE));
 
-        bleScanner.startScan(filters, settings, scanCallback);
+        if (matchMode == -1) {
+            call.reject(keyErrorMatchModeUnsupported);
+            return;
+        }
 
-        Handler handler = new Handler();
-        handler.postDelayed(this::stopScan, 2000);
-        saveCall(call);
-    }
+        int numOfMatches = getNumOfMatches(call.getString(keyNumOfMatches, MATCH_NUM_MAX));
 
-    @PluginMethod()
-    public void connect(PluginCall call) {
+        if (numOfMatches == -1) {
+            call.reject(keyErrorNumOfMatchesUnsupported);
+            return;
+        }
 
-        String address = call.getString(keyAddress);
+        Integer ttl = call.getInt(keyTtl, defaultScanResultTtl);
 
-        if (address == null) {
-            call.reject(keyErrorAddressMissing);
+        if (ttl == null || ttl <= 0) {
+            call.reject(keyErrorTtlInvalid);
             return;
         }
 
-        HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        Double rssiSmoothing = call.getDouble(keyRssiSmoothing, defaultRssiSmoothing);
 
-        if(connection != null){
+        if (rssiSmoothing == null || !(rssiSmoothing > 0 && rssiSmoothing <= 1)) {
+            call.reject(keyErrorRssiSmoothingInvalid);
+            return;
+        }
 
-            boolean isAlreadyConnected = (Integer) connection.get(keyConnectionState) == BluetoothProfile.STATE_CONNECTED;
-            boolean servicesDiscovered = (Integer) connection.get(keyDiscovered) == SERVICES_DISCOVERED;
+        bleScanner = bluetoothAdapter.getBluetoothLeScanner();
 
-            if(isAlreadyConnected && servicesDiscovered ){
-                JSObject ret = new JSObject();
-                addProperty(ret, keyConnected, true);
-                call.resolve(ret);
+        if (bleScanner == null) {
+            call.reject(keyErrorScanUnavailable);
+            return;
+        }
+
+        synchronized (this) {
+
+            if (scanCall != null) {
+                call.reject(keyErrorScanInProgress);
                 return;
             }
 
-            connections.remove(address);
+            scanResults = new ScanResultCache(ttl, rssiSmoothing);
+            scanCallback = new BLEScanCallback();
+            scanCall = call;
+            scanStream = call.getBoolean(keyStream, false);
+            scanEncoding = encoding;
+        }
+
+        ScanSettings.Builder settingsBuilder = new ScanSettings.Builder()
+                .setScanMode(scanMode);
+
+        if (reportDelay > 0 && bluetoothAdapter.isOffloadedScanBatchingSupported()) {
+            settingsBuilder.setReportDelay(reportDelay);
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            settingsBuilder.setMatchMode(matchMode);
+            settingsBuilder.setNumOfMatches(numOfMatches);
+        }
+
+        ScanSettings settings = settingsBuilder.build();
+
+        ArrayList<UUID> uuids = getServiceUuids(call.getArray(keyServices));
+
+        List<ScanFilter> filters = new ArrayList<ScanFilter>();
+
+        for (UUID uuid : uuids) {
+            ScanFilter filter = new ScanFilter.Builder().setServiceUuid(new ParcelUuid(uuid)).build();
+            filters.add(filter);
+        }
+
+        saveCall(call);
+        bleScanner.startScan(filters, settings, scanCallback);
+
+        if (!continuous) {
+            workers.getDefault().postDelayed(scanTimeout, duration);
+        }
+    }
+
+    @PluginMethod()
+    public void stopScan(PluginCall call) {
+
+        finishScan();
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyStopped, true);
+        call.resolve(ret);
+    }
+
+    @PluginMethod()
+    public void connect(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
         }
 
         BluetoothDevice bluetoothDevice = bluetoothAdapter.getRemoteDevice(address);
@@ -565,18 +983,118 @@ public class BluetoothLEClient extends Plugin {
         }
 
         Boolean autoConnect = call.getBoolean(keyAutoConnect);
-        autoConnect = autoConnect == null ? false : autoConnect;
+        final boolean isAutoConnect = autoConnect == null ? false : autoConnect;
+
+        String encoding = call.getString(keyEncoding, ENCODING_ARRAY);
+
+        if (!isSupportedEncoding(encoding)) {
+            call.reject(keyErrorEncodingUnsupported);
+            return;
+        }
+
+        // an automatic connection waits for the peripheral to come into range, so it has no timeout unless one is given
+        Integer timeout = getTimeout(call, isAutoConnect ? 0 : defaultConnectTimeout);
+
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
+            return;
+        }
+
+        Integer priority = call.getInt(keyPriority, 0);
+        final int connectionPriority = priority == null ? 0 : priority;
+
+        ReconnectPolicy reconnectPolicy = null;
+
+        if (call.getBoolean(keyReconnect, false)) {
+
+            Integer reconnectDelay = call.getInt(keyReconnectDelay, defaultReconnectDelay);
+            Integer maxReconnectDelay = call.getInt(keyMaxReconnectDelay, defaultMaxReconnectDelay);
+            Integer maxReconnectAttempts = call.getInt(keyMaxReconnectAttempts, 0);
+
+            if (reconnectDelay == null || maxReconnectDelay == null || maxReconnectAttempts == null || reconnectDelay <= 0 || maxReconnectDelay <= 0 || maxReconnectAttempts < 0) {
+                call.reject(keyErrorReconnectOptionsInvalid);
+                return;
+            }
+
+            reconnectPolicy = new ReconnectPolicy(reconnectDelay, Math.max(reconnectDelay, maxReconnectDelay), maxReconnectAttempts, reconnectJitter);
+        }
+
+        final ReconnectPolicy policy = reconnectPolicy;
+
+        // an existing connection is only replaced once the options of this call were accepted
+        Connection connection = connections.get(address);
+
+        if(connection != null){
 
+            boolean isAlreadyConnected = connection.getState() == BluetoothProfile.STATE_CONNECTED;
+            boolean servicesDiscovered = connection.getDiscoveryState() == SERVICES_DISCOVERED;
 
-        HashMap<String, Object> con = new HashMap<>();
-        con.put(keyDiscovered, SERVICES_UNDISCOVERED);
-        con.put(keyOperationConnect, call);
+            if(isAlreadyConnected && servicesDiscovered ){
+                JSObject ret = new JSObject();
+                addProperty(ret, keyConnected, true);
+                call.resolve(ret);
+                return;
+            }
+
+            GattOperationQueue queue = connection.queue;
+            queue.clear(keyErrorNotConnected);
+            releaseNotificationBuffers(connection);
+            cancelReconnect(address, connection);
+
+            // a pending attempt is superseded by this call, its timeout must not release the new attempt's slot
+            PluginCall previous = connection.connectCall.getAndSet(null);
+
+            if (previous != null) {
+                connection.worker.removeCallbacksAndMessages(previous);
+                previous.reject(keyErrorOperationCancelled);
+            }
+
+            // the stale client would otherwise keep its connection slot in the Android stack
+            BluetoothGatt gatt = connection.gatt;
+            gatt.close();
+
+            connections.remove(address, connection);
+            connectionScheduler.release(address);
+            runPendingCalls(connection);
+        }
+
+        boolean submitted = connectionScheduler.submit(address, connectionPriority, new ConnectionScheduler.Starter() {
+            @Override
+            public void start(long waitTime) {
+                startConnection(call, bluetoothDevice, isAutoConnect, encoding, connectionPriority, policy, waitTime, timeout);
+            }
+
+            @Override
+            public void cancel() {
+                call.reject(keyErrorConnectionCancelled);
+            }
+        });
+
+        if (!submitted) {
+            call.reject(keyErrorConnectionPending);
+        }
+
+    }
+
+    @PluginMethod()
+    public void setConnectionLimits(PluginCall call) {
+
+        Integer maxConnections = call.getInt(keyMaxConnections, connectionScheduler.getMaxConnections());
+        Integer maxConnectionAttempts = call.getInt(keyMaxConnectionAttempts, connectionScheduler.getMaxConnectionAttempts());
 
-        BluetoothGatt gatt = bluetoothDevice.connectGatt(getContext(), autoConnect, bluetoothGattCallback);
+        if (maxConnections == null || maxConnections <= 0 || maxConnectionAttempts == null || maxConnectionAttempts <= 0) {
+            call.reject(keyErrorConnectionLimitsInvalid);
+            return;
+        }
 
-        con.put(keyPeripheral, gatt);
-        connections.put(address, con);
+        connectionScheduler.setLimits(maxConnections, maxConnectionAttempts);
+
+        call.resolve(createConnectionStatus());
+    }
 
+    @PluginMethod()
+    public void getConnectionStatus(PluginCall call) {
+        call.resolve(createConnectionStatus());
     }
 
     @PluginMethod()
@@ -589,10 +1107,33 @@ public class BluetoothLEClient extends Plugin {
             return;
         }
 
-        HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        Connection connection = connections.get(address);
 
         if (connection == null) {
 
+            connectionScheduler.cancel(address);
+
+            JSObject ret = new JSObject();
+            addProperty(ret, keyDisconnected, true);
+            call.resolve(ret);
+
+            return;
+        }
+
+        ReconnectPolicy policy = connection.reconnectPolicy;
+
+        // while waiting for a reconnect there is no link which could report the disconnect
+        if (policy != null && policy.isReconnecting()) {
+
+            cancelReconnect(address, connection);
+            connectionScheduler.release(address);
+
+            BluetoothGatt gatt = connection.gatt;
+            gatt.close();
+
+            connections.remove(address, connection);
+            runPendingCalls(connection);
+
             JSObject ret = new JSObject();
             addProperty(ret, keyDisconnected, true);
             call.resolve(ret);
@@ -600,15 +1141,60 @@ public class BluetoothLEClient extends Plugin {
             return;
         }
 
-        connection.put(keyOperationDisconnect, call);
+        connection.disconnectCall.set(call);
 
-        BluetoothGatt gatt = (BluetoothGatt) connection.get(keyPeripheral);
+        BluetoothGatt gatt = connection.gatt;
         gatt.disconnect();
 
         return;
 
     }
 
+    @PluginMethod()
+    public void cancelOperations(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        GattOperationQueue queue = connection.queue;
+        int cancelled = queue.clear(keyErrorOperationCancelled);
+
+        // calls made afterwards are still deferred until discovery or the reconnect finished
+        List<Connection.PendingCall> pendingCalls = connection.clearPendingCalls();
+
+        if (pendingCalls != null) {
+
+            for (Connection.PendingCall pendingCall : pendingCalls) {
+                connection.worker.removeCallbacksAndMessages(pendingCall.call);
+                pendingCall.call.reject(keyErrorOperationCancelled);
+            }
+
+            cancelled += pendingCalls.size();
+        }
+
+        PluginCall discoverCall = connection.discoverCall.getAndSet(null);
+
+        if (discoverCall != null) {
+            discoverCall.reject(keyErrorOperationCancelled);
+            cancelled++;
+        }
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyCancelled, cancelled);
+        call.resolve(ret);
+    }
+
     @PluginMethod()
     public void discover(PluginCall call) {
 
@@ -619,24 +1205,92 @@ public class BluetoothLEClient extends Plugin {
             return;
         }
 
-        HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        Integer timeout = getTimeout(call, defaultDiscoverTimeout);
+
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
+            return;
+        }
+
+        Connection connection = connections.get(address);
 
         if (connection == null) {
             call.reject(keyErrorNotConnected);
             return;
         }
 
-        BluetoothGatt gatt = (BluetoothGatt) connection.get(keyPeripheral);
+        byte[] databaseHash = null;
+        String propertyDatabaseHash = call.getString(keyDatabaseHash);
+
+        if (propertyDatabaseHash != null) {
+
+            databaseHash = fromHexString(propertyDatabaseHash);
+
+            if (databaseHash == null) {
+                call.reject(keyErrorDatabaseHashInvalid);
+                return;
+            }
+        }
+
+        boolean useCache = call.getBoolean(keyUseCache, false);
+        GattDatabase cached = useCache ? gattDatabaseStore.load(address) : null;
+
+        if (cached != null && databaseHash != null && !cached.hasHash(databaseHash)) {
+            cached = null;
+        }
+
+        BluetoothGatt gatt = connection.gatt;
+
+        connection.discoveryStarted = System.nanoTime();
 
         boolean discoveryStarted = gatt.discoverServices();
 
-        if (discoveryStarted) {
-            connection.put(keyDiscovered, SERVICES_DISCOVERING);
-            connection.put(keyOperationDiscover, call);
-        } else {
+        if (!discoveryStarted) {
             call.reject("Failed to start service discovery");
+            return;
+        }
+
+        connection.setDiscoveryState(SERVICES_DISCOVERING);
+        connection.useCache = useCache;
+
+        if (databaseHash != null) {
+            connection.databaseHash = databaseHash;
+        } else {
+            connection.databaseHash = null;
+        }
+
+        // a cached result answers right away, either way a pending discover call is superseded by this one
+        PluginCall previous = connection.discoverCall.getAndSet(cached == null ? call : null);
+
+        if (previous != null) {
+            connection.worker.removeCallbacksAndMessages(previous);
+            previous.reject(keyErrorOperationCancelled);
+        }
+
+        if (cached == null) {
+
+            if (timeout > 0) {
+                connection.worker.postAtTime(() -> {
+                    if (connection.discoverCall.compareAndSet(call, null)) {
+                        getDeviceMetrics(address).addTimeout();
+                        call.reject(keyErrorOperationTimeout);
+                    }
+                }, call, SystemClock.uptimeMillis() + timeout);
+            }
+
+            return;
         }
 
+        // the stack only hands out characteristics once discovery finished, until then the cache answers
+        // queries about the GATT tree while calls which need the characteristics themselves are deferred
+        connection.database = cached;
+
+        connection.deferCalls();
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyDiscoveryState, true);
+        addProperty(ret, keyCached, true);
+        call.resolve(ret);
     }
 
     @PluginMethod()
@@ -649,41 +1303,48 @@ public class BluetoothLEClient extends Plugin {
             return;
         }
 
-        HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        Integer timeout = getTimeout(call, defaultOperationTimeout);
+
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
+            return;
+        }
+
+        Connection connection = connections.get(address);
 
         if (connection == null) {
             call.reject(keyErrorNotConnected);
             return;
         }
 
-        BluetoothGatt gatt = (BluetoothGatt) connection.get(keyPeripheral);
+        if (deferUntilDiscovered(connection, call, timeout, () -> enableNotifications(call))) {
+            return;
+        }
+
+        BluetoothGatt gatt = connection.gatt;
 
-        Integer propertyService = call.getInt(keyService);
+        UUID serviceUuid = getUUID(call.getData(), keyService);
 
-        if (propertyService == null) {
+        if (serviceUuid == null) {
             call.reject(keyErrorServiceMissing);
             return;
         }
 
-        UUID serviceUuid = get128BitUUID(propertyService);
-
-        BluetoothGattService service = gatt.getService(serviceUuid);
+        BluetoothGattService service = getServiceIndex(connection).getService(serviceUuid);
 
         if (service == null) {
             call.reject(keyErrorServiceNotFound);
             return;
         }
 
-        Integer propertyCharacteristic = call.getInt(keyCharacteristic);
+        UUID charactristicUuid = getUUID(call.getData(), keyCharacteristic);
 
-        if (propertyCharacteristic == null) {
+        if (charactristicUuid == null) {
             call.reject(keyErrorCharacteristicMissing);
             return;
         }
 
-        UUID charactristicUuid = get128BitUUID(propertyCharacteristic);
-
-        BluetoothGattCharacteristic characteristic = service.getCharacteristic(charactristicUuid);
+        BluetoothGattCharacteristic characteristic = getServiceIndex(connection).getCharacteristic(serviceUuid, charactristicUuid);
 
         if (characteristic == null) {
             call.reject(keyErrorCharacteristicNotFound);
@@ -698,6 +1359,41 @@ public class BluetoothLEClient extends Plugin {
             return;
         }
 
+        String encoding = getEncoding(call, connection);
+
+        if (encoding == null) {
+            call.reject(keyErrorEncodingUnsupported);
+            return;
+        }
+
+        Integer batchSize = call.getInt(keyBatchSize);
+        Integer batchInterval = call.getInt(keyBatchInterval);
+
+        if ((batchSize != null && batchSize < 1) || (batchInterval != null && batchInterval < 1)) {
+            call.reject(keyErrorBatchInvalid);
+            return;
+        }
+
+        boolean record = call.getBoolean(keyRecord, false);
+
+        if (record && (batchSize != null || batchInterval != null || call.getBoolean(keyDecode, false))) {
+            call.reject(keyErrorRecordConflict);
+            return;
+        }
+
+        CharacteristicDecoder decoder = null;
+
+        if (call.getBoolean(keyDecode, false)) {
+
+            decoder = BluetoothUUIDs.is16Bit(charactristicUuid) ? CharacteristicDecoders.get(get16BitUUID(charactristicUuid)) : null;
+
+            if (decoder == null) {
+                call.reject(keyErrorDecoderNotFound);
+                return;
+            }
+        }
+
+        // options are validated before touching the GATT, so a rejected call leaves no subscription behind
         boolean notificationSet = gatt.setCharacteristicNotification(characteristic, true);
 
         if (!notificationSet) {
@@ -705,30 +1401,48 @@ public class BluetoothLEClient extends Plugin {
             return;
         }
 
-        boolean result = false;
+        final byte[] descriptorValue = getNotificationDescriptorValue(characteristic);
 
+        Map<UUID, String> encodings = connection.notificationEncodings;
+        encodings.put(charactristicUuid, encoding);
 
-        if ((characteristic.getProperties() & BluetoothGattCharacteristic.PROPERTY_NOTIFY) == BluetoothGattCharacteristic.PROPERTY_NOTIFY) {
-            result = notificationDescriptor.setValue(BluetoothGattDescriptor.ENABLE_NOTIFICATION_VALUE);
+        Map<UUID, CharacteristicDecoder> decoders = connection.notificationDecoders;
+
+        if (decoder != null) {
+            decoders.put(charactristicUuid, decoder);
         } else {
-            result = notificationDescriptor.setValue(BluetoothGattDescriptor.ENABLE_INDICATION_VALUE);
+            decoders.remove(charactristicUuid);
         }
 
-        if (!result) {
-            call.reject(keyErrorValueSet);
-            return;
+        Set<UUID> recorded = connection.recordedNotifications;
+
+        if (record) {
+            recorded.add(charactristicUuid);
+        } else {
+            recorded.remove(charactristicUuid);
         }
 
-        connection.put(keyOperationWriteDescriptor, call);
+        Map<UUID, NotificationBuffer> buffers = connection.notificationBuffers;
+        releaseNotificationBuffer(connection, characteristic, buffers.remove(charactristicUuid));
 
-        result = gatt.writeDescriptor(notificationDescriptor);
+        if (batchSize != null || batchInterval != null) {
 
-        if (!result) {
-            connection.remove(keyOperationWriteDescriptor);
-            call.reject(keyErrorValueWrite);
-            return;
+            int capacity = batchSize != null ? batchSize : defaultBatchCapacity;
+            long interval = batchInterval != null ? batchInterval : 0;
+
+            NotificationBuffer buffer = new NotificationBuffer(capacity, interval, encoding, decoder);
+            buffers.put(charactristicUuid, buffer);
+
+            if (interval > 0) {
+                scheduleNotificationFlush(connection, characteristic, buffer);
+            }
         }
 
+        Map<UUID, UUID> notificationServices = connection.notificationServices;
+        notificationServices.put(charactristicUuid, serviceUuid);
+
+        GattOperationQueue queue = connection.queue;
+        queue.enqueue(createDescriptorWriteOperation(notificationDescriptor, descriptorValue, timeout, createValueCallback(call, encoding)));
 
     }
 
@@ -742,41 +1456,48 @@ public class BluetoothLEClient extends Plugin {
             return;
         }
 
-        HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        Integer timeout = getTimeout(call, defaultOperationTimeout);
+
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
+            return;
+        }
+
+        Connection connection = connections.get(address);
 
         if (connection == null) {
             call.reject(keyErrorNotConnected);
             return;
         }
 
-        BluetoothGatt gatt = (BluetoothGatt) connection.get(keyPeripheral);
+        if (deferUntilDiscovered(connection, call, timeout, () -> disableNotifications(call))) {
+            return;
+        }
+
+        BluetoothGatt gatt = connection.gatt;
 
-        Integer propertyService = call.getInt(keyService);
+        UUID serviceUuid = getUUID(call.getData(), keyService);
 
-        if (propertyService == null) {
+        if (serviceUuid == null) {
             call.reject(keyErrorServiceMissing);
             return;
         }
 
-        UUID serviceUuid = get128BitUUID(propertyService);
-
-        BluetoothGattService service = gatt.getService(serviceUuid);
+        BluetoothGattService service = getServiceIndex(connection).getService(serviceUuid);
 
         if (service == null) {
             call.reject(keyErrorServiceNotFound);
             return;
         }
 
-        Integer propertyCharacteristic = call.getInt(keyCharacteristic);
+        UUID charactristicUuid = getUUID(call.getData(), keyCharacteristic);
 
-        if (propertyCharacteristic == null) {
+        if (charactristicUuid == null) {
             call.reject(keyErrorCharacteristicMissing);
             return;
         }
 
-        UUID charactristicUuid = get128BitUUID(propertyCharacteristic);
-
-        BluetoothGattCharacteristic characteristic = service.getCharacteristic(charactristicUuid);
+        BluetoothGattCharacteristic characteristic = getServiceIndex(connection).getCharacteristic(serviceUuid, charactristicUuid);
 
         if (characteristic == null) {
             call.reject(keyErrorCharacteristicNotFound);
@@ -798,22 +1519,30 @@ public class BluetoothLEClient extends Plugin {
             return;
         }
 
-        boolean result = notificationDescriptor.setValue(BluetoothGattDescriptor.DISABLE_NOTIFICATION_VALUE);
+        String encoding = getEncoding(call, connection);
 
-        if (!result) {
-            call.reject(keyErrorValueSet);
+        if (encoding == null) {
+            call.reject(keyErrorEncodingUnsupported);
             return;
         }
 
-        connection.put(keyOperationWriteDescriptor, call);
+        Map<UUID, String> encodings = connection.notificationEncodings;
+        encodings.remove(charactristicUuid);
 
-        result = gatt.writeDescriptor(notificationDescriptor);
+        Map<UUID, UUID> notificationServices = connection.notificationServices;
+        notificationServices.remove(charactristicUuid);
 
-        if (!result) {
-            connection.remove(keyOperationWriteDescriptor);
-            call.reject(keyErrorValueWrite);
-            return;
-        }
+        Map<UUID, CharacteristicDecoder> decoders = connection.notificationDecoders;
+        decoders.remove(charactristicUuid);
+
+        Set<UUID> recorded = connection.recordedNotifications;
+        recorded.remove(charactristicUuid);
+
+        Map<UUID, NotificationBuffer> buffers = connection.notificationBuffers;
+        releaseNotificationBuffer(connection, characteristic, buffers.remove(charactristicUuid));
+
+        GattOperationQueue queue = connection.queue;
+        queue.enqueue(createDescriptorWriteOperation(notificationDescriptor, BluetoothGattDescriptor.DISABLE_NOTIFICATION_VALUE, timeout, createValueCallback(call, encoding)));
     }
 
     @PluginMethod()
@@ -826,61 +1555,66 @@ public class BluetoothLEClient extends Plugin {
             return;
         }
 
-        HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        Integer timeout = getTimeout(call, defaultOperationTimeout);
+
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
+            return;
+        }
+
+        Connection connection = connections.get(address);
 
         if (connection == null) {
             call.reject(keyErrorNotConnected);
             return;
         }
 
-        BluetoothGatt gatt = (BluetoothGatt) connection.get(keyPeripheral);
+        if (deferUntilDiscovered(connection, call, timeout, () -> read(call))) {
+            return;
+        }
 
-        Integer propertyCharacteristic = call.getInt(keyCharacteristic);
+        UUID characteristic128BitUuid = getUUID(call.getData(), keyCharacteristic);
 
-        if (propertyCharacteristic == null) {
+        if (characteristic128BitUuid == null) {
             call.reject(keyErrorCharacteristicMissing);
             return;
         }
 
-        Integer propertyService = call.getInt(keyService);
+        UUID service128BitUuid = getUUID(call.getData(), keyService);
 
-        if (propertyService == null) {
+        if (service128BitUuid == null) {
             call.reject(keyErrorServiceMissing);
             return;
         }
 
-
-        UUID service128BitUuid = get128BitUUID(propertyService);
-        BluetoothGattService service = gatt.getService(service128BitUuid);
+        BluetoothGattService service = getServiceIndex(connection).getService(service128BitUuid);
 
         if (service == null) {
             call.reject(keyErrorServiceNotFound);
             return;
         }
 
-        UUID characteristic128BitUuid = get128BitUUID(propertyCharacteristic);
-        BluetoothGattCharacteristic characteristic = service.getCharacteristic(characteristic128BitUuid);
+        BluetoothGattCharacteristic characteristic = getServiceIndex(connection).getCharacteristic(service128BitUuid, characteristic128BitUuid);
 
         if (characteristic == null) {
             call.reject(keyErrorCharacteristicNotFound);
             return;
         }
 
-        connection.put(keyOperationRead, call);
-
+        String encoding = getEncoding(call, connection);
 
-        boolean success = gatt.readCharacteristic(characteristic);
-
-        if (!success) {
-            call.error(keyErrorValueRead);
-            connection.remove(keyOperationRead);
+        if (encoding == null) {
+            call.reject(keyErrorEncodingUnsupported);
+            return;
         }
 
+        GattOperationQueue queue = connection.queue;
+        queue.enqueue(createReadOperation(characteristic, timeout, createValueCallback(call, encoding)));
 
     }
 
     @PluginMethod()
-    public void write(PluginCall call) {
+    public void readMany(PluginCall call) {
 
         String address = call.getString(keyAddress);
 
@@ -889,44 +1623,181 @@ public class BluetoothLEClient extends Plugin {
             return;
         }
 
-        HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        Integer timeout = getTimeout(call, defaultOperationTimeout);
 
-        if (connection == null) {
-            call.reject(keyErrorNotConnected);
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
             return;
         }
 
-        BluetoothGatt gatt = (BluetoothGatt) connection.get(keyPeripheral);
-
-        Integer propertyCharacteristic = call.getInt(keyCharacteristic);
+        Connection connection = connections.get(address);
 
-        if (propertyCharacteristic == null) {
-            call.reject(keyErrorCharacteristicMissing);
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
             return;
         }
 
-        Integer propertyService = call.getInt(keyService);
-
-        if (propertyService == null) {
-            call.reject(keyErrorServiceMissing);
+        if (deferUntilDiscovered(connection, call, timeout, () -> readMany(call))) {
             return;
         }
 
-        UUID service128BitUuid = get128BitUUID(propertyCharacteristic);
-        BluetoothGattService service = gatt.getService(service128BitUuid);
+        JSArray propertyCharacteristics = call.getArray(keyCharacteristics);
 
-        if (service == null) {
-            call.reject(keyErrorServiceNotFound);
+        if (propertyCharacteristics == null) {
+            call.reject(keyErrorCharacteristicMissing);
             return;
         }
 
-        UUID characteristic128BitUuid = get128BitUUID(propertyCharacteristic);
-        BluetoothGattCharacteristic characteristic = service.getCharacteristic(characteristic128BitUuid);
+        int count = propertyCharacteristics.length();
+        ArrayList<BluetoothGattCharacteristic> characteristics = new ArrayList<>();
 
-        if (characteristic == null) {
-            call.reject(keyErrorCharacteristicNotFound);
-            return;
-        }
+        for (int index = 0; index < count; index++) {
+
+            JSONObject entry = propertyCharacteristics.optJSONObject(index);
+            UUID serviceUuid = entry != null ? getUUID(entry, keyService) : null;
+
+            if (serviceUuid == null) {
+                call.reject(keyErrorServiceMissing);
+                return;
+            }
+
+            UUID characteristicUuid = getUUID(entry, keyCharacteristic);
+
+            if (characteristicUuid == null) {
+                call.reject(keyErrorCharacteristicMissing);
+                return;
+            }
+
+            BluetoothGattService service = getServiceIndex(connection).getService(serviceUuid);
+
+            if (service == null) {
+                call.reject(keyErrorServiceNotFound);
+                return;
+            }
+
+            BluetoothGattCharacteristic characteristic = getServiceIndex(connection).getCharacteristic(serviceUuid, characteristicUuid);
+
+            if (characteristic == null) {
+                call.reject(keyErrorCharacteristicNotFound);
+                return;
+            }
+
+            characteristics.add(characteristic);
+        }
+
+        String encoding = getEncoding(call, connection);
+
+        if (encoding == null) {
+            call.reject(keyErrorEncodingUnsupported);
+            return;
+        }
+
+        if (count == 0) {
+            JSObject ret = new JSObject();
+            addProperty(ret, keyValues, new JSArray());
+            call.resolve(ret);
+            return;
+        }
+
+        JSObject[] values = new JSObject[count];
+        AtomicInteger remaining = new AtomicInteger(count);
+        AtomicBoolean failed = new AtomicBoolean(false);
+
+        GattOperationQueue queue = connection.queue;
+
+        for (int index = 0; index < count; index++) {
+
+            BluetoothGattCharacteristic characteristic = characteristics.get(index);
+            int position = index;
+
+            // once the call is rejected nobody waits for the remaining values, so their reads are skipped
+            GattOperation.Action action = (BluetoothGatt gatt) -> !failed.get() && gatt.readCharacteristic(characteristic);
+
+            GattOperation.Callback callback = new GattOperation.Callback() {
+                @Override
+                public void onSuccess(byte[] value) {
+
+                    JSObject result = new JSObject();
+                    addProperty(result, keyService, getJSUUID(characteristic.getService().getUuid()));
+                    addProperty(result, keyCharacteristic, getJSUUID(characteristic.getUuid()));
+                    addProperty(result, keyValue, encodeValue(value, encoding));
+                    values[position] = result;
+
+                    if (remaining.decrementAndGet() == 0 && !failed.get()) {
+                        JSObject ret = new JSObject();
+                        addProperty(ret, keyValues, JSArray.from(values));
+                        call.resolve(ret);
+                    }
+                }
+
+                @Override
+                public void onError(String message) {
+                    if (failed.compareAndSet(false, true)) {
+                        call.reject(message);
+                    }
+                }
+            };
+
+            queue.enqueue(new GattOperation(GattOperation.TYPE_READ, GattOperation.targetOf(characteristic), action, callback, keyErrorValueRead, timeout));
+        }
+
+    }
+
+    @PluginMethod()
+    public void write(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Integer timeout = getTimeout(call, defaultOperationTimeout);
+
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        if (deferUntilDiscovered(connection, call, timeout, () -> write(call))) {
+            return;
+        }
+
+        UUID characteristic128BitUuid = getUUID(call.getData(), keyCharacteristic);
+
+        if (characteristic128BitUuid == null) {
+            call.reject(keyErrorCharacteristicMissing);
+            return;
+        }
+
+        UUID service128BitUuid = getUUID(call.getData(), keyService);
+
+        if (service128BitUuid == null) {
+            call.reject(keyErrorServiceMissing);
+            return;
+        }
+
+        BluetoothGattService service = getServiceIndex(connection).getService(service128BitUuid);
+
+        if (service == null) {
+            call.reject(keyErrorServiceNotFound);
+            return;
+        }
+
+        BluetoothGattCharacteristic characteristic = getServiceIndex(connection).getCharacteristic(service128BitUuid, characteristic128BitUuid);
+
+        if (characteristic == null) {
+            call.reject(keyErrorCharacteristicNotFound);
+            return;
+        }
 
         String value = call.getString(keyValue);
 
@@ -942,26 +1813,168 @@ public class BluetoothLEClient extends Plugin {
             return;
         }
 
-        boolean valueSet = characteristic.setValue(toWrite);
+        String encoding = getEncoding(call, connection);
+
+        if (encoding == null) {
+            call.reject(keyErrorEncodingUnsupported);
+            return;
+        }
+
+        GattOperationQueue queue = connection.queue;
+
+        if (call.getBoolean(keyChunked, false)) {
+            int chunkSize = connection.mtu - attHeaderLength;
+            enqueueChunkedWrite(queue, characteristic, toWrite, chunkSize, timeout, call, encoding);
+            return;
+        }
+
+        queue.enqueue(createWriteOperation(characteristic, toWrite, timeout, createValueCallback(call, encoding)));
+
+    }
+
+    @PluginMethod()
+    public void writeReliable(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Integer timeout = getTimeout(call, defaultOperationTimeout);
+
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        if (deferUntilDiscovered(connection, call, timeout, () -> writeReliable(call))) {
+            return;
+        }
+
+        JSArray propertyWrites = call.getArray(keyWrites);
 
-        if (!valueSet) {
-            call.reject(keyErrorValueSet);
+        if (propertyWrites == null || propertyWrites.length() == 0) {
+            call.reject(keyErrorWritesMissing);
             return;
         }
 
-        connection.put(keyOperationWrite, call);
+        int count = propertyWrites.length();
+        ArrayList<BluetoothGattCharacteristic> characteristics = new ArrayList<>();
+        ArrayList<byte[]> values = new ArrayList<>();
+
+        for (int index = 0; index < count; index++) {
+
+            JSONObject entry = propertyWrites.optJSONObject(index);
+            UUID serviceUuid = entry != null ? getUUID(entry, keyService) : null;
+
+            if (serviceUuid == null) {
+                call.reject(keyErrorServiceMissing);
+                return;
+            }
+
+            UUID characteristicUuid = getUUID(entry, keyCharacteristic);
+
+            if (characteristicUuid == null) {
+                call.reject(keyErrorCharacteristicMissing);
+                return;
+            }
+
+            BluetoothGattService service = getServiceIndex(connection).getService(serviceUuid);
+
+            if (service == null) {
+                call.reject(keyErrorServiceNotFound);
+                return;
+            }
+
+            BluetoothGattCharacteristic characteristic = getServiceIndex(connection).getCharacteristic(serviceUuid, characteristicUuid);
+
+            if (characteristic == null) {
+                call.reject(keyErrorCharacteristicNotFound);
+                return;
+            }
+
+            String value = entry.optString(keyValue, null);
+
+            if (value == null) {
+                call.reject(keyErrorValueMissing);
+                return;
+            }
+
+            byte[] toWrite = toByteArray(value);
 
-        boolean success = gatt.writeCharacteristic(characteristic);
+            if (toWrite == null) {
+                call.reject("Unsufficient value given");
+                return;
+            }
 
-        if (!success) {
-            call.error(keyErrorValueWrite);
-            connection.remove(keyOperationWrite);
+            characteristics.add(characteristic);
+            values.add(toWrite);
         }
 
+        ReliableWrite.Transaction transaction = new ReliableWrite.Transaction() {
+            @Override
+            public boolean begin(BluetoothGatt gatt) {
+                return gatt.beginReliableWrite();
+            }
+
+            @Override
+            public boolean write(BluetoothGatt gatt, int index, byte[] value) {
+
+                BluetoothGattCharacteristic characteristic = characteristics.get(index);
+
+                // prepared writes need a response, the characteristic's own write type is restored once the request is issued
+                int writeType = characteristic.getWriteType();
+                characteristic.setWriteType(BluetoothGattCharacteristic.WRITE_TYPE_DEFAULT);
+
+                boolean issued = characteristic.setValue(value) && gatt.writeCharacteristic(characteristic);
+
+                characteristic.setWriteType(writeType);
+
+                return issued;
+            }
+
+            @Override
+            public boolean execute(BluetoothGatt gatt) {
+                return gatt.executeReliableWrite();
+            }
+
+            @Override
+            public void abort(BluetoothGatt gatt) {
+                gatt.abortReliableWrite();
+            }
+        };
+
+        ReliableWrite.Listener listener = new ReliableWrite.Listener() {
+            @Override
+            public void onComplete(int writes) {
+
+                JSObject ret = new JSObject();
+                addProperty(ret, keyExecuted, true);
+                addProperty(ret, keyWrites, writes);
+                call.resolve(ret);
+            }
+
+            @Override
+            public void onError(String message) {
+                call.reject(message);
+            }
+        };
+
+        GattOperationQueue queue = connection.queue;
+        new ReliableWrite(queue, values, timeout, transaction, listener).start();
     }
 
     @PluginMethod()
-    public void readDescriptor(PluginCall call) {
+    public void writeStream(PluginCall call) {
 
         String address = call.getString(keyAddress);
 
@@ -970,257 +1983,1803 @@ public class BluetoothLEClient extends Plugin {
             return;
         }
 
-        HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        Integer timeout = getTimeout(call, defaultOperationTimeout);
+
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
+            return;
+        }
+
+        Connection connection = connections.get(address);
 
         if (connection == null) {
             call.reject(keyErrorNotConnected);
             return;
         }
 
-        BluetoothGatt gatt = (BluetoothGatt) connection.get(keyPeripheral);
+        if (deferUntilDiscovered(connection, call, timeout, () -> writeStream(call))) {
+            return;
+        }
 
-        Integer propertyService = call.getInt(keyService);
+        UUID serviceUuid = getUUID(call.getData(), keyService);
 
-        if (propertyService == null) {
+        if (serviceUuid == null) {
             call.reject(keyErrorServiceMissing);
             return;
         }
 
-        Integer propertyCharacteristic = call.getInt(keyCharacteristic);
+        UUID characteristicUuid = getUUID(call.getData(), keyCharacteristic);
 
-        if (propertyCharacteristic == null) {
+        if (characteristicUuid == null) {
             call.reject(keyErrorCharacteristicMissing);
             return;
         }
 
-        Integer propertyDescriptor = call.getInt(keyDescriptor);
+        BluetoothGattService service = getServiceIndex(connection).getService(serviceUuid);
 
-        if (propertyDescriptor == null) {
-            call.reject(keyErrorDescriptorMissing);
+        if (service == null) {
+            call.reject(keyErrorServiceNotFound);
             return;
         }
 
-        BluetoothGattService service = gatt.getService(get128BitUUID(propertyService));
+        BluetoothGattCharacteristic characteristic = getServiceIndex(connection).getCharacteristic(serviceUuid, characteristicUuid);
 
-        if (service == null) {
-            call.reject(keyErrorServiceNotFound);
+        if (characteristic == null) {
+            call.reject(keyErrorCharacteristicNotFound);
+            return;
+        }
+
+        if ((characteristic.getProperties() & BluetoothGattCharacteristic.PROPERTY_WRITE_NO_RESPONSE) == 0) {
+            call.reject(keyErrorWriteWithoutResponseUnsupported);
+            return;
+        }
+
+        String value = call.getString(keyValue);
+
+        if (value == null) {
+            call.reject(keyErrorValueMissing);
+            return;
+        }
+
+        byte[] toWrite = toByteArray(value);
+
+        if (toWrite == null) {
+            call.reject("Unsufficient value given");
+            return;
+        }
+
+        int mtu = connection.mtu;
+        Integer chunkSize = call.getInt(keyChunkSize, WriteStream.getMaxChunkSize(mtu));
+        Integer credits = call.getInt(keyCredits, defaultWriteCredits);
+
+        if (chunkSize == null || chunkSize <= 0 || credits == null || credits <= 0) {
+            call.reject(keyErrorStreamOptionsInvalid);
+            return;
+        }
+
+        WriteStream.Writer writer = (BluetoothGatt gatt, byte[] chunk) -> {
+
+            // the write type is taken over when the request is issued, so other writes keep the characteristic's default
+            int writeType = characteristic.getWriteType();
+            characteristic.setWriteType(BluetoothGattCharacteristic.WRITE_TYPE_NO_RESPONSE);
+
+            boolean issued = characteristic.setValue(chunk) && gatt.writeCharacteristic(characteristic);
+
+            characteristic.setWriteType(writeType);
+
+            return issued;
+        };
+
+        WriteStream.Listener listener = new WriteStream.Listener() {
+            @Override
+            public void onComplete(WriteStream stream) {
+                JSObject ret = new JSObject();
+                addProperty(ret, keyBytesWritten, stream.getBytesWritten());
+                addProperty(ret, keyChunks, stream.getChunks());
+                addProperty(ret, keyDuration, stream.getDuration());
+                addProperty(ret, keyThroughput, stream.getThroughput());
+                call.resolve(ret);
+            }
+
+            @Override
+            public void onError(String message) {
+                call.reject(message);
+            }
+        };
+
+        GattOperationQueue queue = connection.queue;
+        new WriteStream(queue, toWrite, chunkSize, credits, mtu, timeout, writer, listener).start();
+    }
+
+    @PluginMethod()
+    public void requestConnectionPriority(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        String connectionPriority = call.getString(keyConnectionPriority);
+
+        if (connectionPriority == null) {
+            call.reject(keyErrorConnectionPriorityMissing);
+            return;
+        }
+
+        int priority = getConnectionPriority(connectionPriority);
+
+        if (priority == -1) {
+            call.reject(keyErrorConnectionPriorityUnsupported);
+            return;
+        }
+
+        BluetoothGatt gatt = connection.gatt;
+
+        if (!gatt.requestConnectionPriority(priority)) {
+            call.reject(keyErrorConnectionPriorityRequest);
             return;
         }
 
-        BluetoothGattCharacteristic characteristic = service.getCharacteristic(get128BitUUID(propertyCharacteristic));
+        connection.connectionPriority = priority;
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyConnectionPriority, connectionPriority);
+        call.resolve(ret);
+    }
+
+    @PluginMethod()
+    public void setPreferredPhy(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Integer timeout = getTimeout(call, defaultOperationTimeout);
+
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            call.reject(keyErrorPhyUnavailable);
+            return;
+        }
+
+        String phy = call.getString(keyPhy);
+
+        if (phy == null) {
+            call.reject(keyErrorPhyMissing);
+            return;
+        }
+
+        int phyMask = getPhyMask(phy);
+
+        if (phyMask == -1) {
+            call.reject(keyErrorPhyUnsupported);
+            return;
+        }
+
+        int codedOption = getCodedOption(call.getString(keyCodedOption, CODED_OPTION_ANY));
+
+        if (codedOption == -1) {
+            call.reject(keyErrorCodedOptionUnsupported);
+            return;
+        }
+
+        GattOperationQueue queue = connection.queue;
+        queue.enqueue(new GattOperation(GattOperation.TYPE_SET_PHY, (BluetoothGatt gatt) -> {
+            gatt.setPreferredPhy(phyMask, phyMask, codedOption);
+            return true;
+        }, createPhyCallback(call, connection), keyErrorPhyRequest, timeout));
+    }
+
+    @PluginMethod()
+    public void readPhy(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Integer timeout = getTimeout(call, defaultOperationTimeout);
+
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            call.reject(keyErrorPhyUnavailable);
+            return;
+        }
+
+        GattOperationQueue queue = connection.queue;
+        queue.enqueue(new GattOperation(GattOperation.TYPE_READ_PHY, (BluetoothGatt gatt) -> {
+            gatt.readPhy();
+            return true;
+        }, createPhyCallback(call, connection), keyErrorPhyRead, timeout));
+    }
+
+    @PluginMethod()
+    public void startRssiMonitor(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        Integer interval = call.getInt(keyInterval, defaultRssiInterval);
+        Integer windowSize = call.getInt(keyWindowSize, defaultRssiWindowSize);
+        Integer reportInterval = call.getInt(keyReportInterval, defaultRssiReportInterval);
+
+        if (interval == null || windowSize == null || reportInterval == null || interval <= 0 || windowSize <= 0 || reportInterval <= 0) {
+            call.reject(keyErrorRssiMonitorOptionsInvalid);
+            return;
+        }
+
+        stopRssiMonitor(connection);
+
+        RssiMonitor monitor = new RssiMonitor(interval, windowSize, reportInterval);
+        connection.rssiMonitor = monitor;
+
+        GattOperationQueue queue = connection.queue;
+        GattOperation.Callback callback = createRssiCallback(address, connection, monitor);
+
+        Runnable sampler = new Runnable() {
+            @Override
+            public void run() {
+
+                if (connection.rssiMonitor != monitor) {
+                    return;
+                }
+
+                if (monitor.startSample()) {
+                    queue.enqueue(new GattOperation(GattOperation.TYPE_READ_RSSI, (BluetoothGatt gatt) -> gatt.readRemoteRssi(), callback, keyErrorRssiRead));
+                }
+
+                connection.worker.postAtTime(this, monitor, SystemClock.uptimeMillis() + monitor.interval);
+            }
+        };
+
+        connection.worker.postAtTime(sampler, monitor, SystemClock.uptimeMillis());
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyStarted, true);
+        call.resolve(ret);
+    }
+
+    @PluginMethod()
+    public void stopRssiMonitor(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        stopRssiMonitor(connection);
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyStopped, true);
+        call.resolve(ret);
+    }
+
+    @PluginMethod()
+    public void requestMtu(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Integer timeout = getTimeout(call, defaultOperationTimeout);
+
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        Integer mtu = call.getInt(keyMtu);
+
+        if (mtu == null) {
+            call.reject(keyErrorMtuMissing);
+            return;
+        }
+
+        if (mtu < defaultMtu || mtu > maxMtu) {
+            call.reject(keyErrorMtuInvalid);
+            return;
+        }
+
+        GattOperation.Callback callback = new GattOperation.Callback() {
+            @Override
+            public void onSuccess(byte[] value) {
+                JSObject ret = new JSObject();
+                addProperty(ret, keyMtu, connection.mtu);
+                call.resolve(ret);
+            }
+
+            @Override
+            public void onError(String message) {
+                call.reject(message);
+            }
+        };
+
+        GattOperationQueue queue = connection.queue;
+        queue.enqueue(new GattOperation(GattOperation.TYPE_MTU, (BluetoothGatt gatt) -> gatt.requestMtu(mtu), callback, keyErrorMtuRequest, timeout));
+    }
+
+    @PluginMethod()
+    public void readDescriptor(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Integer timeout = getTimeout(call, defaultOperationTimeout);
+
+        if (timeout == null) {
+            call.reject(keyErrorTimeoutInvalid);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        if (deferUntilDiscovered(connection, call, timeout, () -> readDescriptor(call))) {
+            return;
+        }
+
+        UUID propertyService = getUUID(call.getData(), keyService);
+
+        if (propertyService == null) {
+            call.reject(keyErrorServiceMissing);
+            return;
+        }
+
+        UUID propertyCharacteristic = getUUID(call.getData(), keyCharacteristic);
+
+        if (propertyCharacteristic == null) {
+            call.reject(keyErrorCharacteristicMissing);
+            return;
+        }
+
+        UUID propertyDescriptor = getUUID(call.getData(), keyDescriptor);
+
+        if (propertyDescriptor == null) {
+            call.reject(keyErrorDescriptorMissing);
+            return;
+        }
+
+        BluetoothGattService service = getServiceIndex(connection).getService(propertyService);
+
+        if (service == null) {
+            call.reject(keyErrorServiceNotFound);
+            return;
+        }
+
+        BluetoothGattCharacteristic characteristic = getServiceIndex(connection).getCharacteristic(propertyService, propertyCharacteristic);
+
+        if (characteristic == null) {
+            call.reject(keyErrorCharacteristicNotFound);
+            return;
+        }
+
+        BluetoothGattDescriptor descriptor = characteristic.getDescriptor(propertyDescriptor);
+
+        if (descriptor == null) {
+            call.reject(keyErrorDescriptorNotFound);
+            return;
+        }
+
+        String encoding = getEncoding(call, connection);
+
+        if (encoding == null) {
+            call.reject(keyErrorEncodingUnsupported);
+            return;
+        }
+
+        GattOperationQueue queue = connection.queue;
+        queue.enqueue(new GattOperation(GattOperation.TYPE_READ_DESCRIPTOR, GattOperation.targetOf(descriptor), (BluetoothGatt peripheral) -> peripheral.readDescriptor(descriptor), createValueCallback(call, encoding), keyErrorValueRead, timeout));
+
+    }
+
+    @PluginMethod()
+    public void getServices(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        List<GattDatabase.Service> services = getGattDatabase(connection).services;
+        ArrayList<JSObject> retServices = new ArrayList<>();
+
+        for (GattDatabase.Service service : services) {
+            retServices.add(createJSBluetoothGattService(service));
+        }
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyServices, JSArray.from(retServices.toArray()));
+
+        call.resolve(ret);
+
+    }
+
+    @PluginMethod()
+    public void getService(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        UUID propertyService = getUUID(call.getData(), keyUuid);
+
+        if (propertyService == null) {
+            call.reject(keyErrorServiceMissing);
+            return;
+        }
+
+        GattDatabase.Service service = getGattDatabase(connection).getService(propertyService);
+
+        if (service == null) {
+            call.reject(keyErrorServiceNotFound);
+            return;
+        }
+
+        call.resolve(createJSBluetoothGattService(service));
+    }
+
+    @PluginMethod()
+    public void getCharacteristics(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        UUID propertyService = getUUID(call.getData(), keyService);
+
+        if (propertyService == null) {
+            call.reject(keyErrorServiceMissing);
+            return;
+        }
+
+        GattDatabase.Service service = getGattDatabase(connection).getService(propertyService);
+
+        if (service == null) {
+            call.reject(keyErrorServiceNotFound);
+            return;
+        }
+
+        List<GattDatabase.Characteristic> characteristics = service.characteristics;
+
+        ArrayList<JSObject> retCharacteristics = new ArrayList<>();
+
+        for (GattDatabase.Characteristic characteristic : characteristics) {
+            retCharacteristics.add(createJSBluetoothGattCharacteristic(characteristic));
+        }
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyCharacteristics, JSArray.from(retCharacteristics.toArray()));
+
+        call.resolve(ret);
+    }
+
+    @PluginMethod()
+    public void getCharacteristic(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        UUID propertyService = getUUID(call.getData(), keyService);
+
+        if (propertyService == null) {
+            call.reject(keyErrorServiceMissing);
+            return;
+        }
+
+        GattDatabase.Service service = getGattDatabase(connection).getService(propertyService);
+
+        if (service == null) {
+            call.reject(keyErrorServiceNotFound);
+            return;
+        }
+
+        UUID propertyCharacteristic = getUUID(call.getData(), keyCharacteristic);
+
+        if (propertyCharacteristic == null) {
+            call.reject(keyErrorCharacteristicMissing);
+            return;
+        }
+
+        GattDatabase.Characteristic characteristic = getGattDatabase(connection).getCharacteristic(propertyService, propertyCharacteristic);
+
+        if (characteristic == null) {
+            call.reject(keyErrorCharacteristicNotFound);
+            return;
+        }
+
+        JSObject retCharacteristic = createJSBluetoothGattCharacteristic(characteristic);
+
+        call.resolve(retCharacteristic);
+
+    }
+
+
+    @PluginMethod()
+    public void getGattTree(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        if (address == null) {
+            call.reject(keyErrorAddressMissing);
+            return;
+        }
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            call.reject(keyErrorNotConnected);
+            return;
+        }
+
+        GattDatabase database = getGattDatabase(connection);
+
+        // a new database is set by every discovery, so the tree is only rebuilt once per discovery
+        Connection.GattTree gattTree = connection.gattTree;
+
+        if (gattTree == null || gattTree.database != database) {
+            gattTree = new Connection.GattTree(database, createJSGattTree(database));
+            connection.gattTree = gattTree;
+        }
+
+        call.resolve(gattTree.tree);
+    }
+
+    @PluginMethod()
+    public void readRecording(PluginCall call) {
+
+        Double from = call.getDouble(keyFrom, 0.0);
+        Double to = call.getDouble(keyTo, (double) Long.MAX_VALUE);
+        Integer limit = call.getInt(keyLimit, defaultRecordingReadLimit);
+
+        if (limit == null || limit < 1) {
+            call.reject(keyErrorLimitInvalid);
+            return;
+        }
+
+        String encoding = call.getString(keyEncoding, ENCODING_ARRAY);
+
+        if (!isSupportedEncoding(encoding)) {
+            call.reject(keyErrorEncodingUnsupported);
+            return;
+        }
+
+        NotificationRecorder.Cursor cursor = null;
+        String propertyCursor = call.getString(keyCursor);
+
+        if (propertyCursor != null) {
+
+            cursor = NotificationRecorder.Cursor.parse(propertyCursor);
+
+            if (cursor == null) {
+                call.reject(keyErrorCursorInvalid);
+                return;
+            }
+        }
+
+        String address = call.getString(keyAddress);
+        UUID characteristicUuid = null;
+
+        if (call.hasOption(keyCharacteristic)) {
+
+            characteristicUuid = getUUID(call.getData(), keyCharacteristic);
+
+            if (characteristicUuid == null) {
+                call.reject(keyErrorCharacteristicMissing);
+                return;
+            }
+        }
+
+        long start = from == null ? 0 : from.longValue();
+        long end = to == null ? Long.MAX_VALUE : to.longValue();
+
+        NotificationRecorder.Result result = notificationRecorder.read(start, end, address, characteristicUuid, limit, cursor);
+
+        if (result == null) {
+            call.reject(keyErrorCursorInvalid);
+            return;
+        }
+
+        JSObject[] records = new JSObject[result.records.size()];
+
+        for (int i = 0; i < records.length; i++) {
+
+            NotificationRecorder.Record record = result.records.get(i);
+
+            JSObject retRecord = new JSObject();
+            addProperty(retRecord, keyTime, record.time);
+            addProperty(retRecord, keyAddress, record.address);
+            addProperty(retRecord, keyCharacteristic, getJSUUID(record.characteristic));
+            addProperty(retRecord, keyValue, encodeValue(record.value, encoding));
+            records[i] = retRecord;
+        }
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyRecords, JSArray.from(records));
+
+        if (result.next != null) {
+            addProperty(ret, keyCursor, result.next.toString());
+        }
+
+        call.resolve(ret);
+    }
+
+    @PluginMethod()
+    public void clearRecording(PluginCall call) {
+
+        notificationRecorder.clear();
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyCleared, true);
+        call.resolve(ret);
+    }
+
+    @PluginMethod()
+    public void getMetrics(PluginCall call) {
+
+        String address = call.getString(keyAddress);
+
+        JSObject ret = createMetricsResult(address);
+
+        if (call.getBoolean(keyReset, false)) {
+
+            for (Map.Entry<String, GattMetrics> entry : metrics.entrySet()) {
+
+                if (address == null || address.equals(entry.getKey())) {
+                    entry.getValue().reset();
+                }
+            }
+        }
+
+        call.resolve(ret);
+    }
+
+    @PluginMethod()
+    public void startMetricsReporting(PluginCall call) {
+
+        Integer interval = call.getInt(keyInterval, defaultMetricsInterval);
+
+        if (interval == null || interval <= 0) {
+            call.reject(keyErrorMetricsIntervalInvalid);
+            return;
+        }
+
+        Handler worker = workers.getDefault();
+        worker.removeCallbacksAndMessages(metricsReporter);
+
+        Runnable report = new Runnable() {
+            @Override
+            public void run() {
+                notifyListeners(keyEventMetrics, createMetricsResult(null));
+                worker.postAtTime(this, metricsReporter, SystemClock.uptimeMillis() + interval);
+            }
+        };
+
+        worker.postAtTime(report, metricsReporter, SystemClock.uptimeMillis() + interval);
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyStarted, true);
+        call.resolve(ret);
+    }
+
+    @PluginMethod()
+    public void stopMetricsReporting(PluginCall call) {
+
+        workers.getDefault().removeCallbacksAndMessages(metricsReporter);
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyStopped, true);
+        call.resolve(ret);
+    }
+
+    /**
+     * Gives up a connection attempt which did not succeed within the timeout of the connect call.
+     */
+    private void timeoutConnection(Connection connection, PluginCall call) {
+
+        if (!connection.connectCall.compareAndSet(call, null)) {
+            return;
+        }
+
+        String address = connection.address;
+        getDeviceMetrics(address).addTimeout();
+        connection.connectStarted = 0;
+
+        GattOperationQueue queue = connection.queue;
+        queue.clear(keyErrorNotConnected);
+
+        BluetoothGatt gatt = connection.gatt;
+        gatt.disconnect();
+        gatt.close();
+
+        // a newer attempt to the same peripheral holds its own slot
+        if (connections.remove(address, connection)) {
+            connectionScheduler.release(address);
+        }
+
+        runPendingCalls(connection);
+
+        call.reject(keyErrorOperationTimeout);
+    }
+
+    /**
+     * Connects to the peripheral once the connection scheduler granted a slot.
+     */
+    private void startConnection(PluginCall call, BluetoothDevice device, boolean autoConnect, String encoding, int priority, ReconnectPolicy reconnectPolicy, long waitTime, long timeout) {
+
+        Connection con = new Connection(device.getAddress(), encoding, priority, reconnectPolicy, waitTime, workers.get(device.getAddress()));
+        con.connectCall.set(call);
+
+        con.connectStarted = System.nanoTime();
+
+        // registered before connecting, the first state change may reach the worker before connectGatt returns
+        connections.put(device.getAddress(), con);
+
+        BluetoothGatt gatt = device.connectGatt(getContext(), autoConnect, bluetoothGattCallback);
+
+        if (gatt == null) {
+            connections.remove(device.getAddress(), con);
+            connectionScheduler.release(device.getAddress());
+            call.reject("Unable to connect to Peripheral");
+            return;
+        }
+
+        con.gatt = gatt;
+        con.queue = createOperationQueue(con, gatt);
+
+        if (timeout > 0) {
+            con.worker.postAtTime(() -> timeoutConnection(con, call), call, SystemClock.uptimeMillis() + timeout);
+        }
+    }
+
+    /**
+     * Remembers the PHY in use, which may also change on the peripheral's initiative.
+     */
+    private void updatePhy(BluetoothGatt gatt, int txPhy, int rxPhy, int status) {
+
+        Connection connection = connections.get(gatt.getDevice().getAddress());
+
+        if (connection == null || status != BluetoothGatt.GATT_SUCCESS) {
+            return;
+        }
+
+        connection.txPhy = toPhyName(txPhy);
+        connection.rxPhy = toPhyName(rxPhy);
+    }
+
+    private GattOperation.Callback createPhyCallback(PluginCall call, Connection connection) {
+
+        return new GattOperation.Callback() {
+            @Override
+            public void onSuccess(byte[] value) {
+                JSObject ret = new JSObject();
+                addProperty(ret, keyTxPhy, connection.txPhy);
+                addProperty(ret, keyRxPhy, connection.rxPhy);
+                call.resolve(ret);
+            }
+
+            @Override
+            public void onError(String message) {
+                call.reject(message);
+            }
+        };
+    }
+
+    /**
+     * Adds each RSSI read by the monitor to its window and emits a link quality event whenever a report is due.
+     */
+    private GattOperation.Callback createRssiCallback(String address, Connection connection, RssiMonitor monitor) {
+
+        return new GattOperation.Callback() {
+            @Override
+            public void onSuccess(byte[] value) {
+
+                long now = SystemClock.elapsedRealtime();
+
+                monitor.add(connection.rssi, now);
+                monitor.finishSample();
+
+                if (connection.rssiMonitor != monitor || !monitor.shouldReport(now)) {
+                    return;
+                }
+
+                JSObject ret = new JSObject();
+                addProperty(ret, keyAddress, address);
+                addProperty(ret, keyRssi, monitor.getLatest());
+                addProperty(ret, keyMean, monitor.getMean());
+                addProperty(ret, keyVariance, monitor.getVariance());
+                addProperty(ret, keyTrend, monitor.getTrend());
+                addProperty(ret, keySamples, monitor.size());
+
+                notifyListeners(keyEventLinkQuality, ret);
+            }
+
+            @Override
+            public void onError(String message) {
+                monitor.finishSample();
+            }
+        };
+    }
+
+    private void stopRssiMonitor(Connection connection) {
+
+        RssiMonitor monitor = connection.rssiMonitor;
+        connection.rssiMonitor = null;
+
+        if (monitor != null) {
+            connection.worker.removeCallbacksAndMessages(monitor);
+        }
+    }
+
+    /**
+     * @return the BluetoothGatt connection priority or -1 if the priority is unknown
+     */
+    private int getConnectionPriority(String connectionPriority) {
+
+        if (CONNECTION_PRIORITY_HIGH.equals(connectionPriority)) {
+            return BluetoothGatt.CONNECTION_PRIORITY_HIGH;
+        }
+
+        if (CONNECTION_PRIORITY_BALANCED.equals(connectionPriority)) {
+            return BluetoothGatt.CONNECTION_PRIORITY_BALANCED;
+        }
+
+        if (CONNECTION_PRIORITY_LOW_POWER.equals(connectionPriority)) {
+            return BluetoothGatt.CONNECTION_PRIORITY_LOW_POWER;
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return the BluetoothDevice PHY mask or -1 if the PHY is unknown or not supported by the adapter
+     */
+    private int getPhyMask(String phy) {
+
+        if (PHY_1M.equals(phy)) {
+            return BluetoothDevice.PHY_LE_1M_MASK;
+        }
+
+        if (PHY_2M.equals(phy) && bluetoothAdapter.isLe2MPhySupported()) {
+            return BluetoothDevice.PHY_LE_2M_MASK;
+        }
+
+        if (PHY_CODED.equals(phy) && bluetoothAdapter.isLeCodedPhySupported()) {
+            return BluetoothDevice.PHY_LE_CODED_MASK;
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return the BluetoothDevice coded PHY option or -1 if the option is unknown
+     */
+    private int getCodedOption(String codedOption) {
+
+        if (CODED_OPTION_ANY.equals(codedOption)) {
+            return BluetoothDevice.PHY_OPTION_NO_PREFERRED;
+        }
+
+        if (CODED_OPTION_S2.equals(codedOption)) {
+            return BluetoothDevice.PHY_OPTION_S2;
+        }
+
+        if (CODED_OPTION_S8.equals(codedOption)) {
+            return BluetoothDevice.PHY_OPTION_S8;
+        }
+
+        return -1;
+    }
+
+    private String toPhyName(int phy) {
+
+        switch (phy) {
+            case BluetoothDevice.PHY_LE_2M:
+                return PHY_2M;
+            case BluetoothDevice.PHY_LE_CODED:
+                return PHY_CODED;
+            default:
+                return PHY_1M;
+        }
+    }
+
+    private JSObject createConnectionStatus() {
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyConnected, connectionScheduler.getConnected());
+        addProperty(ret, keyConnecting, connectionScheduler.getConnecting());
+        addProperty(ret, keyQueued, connectionScheduler.getQueued());
+        addProperty(ret, keyMaxConnections, connectionScheduler.getMaxConnections());
+        addProperty(ret, keyMaxConnectionAttempts, connectionScheduler.getMaxConnectionAttempts());
+        addProperty(ret, keyAverageWaitTime, connectionScheduler.getAverageWaitTime());
+        addProperty(ret, keyMaxWaitTime, connectionScheduler.getMaxWaitTime());
+        addProperty(ret, keyOldestWaitTime, connectionScheduler.getOldestWaitTime());
+
+        return ret;
+    }
+
+    /**
+     * Stops a running scan and resolves the scan call with all devices found, does nothing if no scan is running.
+     */
+    private synchronized void finishScan() {
+
+        if (scanCall == null) {
+            return;
+        }
+
+        workers.getDefault().removeCallbacks(scanTimeout);
+
+        if (bleScanner == null) {
+            bleScanner = bluetoothAdapter.getBluetoothLeScanner();
+        }
+
+        if (bleScanner != null) {
+            bleScanner.stopScan(scanCallback);
+        }
+
+        JSObject ret = new JSObject();
+        ret.put(keyAvailableDevices, getScanResult(scanEncoding));
+
+        PluginCall savedCall = scanCall;
+        scanCall = null;
+        scanCallback = null;
+
+        savedCall.resolve(ret);
+        savedCall.release(getBridge());
+        return;
+
+    }
+
+    private void completeOperation(BluetoothGatt gatt, int type, Object target, int status, byte[] value, String error) {
+
+        BluetoothDevice device = gatt.getDevice();
+        String address = device.getAddress();
+
+        Connection connection = connections.get(address);
+
+        if (connection == null) {
+            Log.e(getLogTag(), "No connection found");
+            return;
+        }
+
+        GattOperationQueue queue = connection.queue;
+        GattOperation operation = queue.complete(type, target);
+
+        if (operation == null) {
+            Log.e(getLogTag(), "No callback for operation found");
+            return;
+        }
+
+        GattMetrics deviceMetrics = getDeviceMetrics(address);
+        recordDuration(deviceMetrics.getOperationTime(type), operation.started);
+
+        if (status != BluetoothGatt.GATT_SUCCESS) {
+            deviceMetrics.addFailure(status);
+        }
+
+        try {
+
+            if (status == BluetoothGatt.GATT_SUCCESS) {
+                operation.callback.onSuccess(value);
+            } else {
+                operation.callback.onError(error);
+            }
+
+        } finally {
+            queue.finish(operation);
+        }
+    }
+
+    /**
+     * Runs the timeouts of the queue's operations on the worker of the connection.
+     */
+    private GattOperationQueue createOperationQueue(Connection connection, BluetoothGatt gatt) {
+
+        GattMetrics deviceMetrics = getDeviceMetrics(connection.address);
+
+        return new GattOperationQueue(gatt, new GattOperationQueue.Timer() {
+            @Override
+            public void schedule(Runnable task, Object token, long delay) {
+
+                // timeouts of completed operations are cancelled, so a timeout which fires counts as one
+                Runnable timeout = () -> {
+                    deviceMetrics.addTimeout();
+                    task.run();
+                };
+
+                connection.worker.postAtTime(timeout, token, SystemClock.uptimeMillis() + delay);
+            }
+
+            @Override
+            public void cancel(Object token) {
+                connection.worker.removeCallbacksAndMessages(token);
+            }
+        });
+    }
+
+    /**
+     * @return the timeout in ms given by the call or the default one, null if the given timeout is negative
+     */
+    private Integer getTimeout(PluginCall call, int defaultTimeout) {
+
+        Integer timeout = call.getInt(keyTimeout, defaultTimeout);
+
+        if (timeout == null || timeout < 0) {
+            return null;
+        }
+
+        return timeout;
+    }
+
+    private GattOperation createReadOperation(BluetoothGattCharacteristic characteristic, long timeout, GattOperation.Callback callback) {
+        return new GattOperation(GattOperation.TYPE_READ, GattOperation.targetOf(characteristic), (BluetoothGatt gatt) -> gatt.readCharacteristic(characteristic), callback, keyErrorValueRead, timeout);
+    }
+
+    private GattOperation createWriteOperation(BluetoothGattCharacteristic characteristic, byte[] value, long timeout, GattOperation.Callback callback) {
+
+        GattOperation.Action action = (BluetoothGatt gatt) -> characteristic.setValue(value) && gatt.writeCharacteristic(characteristic);
+
+        return new GattOperation(GattOperation.TYPE_WRITE, GattOperation.targetOf(characteristic), action, callback, keyErrorValueWrite, timeout);
+    }
+
+    /**
+     * Splits the value into chunks of the given size and queues all of them at once, so no chunk waits for a round trip to JavaScript.
+     * The call resolves after the last chunk was written, the first failing chunk rejects it and skips the remaining ones.
+     */
+    private void enqueueChunkedWrite(GattOperationQueue queue, BluetoothGattCharacteristic characteristic, byte[] value, int chunkSize, long timeout, PluginCall call, String encoding) {
+
+        int chunks = Math.max(1, (value.length + chunkSize - 1) / chunkSize);
+        AtomicBoolean failed = new AtomicBoolean(false);
+
+        for (int i = 0; i < chunks; i++) {
+
+            byte[] chunk = Arrays.copyOfRange(value, i * chunkSize, Math.min(value.length, (i + 1) * chunkSize));
+            boolean isLast = i == chunks - 1;
+
+            GattOperation.Action action = (BluetoothGatt gatt) -> !failed.get() && characteristic.setValue(chunk) && gatt.writeCharacteristic(characteristic);
+
+            GattOperation.Callback callback = new GattOperation.Callback() {
+                @Override
+                public void onSuccess(byte[] written) {
+
+                    if (!isLast || failed.get()) {
+                        return;
+                    }
+
+                    JSObject ret = new JSObject();
+                    addProperty(ret, keyValue, encodeValue(value, encoding));
+                    addProperty(ret, keyChunks, chunks);
+                    call.resolve(ret);
+                }
+
+                @Override
+                public void onError(String message) {
+
+                    if (failed.compareAndSet(false, true)) {
+                        call.reject(message);
+                    }
+                }
+            };
+
+            queue.enqueue(new GattOperation(GattOperation.TYPE_WRITE, GattOperation.targetOf(characteristic), action, callback, keyErrorValueWrite, timeout));
+        }
+    }
+
+    private GattOperation createDescriptorWriteOperation(BluetoothGattDescriptor descriptor, byte[] value, long timeout, GattOperation.Callback callback) {
+
+        GattOperation.Action action = (BluetoothGatt gatt) -> descriptor.setValue(value) && gatt.writeDescriptor(descriptor);
+
+        return new GattOperation(GattOperation.TYPE_WRITE_DESCRIPTOR, GattOperation.targetOf(descriptor), action, callback, keyErrorValueWrite, timeout);
+    }
+
+    private GattOperation.Callback createValueCallback(PluginCall call, String encoding) {
+
+        return new GattOperation.Callback() {
+            @Override
+            public void onSuccess(byte[] value) {
+                JSObject ret = new JSObject();
+                addProperty(ret, keyValue, encodeValue(value, encoding));
+                call.resolve(ret);
+            }
+
+            @Override
+            public void onError(String message) {
+                call.reject(message);
+            }
+        };
+    }
+
+    private void scheduleNotificationFlush(Connection connection, BluetoothGattCharacteristic characteristic, NotificationBuffer buffer) {
+
+        String eventName = BluetoothUUIDs.toEventName(characteristic.getUuid());
+
+        Runnable flush = new Runnable() {
+            @Override
+            public void run() {
+
+                if (!buffer.isEmpty()) {
+                    notifyBatch(connection, eventName, buffer.drain(), buffer);
+                }
+
+                connection.worker.postAtTime(this, buffer, SystemClock.uptimeMillis() + buffer.interval);
+            }
+        };
+
+        connection.worker.postAtTime(flush, buffer, SystemClock.uptimeMillis() + buffer.interval);
+    }
+
+    private void releaseNotificationBuffer(Connection connection, BluetoothGattCharacteristic characteristic, NotificationBuffer buffer) {
+
+        if (buffer == null) {
+            return;
+        }
+
+        connection.worker.removeCallbacksAndMessages(buffer);
+
+        String eventName = BluetoothUUIDs.toEventName(characteristic.getUuid());
+        NotificationBuffer.Batch batch = buffer.drain();
+
+        if (batch.values.length > 0) {
+            connection.worker.post(() -> notifyBatch(connection, eventName, batch, buffer));
+        }
+    }
+
+    private void releaseNotificationBuffers(Connection connection) {
+
+        Map<UUID, NotificationBuffer> buffers = connection.notificationBuffers;
+
+        for (NotificationBuffer buffer : buffers.values()) {
+            connection.worker.removeCallbacksAndMessages(buffer);
+        }
+
+        buffers.clear();
+    }
+
+    /**
+     * Delivers the buffered values but keeps the buffers, so batching continues once notifications are restored.
+     */
+    private void suspendNotificationBuffers(Connection connection) {
+
+        Map<UUID, NotificationBuffer> buffers = connection.notificationBuffers;
+
+        for (Map.Entry<UUID, NotificationBuffer> entry : buffers.entrySet()) {
+
+            NotificationBuffer buffer = entry.getValue();
+            connection.worker.removeCallbacksAndMessages(buffer);
+
+            String eventName = BluetoothUUIDs.toEventName(entry.getKey());
+            NotificationBuffer.Batch batch = buffer.drain();
+
+            if (batch.values.length > 0) {
+                connection.worker.post(() -> notifyBatch(connection, eventName, batch, buffer));
+            }
+        }
+    }
+
+    /**
+     * Releases everything bound to the link after the peripheral disconnected.
+     * The GATT database and notification settings of connections which are reconnected automatically are kept, so they can be restored.
+     */
+    private void releaseConnection(String address, Connection connection) {
+
+        ReconnectPolicy policy = connection.reconnectPolicy;
+
+        // a connection attempt failing right away may report before its queue was created
+        GattOperationQueue queue = connection.queue;
+
+        if (queue != null) {
+            queue.clear(keyErrorNotConnected);
+        }
+
+        connection.serviceIndex = null;
+        connection.restoreNotifications.set(false);
+        stopRssiMonitor(connection);
+        connection.mtu = defaultMtu;
+        connectionScheduler.release(address);
+
+        if (policy == null) {
+            releaseNotificationBuffers(connection);
+            connection.database = null;
+            connection.gattTree = null;
+        } else {
+            suspendNotificationBuffers(connection);
+        }
+
+        // calls deferred while reconnecting wait for the next attempt
+        if (policy == null || !policy.isReconnecting()) {
+            runPendingCalls(connection);
+        }
+    }
+
+    /**
+     * Starts reconnecting to a peripheral which was lost without a disconnect call, if reconnection was requested on connect.
+     */
+    private void onConnectionLost(String address, Connection connection) {
+
+        ReconnectPolicy policy = connection.reconnectPolicy;
+
+        if (policy == null) {
+            return;
+        }
+
+        policy.onDisconnected(SystemClock.elapsedRealtime());
+
+        connection.deferCalls();
+
+        scheduleReconnect(address, connection, policy);
+    }
+
+    private void scheduleReconnect(String address, Connection connection, ReconnectPolicy policy) {
+
+        long delay = policy.nextDelay();
+
+        if (delay < 0) {
+
+            BluetoothGatt gatt = connection.gatt;
+            gatt.close();
+
+            connections.remove(address, connection);
+            runPendingCalls(connection);
+
+            notifyListeners(keyEventReconnect, createReconnectEvent(address, RECONNECT_STATE_FAILED, policy.getAttempts()));
+            return;
+        }
+
+        JSObject ret = createReconnectEvent(address, RECONNECT_STATE_RECONNECTING, policy.getAttempts());
+        addProperty(ret, keyDelay, delay);
+        notifyListeners(keyEventReconnect, ret);
+
+        int priority = connection.priority;
+
+        Runnable attempt = () -> connectionScheduler.submit(address, priority, new ConnectionScheduler.Starter() {
+            @Override
+            public void start(long waitTime) {
+                reconnect(address, connection, policy);
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+
+        connection.worker.postAtTime(attempt, policy, SystemClock.uptimeMillis() + delay);
+    }
+
+    /**
+     * Replaces the client of a lost connection, the Android stack does not reliably reconnect a client once it was disconnected.
+     */
+    private void reconnect(String address, Connection connection, ReconnectPolicy policy) {
+
+        if (connections.get(address) != connection) {
+            connectionScheduler.release(address);
+            return;
+        }
+
+        BluetoothGatt previous = connection.gatt;
+        previous.close();
+
+        connection.connectStarted = System.nanoTime();
+
+        BluetoothGatt gatt = previous.getDevice().connectGatt(getContext(), false, bluetoothGattCallback);
+
+        if (gatt == null) {
+            connectionScheduler.release(address);
+            scheduleReconnect(address, connection, policy);
+            return;
+        }
+
+        connection.setState(BluetoothProfile.STATE_CONNECTING);
+        connection.setDiscoveryState(SERVICES_UNDISCOVERED);
+        connection.gatt = gatt;
+        connection.queue = createOperationQueue(connection, gatt);
+    }
+
+    private void cancelReconnect(String address, Connection connection) {
+
+        ReconnectPolicy policy = connection.reconnectPolicy;
+
+        if (policy != null) {
+            connection.worker.removeCallbacksAndMessages(policy);
+            connectionScheduler.cancel(address);
+        }
+    }
+
+    /**
+     * Rediscovers services after a reconnect, answering from the known or stored GATT database meanwhile.
+     * Notifications are restored once discovery finished.
+     */
+    private void restoreConnection(String address, Connection connection, BluetoothGatt gatt, ReconnectPolicy policy) {
+
+        int attempts = policy.getAttempts();
+        long downtime = policy.onReconnected(SystemClock.elapsedRealtime());
+
+        if (connection.database == null && connection.useCache) {
+
+            GattDatabase cached = gattDatabaseStore.load(address);
+            byte[] databaseHash = connection.databaseHash;
+
+            if (cached != null && (databaseHash == null || cached.hasHash(databaseHash))) {
+                connection.database = cached;
+            }
+        }
+
+        connection.restoreNotifications.set(true);
+
+        int connectionPriority = connection.connectionPriority;
+
+        if (connectionPriority != BluetoothGatt.CONNECTION_PRIORITY_BALANCED && !gatt.requestConnectionPriority(connectionPriority)) {
+            Log.e(getLogTag(), "Unable to restore connection priority after reconnect");
+        }
+
+        connection.discoveryStarted = System.nanoTime();
+
+        if (gatt.discoverServices()) {
+            connection.setDiscoveryState(SERVICES_DISCOVERING);
+        } else {
+            Log.e(getLogTag(), "Failed to start service discovery after reconnect");
+            connection.setDiscoveryState(SERVICES_UNDISCOVERED);
+            connection.restoreNotifications.set(false);
+            runPendingCalls(connection);
+        }
+
+        JSObject ret = createReconnectEvent(address, RECONNECT_STATE_RECONNECTED, attempts);
+        addProperty(ret, keyDowntime, downtime);
+        notifyListeners(keyEventReconnect, ret);
+    }
+
+    /**
+     * Enables the notifications which were active before the connection was lost.
+     * The first value delivered for each of them is marked as gap, since values sent while disconnected are lost.
+     */
+    private void restoreNotifications(BluetoothGatt gatt, Connection connection) {
+
+        Map<UUID, UUID> notificationServices = connection.notificationServices;
+        Map<UUID, NotificationBuffer> buffers = connection.notificationBuffers;
+        Set<UUID> gaps = connection.notificationGaps;
+        GattOperationQueue queue = connection.queue;
+        GattServiceIndex index = getServiceIndex(connection);
+
+        UUID clientCharacteristicConfDescriptorUuid = get128BitUUID(clientCharacteristicConfigurationUuid);
+
+        for (Map.Entry<UUID, UUID> entry : notificationServices.entrySet()) {
+
+            BluetoothGattCharacteristic characteristic = index.getCharacteristic(entry.getValue(), entry.getKey());
+            BluetoothGattDescriptor descriptor = characteristic == null ? null : characteristic.getDescriptor(clientCharacteristicConfDescriptorUuid);
+
+            if (descriptor == null || !gatt.setCharacteristicNotification(characteristic, true)) {
+                Log.e(getLogTag(), "Unable to restore notifications of " + entry.getKey());
+                continue;
+            }
+
+            NotificationBuffer buffer = buffers.get(entry.getKey());
+
+            if (buffer != null) {
+
+                buffer.markGap();
+
+                if (buffer.interval > 0) {
+                    scheduleNotificationFlush(connection, characteristic, buffer);
+                }
+
+            } else {
+                gaps.add(entry.getKey());
+            }
+
+            queue.enqueue(createDescriptorWriteOperation(descriptor, getNotificationDescriptorValue(characteristic), defaultOperationTimeout, new GattOperation.Callback() {
+                @Override
+                public void onSuccess(byte[] value) {
+                }
 
-        if (characteristic == null) {
-            call.reject(keyErrorCharacteristicNotFound);
-            return;
+                @Override
+                public void onError(String message) {
+                    Log.e(getLogTag(), "Unable to restore notifications of " + entry.getKey() + ": " + message);
+                }
+            }));
         }
+    }
 
-        BluetoothGattDescriptor descriptor = characteristic.getDescriptor(get128BitUUID(propertyDescriptor));
+    private JSObject createReconnectEvent(String address, String state, int attempt) {
 
-        if (descriptor == null) {
-            call.reject(keyErrorDescriptorNotFound);
-            return;
-        }
+        JSObject ret = new JSObject();
+        addProperty(ret, keyAddress, address);
+        addProperty(ret, keyState, state);
+        addProperty(ret, keyAttempt, attempt);
 
-        connection.put(keyOperationReadDescriptor, call);
+        return ret;
+    }
 
-        boolean success = gatt.readDescriptor(descriptor);
+    /**
+     * @return the client characteristic configuration value enabling notifications, or indications if the characteristic does not notify
+     */
+    private byte[] getNotificationDescriptorValue(BluetoothGattCharacteristic characteristic) {
 
-        if (!success) {
-            connection.remove(keyOperationReadDescriptor);
-            call.reject(keyErrorValueRead);
-            return;
+        if ((characteristic.getProperties() & BluetoothGattCharacteristic.PROPERTY_NOTIFY) == BluetoothGattCharacteristic.PROPERTY_NOTIFY) {
+            return BluetoothGattDescriptor.ENABLE_NOTIFICATION_VALUE;
         }
 
-
+        return BluetoothGattDescriptor.ENABLE_INDICATION_VALUE;
     }
 
-    @PluginMethod()
-    public void getServices(PluginCall call) {
+    private void notifyBatch(Connection connection, String eventName, NotificationBuffer.Batch batch, NotificationBuffer buffer) {
 
-        String address = call.getString(keyAddress);
+        Object[] values = new Object[batch.values.length];
 
-        if (address == null) {
-            call.reject(keyErrorAddressMissing);
-            return;
+        for (int index = 0; index < values.length; index++) {
+            values[index] = toJSValue(batch.values[index], buffer.encoding, buffer.decoder);
         }
 
-        HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        JSObject ret = new JSObject();
+        addProperty(ret, keyValues, JSArray.from(values));
+        addProperty(ret, keyTimestamps, JSArray.from(batch.timestamps));
 
-        if (connection == null) {
-            call.reject(keyErrorNotConnected);
-            return;
+        if (batch.gap) {
+            addProperty(ret, keyGap, true);
         }
 
-        BluetoothGatt gatt = (BluetoothGatt) connection.get(keyPeripheral);
+        long emitStarted = System.nanoTime();
+        notifyListeners(eventName, ret);
+        getDeviceMetrics(connection.address).emitTime.add((System.nanoTime() - emitStarted) / 1000);
+    }
 
-        List<BluetoothGattService> services = gatt.getServices();
-        ArrayList<JSObject> retServices = new ArrayList<>();
+    /**
+     * @return the index of the connection's discovered services, built from the peripheral's services if it is missing
+     */
+    private GattServiceIndex getServiceIndex(Connection connection) {
 
-        for (BluetoothGattService service : services) {
-            retServices.add(createJSBluetoothGattService(service));
+        GattServiceIndex index = connection.serviceIndex;
+
+        if (index != null) {
+            return index;
         }
 
-        JSObject ret = new JSObject();
-        addProperty(ret, keyServices, JSArray.from(retServices.toArray()));
+        BluetoothGatt gatt = connection.gatt;
+        index = new GattServiceIndex(gatt.getServices());
 
-        call.resolve(ret);
+        if (!index.isEmpty()) {
+            connection.serviceIndex = index;
+        }
 
+        return index;
     }
 
-    @PluginMethod()
-    public void getSetvice(PluginCall call) {
+    /**
+     * @return the connection's GATT database, built from the peripheral's services if it is missing
+     */
+    private GattDatabase getGattDatabase(Connection connection) {
 
-        String address = call.getString(keyAddress);
+        GattDatabase database = connection.database;
 
-        if (address == null) {
-            call.reject(keyErrorAddressMissing);
-            return;
+        if (database != null) {
+            return database;
         }
 
-        HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        BluetoothGatt gatt = connection.gatt;
+        database = GattDatabase.from(gatt.getServices(), null);
 
-        if (connection == null) {
-            call.reject(keyErrorNotConnected);
-            return;
+        if (!database.isEmpty()) {
+            connection.database = database;
         }
 
-        BluetoothGatt peripheral = (BluetoothGatt) connection.get(keyPeripheral);
+        return database;
+    }
 
-        Integer propertyService = call.getInt(keyUuid);
+    /**
+     * Replaces the connection's database with the discovered services, stores it if the cache is used and notifies
+     * listeners if the services differ from the ones known before.
+     */
+    private void updateGattDatabase(Connection connection, String address, List<BluetoothGattService> services) {
 
-        if (propertyService == null) {
-            call.reject(keyErrorServiceMissing);
-            return;
-        }
+        GattDatabase previous = connection.database;
+        GattDatabase database = GattDatabase.from(services, connection.databaseHash);
 
-        BluetoothGattService service = peripheral.getService(get128BitUUID(propertyService));
+        connection.database = database;
 
-        if (service == null) {
-            call.reject(keyErrorServiceNotFound);
-            return;
+        if (connection.useCache) {
+            connection.worker.post(() -> gattDatabaseStore.save(address, database));
         }
 
-        call.resolve(createJSBluetoothGattService(service));
+        if (previous != null && !previous.hasSameTree(database)) {
+            JSObject ret = new JSObject();
+            addProperty(ret, keyAddress, address);
+            notifyListeners(keyEventServicesChanged, ret);
+        }
     }
 
-    @PluginMethod()
-    public void getCharacteristics(PluginCall call) {
+    /**
+     * Defers a call which needs the stack's characteristics while services are rediscovered behind a cached database
+     * or the peripheral is reconnected. A deferred call fails once its timeout elapsed, a timeout of 0 waits forever.
+     *
+     * @return true if the call was deferred and must not be processed now
+     */
+    private boolean deferUntilDiscovered(Connection connection, PluginCall call, long timeout, Runnable retry) {
 
-        String address = call.getString(keyAddress);
+        if (!connection.defer(call, retry)) {
+            return false;
+        }
 
-        if (address == null) {
-            call.reject(keyErrorAddressMissing);
-            return;
+        if (timeout > 0) {
+            connection.worker.postAtTime(() -> {
+                if (connection.removePendingCall(call)) {
+                    getDeviceMetrics(connection.address).addTimeout();
+                    call.reject(keyErrorOperationTimeout);
+                }
+            }, call, SystemClock.uptimeMillis() + timeout);
         }
 
-        HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+        return true;
+    }
 
-        if (connection == null) {
-            call.reject(keyErrorNotConnected);
+    /**
+     * Processes calls deferred by {@link #deferUntilDiscovered(Connection, PluginCall, long, Runnable)} once discovery finished or the peripheral disconnected.
+     */
+    private void runPendingCalls(Connection connection) {
+
+        List<Connection.PendingCall> pendingCalls = connection.takePendingCalls();
+
+        if (pendingCalls == null) {
             return;
         }
 
-        BluetoothGatt gatt = (BluetoothGatt) connection.get(keyPeripheral);
+        for (Connection.PendingCall pendingCall : pendingCalls) {
+            connection.worker.removeCallbacksAndMessages(pendingCall.call);
+            connection.worker.post(pendingCall.retry);
+        }
+    }
 
-        Integer propertyService = call.getInt(keyService);
+    /**
+     * @return the metrics of the peripheral, created on first use
+     */
+    private GattMetrics getDeviceMetrics(String address) {
 
-        if (propertyService == null) {
-            call.reject(keyErrorServiceMissing);
-            return;
-        }
+        GattMetrics deviceMetrics = metrics.get(address);
 
-        BluetoothGattService service = gatt.getService(get128BitUUID(propertyService));
+        if (deviceMetrics == null) {
+            GattMetrics created = new GattMetrics();
+            deviceMetrics = metrics.putIfAbsent(address, created);
 
-        if (service == null) {
-            call.reject(keyErrorServiceNotFound);
-            return;
+            if (deviceMetrics == null) {
+                deviceMetrics = created;
+            }
         }
 
-        List<BluetoothGattCharacteristic> characteristics = service.getCharacteristics();
+        return deviceMetrics;
+    }
 
-        ArrayList<JSObject> retCharacteristics = new ArrayList<>();
+    /**
+     * Adds the time in ms passed since the start, does nothing if no start time is known.
+     *
+     * @param started time in ns as returned by System.nanoTime, 0 if unknown
+     */
+    private void recordDuration(LatencyHistogram histogram, long started) {
 
-        for (BluetoothGattCharacteristic characteristic : characteristics) {
-            retCharacteristics.add(createJSBluetoothGattCharacteristic(characteristic));
+        if (histogram != null && started != 0) {
+            histogram.add((System.nanoTime() - started) / 1000000);
         }
+    }
 
-        JSObject ret = new JSObject();
-        addProperty(ret, keyCharacteristics, JSArray.from(retCharacteristics.toArray()));
+    /**
+     * @param address only the metrics of this peripheral, null for all
+     */
+    private JSObject createMetricsResult(String address) {
 
-        call.resolve(ret);
-    }
+        List<JSObject> devices = new ArrayList<>();
+        long time = System.currentTimeMillis();
 
-    @PluginMethod()
-    public void getCharacteristic(PluginCall call) {
+        for (Map.Entry<String, GattMetrics> entry : metrics.entrySet()) {
 
-        String address = call.getString(keyAddress);
+            if (address != null && !address.equals(entry.getKey())) {
+                continue;
+            }
 
-        if (address == null) {
-            call.reject(keyErrorAddressMissing);
-            return;
-        }
+            GattMetrics deviceMetrics = entry.getValue();
+            Connection connection = connections.get(entry.getKey());
 
-        HashMap<String, Object> connection = (HashMap<String, Object>) connections.get(address);
+            JSObject device = new JSObject();
+            addProperty(device, keyAddress, entry.getKey());
+            addProperty(device, keyConnectTime, createHistogramResult(deviceMetrics.connectTime));
+            addProperty(device, keyDiscoveryTime, createHistogramResult(deviceMetrics.discoveryTime));
 
-        if (connection == null) {
-            call.reject(keyErrorNotConnected);
-            return;
-        }
+            JSObject operations = new JSObject();
 
-        BluetoothGatt gatt = (BluetoothGatt) connection.get(keyPeripheral);
+            for (int type = 0; type < GattMetrics.OPERATION_NAMES.length; type++) {
 
-        Integer propertyService = call.getInt(keyService);
+                LatencyHistogram histogram = deviceMetrics.getOperationTime(type);
 
-        if (propertyService == null) {
-            call.reject(keyErrorServiceMissing);
-            return;
-        }
+                if (histogram.getCount() > 0) {
+                    addProperty(operations, GattMetrics.OPERATION_NAMES[type], createHistogramResult(histogram));
+                }
+            }
 
-        BluetoothGattService service = gatt.getService(get128BitUUID(propertyService));
+            addProperty(device, keyOperations, operations);
+            addProperty(device, keyNotifications, deviceMetrics.getNotifications());
+            addProperty(device, keyNotificationRate, deviceMetrics.getNotificationRate(time));
+            addProperty(device, keyEmitTime, createHistogramResult(deviceMetrics.emitTime));
 
-        if (service == null) {
-            call.reject(keyErrorServiceNotFound);
-            return;
-        }
+            GattOperationQueue queue = connection == null ? null : connection.queue;
+            addProperty(device, keyQueueDepth, queue == null ? 0 : queue.size());
+            addProperty(device, keyMaxQueueDepth, queue == null ? 0 : queue.getMaxSize());
 
-        Integer propertyCharacteristic = call.getInt(keyCharacteristic);
+            JSObject failures = new JSObject();
 
-        if (propertyCharacteristic == null) {
-            call.reject(keyErrorCharacteristicMissing);
-            return;
-        }
+            for (Map.Entry<Integer, Long> failure : deviceMetrics.getFailures().entrySet()) {
+                addProperty(failures, String.valueOf(failure.getKey()), failure.getValue());
+            }
 
-        BluetoothGattCharacteristic characteristic = service.getCharacteristic(get128BitUUID(propertyCharacteristic));
+            addProperty(device, keyFailures, failures);
+            addProperty(device, keyTimeouts, deviceMetrics.getTimeouts());
 
-        if (characteristic == null) {
-            call.reject(keyErrorCharacteristicNotFound);
-            return;
+            devices.add(device);
         }
 
-        JSObject retCharacteristic = createJSBluetoothGattCharacteristic(characteristic);
+        JSObject ret = new JSObject();
+        addProperty(ret, keyDevices, JSArray.from(devices.toArray()));
 
-        call.resolve(retCharacteristic);
+        return ret;
+    }
+
+    private JSObject createHistogramResult(LatencyHistogram histogram) {
 
+        JSObject ret = new JSObject();
+        addProperty(ret, keyCount, histogram.getCount());
+        addProperty(ret, keyMean, histogram.getMean());
+        addProperty(ret, keyMin, histogram.getMin());
+        addProperty(ret, keyMax, histogram.getMax());
+        addProperty(ret, keyP50, histogram.getPercentile(50));
+        addProperty(ret, keyP95, histogram.getPercentile(95));
+        addProperty(ret, keyP99, histogram.getPercentile(99));
+        addProperty(ret, keyBuckets, JSArray.from(histogram.getBuckets()));
+
+        return ret;
     }
 
+    private JSObject createScanResult(ScanResultCache.Entry entry, String encoding) {
 
-    private void stopScan() {
+        JSObject ret = createBLEDeviceResult(entry.device);
+        addProperty(ret, keyRssi, (int) Math.round(entry.rssi));
+        addProperty(ret, keyLastRssi, entry.lastRssi);
+        addProperty(ret, keyFirstSeen, entry.firstSeen);
+        addProperty(ret, keyLastSeen, entry.lastSeen);
 
-        if (bleScanner == null) {
-            bleScanner = bluetoothAdapter.getBluetoothLeScanner();
+        if (entry.txPower != ScanResultCache.NO_TX_POWER) {
+            addProperty(ret, keyTxPower, entry.txPower);
         }
 
-        bleScanner.flushPendingScanResults(scanCallback);
-        bleScanner.stopScan(scanCallback);
+        if (entry.recordLength == 0) {
+            return ret;
+        }
 
-        JSObject ret = new JSObject();
-        ret.put(keyAvailableDevices, getScanResult());
+        addProperty(ret, keyAdvertisement, encodeValue(entry.getRecord(), encoding));
 
-        PluginCall savedCall = getSavedCall();
-        savedCall.resolve(ret);
-        savedCall.release(getBridge());
-        return;
+        JSObject manufacturerData = new JSObject();
+
+        for (int i = 0; i < entry.manufacturerDataCount; i++) {
+            addProperty(manufacturerData, Integer.toString(entry.getManufacturerId(i)), encodeValue(entry.getManufacturerData(i), encoding));
+        }
+
+        addProperty(ret, keyManufacturerData, manufacturerData);
+
+        JSObject serviceData = new JSObject();
+
+        for (int i = 0; i < entry.serviceDataCount; i++) {
+            addProperty(serviceData, BluetoothUUIDs.toEventName(entry.getServiceDataUuid(i)), encodeValue(entry.getServiceData(i), encoding));
+        }
 
+        addProperty(ret, keyServiceData, serviceData);
+
+        return ret;
     }
 
     private JSObject createBLEDeviceResult(BluetoothDevice device) {
@@ -1235,32 +3794,24 @@ public class BluetoothLEClient extends Plugin {
         return ret;
     }
 
-    private JSObject createJSBluetoothGattService(BluetoothGattService service) {
+    private JSObject createJSBluetoothGattService(GattDatabase.Service service) {
         JSObject retService = new JSObject();
 
-        addProperty(retService, keyUuid, get16BitUUID(service.getUuid()));
-
-        if (service.getType() == BluetoothGattService.SERVICE_TYPE_PRIMARY) {
-            addProperty(retService, keyIsPrimaryService, true);
-        } else {
-            addProperty(retService, keyIsPrimaryService, false);
-        }
-
+        addProperty(retService, keyUuid, getJSUUID(service.uuid));
+        addProperty(retService, keyIsPrimaryService, service.primary);
 
-        ArrayList<Integer> included = new ArrayList<>();
-        List<BluetoothGattService> subServices = service.getIncludedServices();
+        ArrayList<Object> included = new ArrayList<>();
 
-        for (BluetoothGattService incService : subServices) {
-            included.add(get16BitUUID(incService.getUuid()));
+        for (UUID includedUuid : service.included) {
+            included.add(getJSUUID(includedUuid));
         }
 
         retService.put(keyIncludedServices, JSArray.from(included.toArray()));
 
-        ArrayList<Integer> retCharacteristics = new ArrayList<>();
-        List<BluetoothGattCharacteristic> characteristics = service.getCharacteristics();
+        ArrayList<Object> retCharacteristics = new ArrayList<>();
 
-        for (BluetoothGattCharacteristic characteristic : characteristics) {
-            retCharacteristics.add(get16BitUUID(characteristic.getUuid()));
+        for (GattDatabase.Characteristic characteristic : service.characteristics) {
+            retCharacteristics.add(getJSUUID(characteristic.uuid));
         }
 
         retService.put(keyCharacteristics, JSArray.from(retCharacteristics.toArray()));
@@ -1268,18 +3819,40 @@ public class BluetoothLEClient extends Plugin {
         return retService;
     }
 
-    private JSObject createJSBluetoothGattCharacteristic(BluetoothGattCharacteristic characteristic) {
+    private JSObject createJSGattTree(GattDatabase database) {
+
+        ArrayList<JSObject> retServices = new ArrayList<>();
+
+        for (GattDatabase.Service service : database.services) {
+
+            JSObject retService = createJSBluetoothGattService(service);
+            ArrayList<JSObject> retCharacteristics = new ArrayList<>();
+
+            for (GattDatabase.Characteristic characteristic : service.characteristics) {
+                retCharacteristics.add(createJSBluetoothGattCharacteristic(characteristic));
+            }
+
+            retService.put(keyCharacteristics, JSArray.from(retCharacteristics.toArray()));
+            retServices.add(retService);
+        }
+
+        JSObject ret = new JSObject();
+        addProperty(ret, keyServices, JSArray.from(retServices.toArray()));
+
+        return ret;
+    }
+
+    private JSObject createJSBluetoothGattCharacteristic(GattDatabase.Characteristic characteristic) {
 
         JSObject retCharacteristic = new JSObject();
 
-        addProperty(retCharacteristic, keyUuid, get16BitUUID(characteristic.getUuid()));
-        addProperty(retCharacteristic, keyCharacteristicProperies, getCharacteristicProperties(characteristic));
+        addProperty(retCharacteristic, keyUuid, getJSUUID(characteristic.uuid));
+        addProperty(retCharacteristic, keyCharacteristicProperies, getCharacteristicProperties(characteristic.properties));
 
-        List<BluetoothGattDescriptor> descriptors = characteristic.getDescriptors();
-        ArrayList<Integer> descriptorUuids = new ArrayList<>();
+        ArrayList<Object> descriptorUuids = new ArrayList<>();
 
-        for (BluetoothGattDescriptor descriptor : descriptors) {
-            descriptorUuids.add(get16BitUUID(descriptor.getUuid()));
+        for (UUID descriptorUuid : characteristic.descriptors) {
+            descriptorUuids.add(getJSUUID(descriptorUuid));
         }
 
         addProperty(retCharacteristic, keyCharacterisicDescripors, JSArray.from(descriptorUuids.toArray()));
@@ -1288,47 +3861,47 @@ public class BluetoothLEClient extends Plugin {
 
     }
 
-    private JSObject getCharacteristicProperties(BluetoothGattCharacteristic characteristic) {
+    private JSObject getCharacteristicProperties(int characteristicProperties) {
 
         JSObject properties = new JSObject();
 
-        if ((characteristic.getProperties() & BluetoothGattCharacteristic.PROPERTY_SIGNED_WRITE) != 0) {
+        if ((characteristicProperties & BluetoothGattCharacteristic.PROPERTY_SIGNED_WRITE) != 0) {
             addProperty(properties, keyPropertyAuthenticatedSignedWrites, true);
         } else {
             addProperty(properties, keyPropertyAuthenticatedSignedWrites, false);
         }
 
-        if ((characteristic.getProperties() & BluetoothGattCharacteristic.PROPERTY_BROADCAST) != 0) {
+        if ((characteristicProperties & BluetoothGattCharacteristic.PROPERTY_BROADCAST) != 0) {
             addProperty(properties, keyPropertyBroadcast, true);
         } else {
             addProperty(properties, keyPropertyBroadcast, false);
         }
 
-        if ((characteristic.getProperties() & BluetoothGattCharacteristic.PROPERTY_INDICATE) != 0) {
+        if ((characteristicProperties & BluetoothGattCharacteristic.PROPERTY_INDICATE) != 0) {
             addProperty(properties, keyPropertyIndicate, true);
         } else {
             addProperty(properties, keyPropertyIndicate, false);
         }
 
-        if ((characteristic.getProperties() & BluetoothGattCharacteristic.PROPERTY_NOTIFY) != 0) {
+        if ((characteristicProperties & BluetoothGattCharacteristic.PROPERTY_NOTIFY) != 0) {
             addProperty(properties, keyPropertyNotify, true);
         } else {
             addProperty(properties, keyPropertyNotify, false);
         }
 
-        if ((characteristic.getProperties() & BluetoothGattCharacteristic.PROPERTY_READ) != 0) {
+        if ((characteristicProperties & BluetoothGattCharacteristic.PROPERTY_READ) != 0) {
             addProperty(properties, keyPropertyRead, true);
         } else {
             addProperty(properties, keyPropertyRead, false);
         }
 
-        if ((characteristic.getProperties() & BluetoothGattCharacteristic.PROPERTY_WRITE) != 0) {
+        if ((characteristicProperties & BluetoothGattCharacteristic.PROPERTY_WRITE) != 0) {
             addProperty(properties, keyPropertyWrite, true);
         } else {
             addProperty(properties, keyPropertyWrite, false);
         }
 
-        if ((characteristic.getProperties() & BluetoothGattCharacteristic.PROPERTY_WRITE_NO_RESPONSE) != 0) {
+        if ((characteristicProperties & BluetoothGattCharacteristic.PROPERTY_WRITE_NO_RESPONSE) != 0) {
             addProperty(properties, keyPropertyWriteWithoutResponse, true);
         } else {
             addProperty(properties, keyPropertyWriteWithoutResponse, false);
@@ -1338,17 +3911,15 @@ public class BluetoothLEClient extends Plugin {
 
     }
 
-    private JSArray getScanResult() {
-
-        ArrayList<JSObject> scanResults = new ArrayList<>();
+    private synchronized JSArray getScanResult(String encoding) {
 
-        for (Map.Entry<String, BluetoothDevice> entry : availableDevices.entrySet()) {
+        ArrayList<JSObject> results = new ArrayList<>();
 
-            BluetoothDevice device = entry.getValue();
-            scanResults.add(createBLEDeviceResult(device));
+        for (ScanResultCache.Entry entry : scanResults.getEntries(System.currentTimeMillis())) {
+            results.add(createScanResult(entry, encoding));
         }
 
-        return JSArray.from(scanResults.toArray());
+        return JSArray.from(results.toArray());
 
     }
 
@@ -1373,6 +3944,66 @@ public class BluetoothLEClient extends Plugin {
 
     }
 
+    /**
+     * @return the ScanSettings scan mode or null if the mode is unknown or not available on this Android version
+     */
+    private Integer getScanMode(String scanMode) {
+
+        if (SCAN_MODE_LOW_POWER.equals(scanMode)) {
+            return ScanSettings.SCAN_MODE_LOW_POWER;
+        }
+
+        if (SCAN_MODE_BALANCED.equals(scanMode)) {
+            return ScanSettings.SCAN_MODE_BALANCED;
+        }
+
+        if (SCAN_MODE_LOW_LATENCY.equals(scanMode)) {
+            return ScanSettings.SCAN_MODE_LOW_LATENCY;
+        }
+
+        if (SCAN_MODE_OPPORTUNISTIC.equals(scanMode) && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return ScanSettings.SCAN_MODE_OPPORTUNISTIC;
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the ScanSettings match mode or -1 if the mode is unknown
+     */
+    private int getMatchMode(String matchMode) {
+
+        if (MATCH_MODE_AGGRESSIVE.equals(matchMode)) {
+            return ScanSettings.MATCH_MODE_AGGRESSIVE;
+        }
+
+        if (MATCH_MODE_STICKY.equals(matchMode)) {
+            return ScanSettings.MATCH_MODE_STICKY;
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return the ScanSettings number of matches or -1 if the value is unknown
+     */
+    private int getNumOfMatches(String numOfMatches) {
+
+        if (MATCH_NUM_ONE.equals(numOfMatches)) {
+            return ScanSettings.MATCH_NUM_ONE_ADVERTISEMENT;
+        }
+
+        if (MATCH_NUM_FEW.equals(numOfMatches)) {
+            return ScanSettings.MATCH_NUM_FEW_ADVERTISEMENT;
+        }
+
+        if (MATCH_NUM_MAX.equals(numOfMatches)) {
+            return ScanSettings.MATCH_NUM_MAX_ADVERTISEMENT;
+        }
+
+        return -1;
+    }
+
     private ArrayList<UUID> getServiceUuids(JSArray serviceUuidArray) {
 
 
@@ -1382,7 +4013,7 @@ public class BluetoothLEClient extends Plugin {
             return serviceUuids;
         }
 
-        List<Integer> uuidList;
+        List<Object> uuidList;
 
         try {
             uuidList = serviceUuidArray.toList();
@@ -1396,9 +4027,9 @@ public class BluetoothLEClient extends Plugin {
             return serviceUuids;
         }
 
-        for (Integer uuid : uuidList) {
+        for (Object uuid : uuidList) {
 
-            UUID uuid128 = get128BitUUID(uuid);
+            UUID uuid128 = BluetoothUUIDs.fromValue(uuid);
 
             if (uuid128 != null) {
                 serviceUuids.add(uuid128);
@@ -1422,28 +4053,150 @@ public class BluetoothLEClient extends Plugin {
         return bytes;
     }
 
-    private UUID get128BitUUID(Integer uuid) {
+    private String getEncoding(PluginCall call, Connection connection) {
 
-        if (uuid == null) {
+        String encoding = call.getString(keyEncoding, connection.encoding);
+
+        if (!isSupportedEncoding(encoding)) {
+            return null;
+        }
+
+        return encoding;
+    }
+
+    private boolean isSupportedEncoding(String encoding) {
+        return ENCODING_ARRAY.equals(encoding) || ENCODING_BASE64.equals(encoding) || ENCODING_HEX.equals(encoding);
+    }
+
+    private Object toJSValue(byte[] value, String encoding, CharacteristicDecoder decoder) {
+
+        if (decoder == null || value == null) {
+            return encodeValue(value, encoding);
+        }
+
+        try {
+            return toJSON(decoder.decode(value));
+        } catch (IndexOutOfBoundsException e) {
+            Log.e(getLogTag(), "Unable to decode value, delivering raw value instead");
+            return encodeValue(value, encoding);
+        }
+    }
+
+    private Object toJSON(Object value) {
+
+        if (value instanceof Map) {
+
+            JSObject ret = new JSObject();
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                addProperty(ret, String.valueOf(entry.getKey()), toJSON(entry.getValue()));
+            }
+
+            return ret;
+        }
+
+        if (value instanceof Double && (((Double) value).isNaN() || ((Double) value).isInfinite())) {
+            return null;
+        }
+
+        if (value instanceof int[]) {
+            return JSArray.from(value);
+        }
+
+        return value;
+    }
+
+    private Object encodeValue(byte[] value, String encoding) {
+
+        if (value == null) {
             return null;
         }
 
-        String hexString = Integer.toHexString(uuid);
+        if (ENCODING_BASE64.equals(encoding)) {
+            return Base64.encodeToString(value, Base64.NO_WRAP);
+        }
+
+        if (ENCODING_HEX.equals(encoding)) {
+            return toHexString(value);
+        }
+
+        return JSArray.from(value);
+    }
+
+    private String toHexString(byte[] value) {
+
+        char[] hex = new char[value.length * 2];
+
+        for (int index = 0; index < value.length; index++) {
+            int octet = value[index] & 0xFF;
+            hex[index * 2] = HEX_DIGITS[octet >>> 4];
+            hex[index * 2 + 1] = HEX_DIGITS[octet & 0x0F];
+        }
+
+        return new String(hex);
+    }
+
+    /**
+     * @return the decoded bytes or null if the value is not an even number of hex digits
+     */
+    private byte[] fromHexString(String value) {
 
-        if (hexString.length() != 4) {
+        if (value.length() % 2 != 0) {
             return null;
         }
 
-        String uuidString = BASE_UUID_HEAD + hexString + BASE_UUID_TAIL;
-        return UUID.fromString(uuidString);
+        byte[] bytes = new byte[value.length() / 2];
+
+        for (int index = 0; index < bytes.length; index++) {
+
+            int high = Character.digit(value.charAt(index * 2), 16);
+            int low = Character.digit(value.charAt(index * 2 + 1), 16);
+
+            if (high == -1 || low == -1) {
+                return null;
+            }
+
+            bytes[index] = (byte) ((high << 4) | low);
+        }
+
+        return bytes;
+    }
+
+    private UUID get128BitUUID(Integer uuid) {
 
+        if (uuid == null) {
+            return null;
+        }
 
+        return BluetoothUUIDs.from16Bit(uuid);
     }
 
     private int get16BitUUID(UUID uuid) {
-        String uuidString = uuid.toString();
-        int hexUuid = Integer.parseInt(uuidString.substring(4, 8), 16);
-        return hexUuid;
+        return BluetoothUUIDs.to16Bit(uuid);
+    }
+
+    /**
+     * Reads a UUID given either as 16 bit number or as string
+     */
+    private UUID getUUID(JSONObject data, String key) {
+
+        if (data == null) {
+            return null;
+        }
+
+        return BluetoothUUIDs.fromValue(data.opt(key));
+    }
+
+    /**
+     * 16 bit UUIDs are returned as number, all others as string
+     */
+    private Object getJSUUID(UUID uuid) {
+
+        if (BluetoothUUIDs.is16Bit(uuid)) {
+            return get16BitUUID(uuid);
+        }
+
+        return BluetoothUUIDs.toString(uuid);
     }
 
     private void addProperty(JSObject obj, String key, Object value) {
@@ -0,0 +1,238 @@
+package com.bleclient.plugin;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conversions between 16 bit UUIDs and their 128 bit form based on the
+ * Bluetooth Base UUID 0000xxxx-0000-1000-8000-00805F9B34FB.
+ * <p>
+ * Conversions are done on the UUID's bits instead of its string representation,
+ * and UUIDs as well as event names of the assigned number range are cached,
+ * so converting on the notification path does not allocate.
+ * <p>
+ * Vendor specific UUIDs given as strings are parsed once and interned, so repeated
+ * lookups of the same UUID return the same instance. The caches hold at most
+ * {@link #MAX_CACHED} entries each, UUIDs beyond that are converted without caching.
+ */
+final class BluetoothUUIDs {
+
+    static final long BASE_UUID_MOST_SIGNIFICANT_BITS = 0x0000000000001000L;
+    static final long BASE_UUID_LEAST_SIGNIFICANT_BITS = 0x800000805F9B34FBL;
+
+    /**
+     * Assigned numbers for services, units, declarations, descriptors and characteristics.
+     */
+    static final int CACHE_START = 0x1800;
+    static final int CACHE_END = 0x2BFF;
+
+    static final int MAX_CACHED = 1024;
+
+    private static final UUID[] uuids = new UUID[CACHE_END - CACHE_START + 1];
+    private static final String[] names = new String[CACHE_END - CACHE_START + 1];
+
+    private static final ConcurrentHashMap<String, UUID> parsed = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<UUID, UUID> interned = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<UUID, String> strings = new ConcurrentHashMap<>();
+
+    private BluetoothUUIDs() {
+    }
+
+    /**
+     * @return the 128 bit UUID or null if the given value is not a four digit hexadecimal number
+     */
+    static UUID from16Bit(int uuid) {
+
+        if (uuid < 0x1000 || uuid > 0xFFFF) {
+            return null;
+        }
+
+        if (uuid < CACHE_START || uuid > CACHE_END) {
+            return create(uuid);
+        }
+
+        UUID cached = uuids[uuid - CACHE_START];
+
+        if (cached == null) {
+            cached = create(uuid);
+            uuids[uuid - CACHE_START] = cached;
+        }
+
+        return cached;
+    }
+
+    /**
+     * @return the 128 bit UUID of a 16 or 32 bit UUID, e.g. as found in advertisement data
+     */
+    static UUID from32Bit(long uuid) {
+
+        if (uuid >= 0x1000 && uuid <= 0xFFFF) {
+            return from16Bit((int) uuid);
+        }
+
+        return create(uuid & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param value a 16 bit UUID as number or any UUID as string
+     * @return the 128 bit UUID or null if the value is no valid UUID
+     */
+    static UUID fromValue(Object value) {
+
+        if (value instanceof Integer) {
+            return from16Bit((Integer) value);
+        }
+
+        if (value instanceof String) {
+            return fromString((String) value);
+        }
+
+        return null;
+    }
+
+    /**
+     * @param value a 16 or 32 bit UUID in hexadecimal or a 128 bit UUID in its canonical form
+     * @return the interned 128 bit UUID or null if the value is no valid UUID
+     */
+    static UUID fromString(String value) {
+
+        UUID uuid = parsed.get(value);
+
+        if (uuid != null) {
+            return uuid;
+        }
+
+        try {
+
+            if ((value.length() == 4 || value.length() == 8) && !isHex(value)) {
+                return null;
+            }
+
+            if (value.length() == 4) {
+                uuid = from16Bit(Integer.parseInt(value, 16));
+            } else if (value.length() == 8) {
+                uuid = create(Long.parseLong(value, 16));
+            } else if (value.length() == 36) {
+                uuid = UUID.fromString(value);
+            }
+
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        if (uuid == null) {
+            return null;
+        }
+
+        uuid = intern(uuid);
+
+        if (parsed.size() < MAX_CACHED) {
+            parsed.put(value, uuid);
+        }
+
+        return uuid;
+    }
+
+    /**
+     * @return the canonical instance of the given UUID
+     */
+    static UUID intern(UUID uuid) {
+
+        UUID existing = interned.get(uuid);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        if (interned.size() >= MAX_CACHED) {
+            return uuid;
+        }
+
+        existing = interned.putIfAbsent(uuid, uuid);
+
+        return existing != null ? existing : uuid;
+    }
+
+    /**
+     * @return true if the UUID is based on the Bluetooth Base UUID and is a four digit hexadecimal number,
+     * the range accepted by {@link #from16Bit(int)}, so a UUID reported as number can be passed back in
+     */
+    static boolean is16Bit(UUID uuid) {
+        return uuid.getLeastSignificantBits() == BASE_UUID_LEAST_SIGNIFICANT_BITS
+                && (uuid.getMostSignificantBits() & 0xFFFF0000FFFFFFFFL) == BASE_UUID_MOST_SIGNIFICANT_BITS
+                && to16Bit(uuid) >= 0x1000;
+    }
+
+    /**
+     * @return the lower case canonical string representation of the UUID
+     */
+    static String toString(UUID uuid) {
+
+        String string = strings.get(uuid);
+
+        if (string == null) {
+            string = uuid.toString();
+
+            if (strings.size() < MAX_CACHED) {
+                strings.put(uuid, string);
+            }
+        }
+
+        return string;
+    }
+
+    static int to16Bit(UUID uuid) {
+        return (int) ((uuid.getMostSignificantBits() >>> 32) & 0xFFFF);
+    }
+
+    /**
+     * @return the event name used for notifications of the given characteristic
+     */
+    static String toEventName(UUID uuid) {
+
+        if (is16Bit(uuid)) {
+            return toEventName(to16Bit(uuid));
+        }
+
+        return toString(uuid);
+    }
+
+    /**
+     * @return the decimal representation of the 16 bit UUID, which is used as event name for notifications
+     */
+    static String toEventName(int uuid) {
+
+        if (uuid < CACHE_START || uuid > CACHE_END) {
+            return Integer.toString(uuid);
+        }
+
+        String cached = names[uuid - CACHE_START];
+
+        if (cached == null) {
+            cached = Integer.toString(uuid);
+            names[uuid - CACHE_START] = cached;
+        }
+
+        return cached;
+    }
+
+    /**
+     * @return true if all characters are hexadecimal digits, unlike the number parsers this rejects a leading sign
+     */
+    private static boolean isHex(String value) {
+
+        for (int i = 0; i < value.length(); i++) {
+
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static UUID create(long uuid) {
+        return new UUID((uuid << 32) | BASE_UUID_MOST_SIGNIFICANT_BITS, BASE_UUID_LEAST_SIGNIFICANT_BITS);
+    }
+
+}
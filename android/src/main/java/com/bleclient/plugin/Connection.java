@@ -0,0 +1,242 @@
+package com.bleclient.plugin;
+
+import android.bluetooth.BluetoothGatt;
+import android.bluetooth.BluetoothProfile;
+import android.os.Handler;
+
+import com.bleclient.plugin.decoders.CharacteristicDecoder;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * State of the connection to a single peripheral.
+ * <p>
+ * A connection is shared by the plugin thread, which handles calls from JavaScript, and the worker
+ * processing its GATT callbacks. Fields replaced during the lifetime of the connection are
+ * volatile, states and pending calls are swapped atomically, so a call is resolved exactly once
+ * even if a callback and a plugin method race for it.
+ */
+final class Connection {
+
+    /**
+     * Tree returned by getGattTree together with the database it was built from.
+     */
+    static final class GattTree {
+
+        final GattDatabase database;
+        final JSObject tree;
+
+        GattTree(GattDatabase database, JSObject tree) {
+            this.database = database;
+            this.tree = tree;
+        }
+    }
+
+    /**
+     * Call deferred until services are discovered or the peripheral is reconnected.
+     */
+    static final class PendingCall {
+
+        final PluginCall call;
+        final Runnable retry;
+
+        PendingCall(PluginCall call, Runnable retry) {
+            this.call = call;
+            this.retry = retry;
+        }
+    }
+
+    final String address;
+
+    /**
+     * Address in the form stored by the {@link NotificationRecorder}.
+     */
+    final byte[] addressBytes;
+
+    final String encoding;
+    final int priority;
+    final long waitTime;
+
+    /**
+     * Processes the GATT callbacks and timed tasks of the connection, e.g. flushing notification buffers.
+     */
+    final Handler worker;
+
+    /**
+     * Null if the connection is not reconnected automatically.
+     */
+    final ReconnectPolicy reconnectPolicy;
+
+    final ConcurrentHashMap<UUID, String> notificationEncodings = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<UUID, NotificationBuffer> notificationBuffers = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<UUID, CharacteristicDecoder> notificationDecoders = new ConcurrentHashMap<>();
+
+    /**
+     * Service of each characteristic with enabled notifications, so notifications can be restored after a reconnect.
+     */
+    final ConcurrentHashMap<UUID, UUID> notificationServices = new ConcurrentHashMap<>();
+
+    /**
+     * Characteristics whose next notification is the first one after a reconnect.
+     */
+    final Set<UUID> notificationGaps = Collections.newSetFromMap(new ConcurrentHashMap<UUID, Boolean>());
+
+    /**
+     * Characteristics whose notifications are written to the recording instead of being delivered to listeners.
+     */
+    final Set<UUID> recordedNotifications = Collections.newSetFromMap(new ConcurrentHashMap<UUID, Boolean>());
+
+    final AtomicReference<PluginCall> connectCall = new AtomicReference<>();
+    final AtomicReference<PluginCall> disconnectCall = new AtomicReference<>();
+    final AtomicReference<PluginCall> discoverCall = new AtomicReference<>();
+    final AtomicBoolean restoreNotifications = new AtomicBoolean();
+
+    volatile BluetoothGatt gatt;
+    volatile GattOperationQueue queue;
+    volatile GattServiceIndex serviceIndex;
+    volatile GattDatabase database;
+    volatile GattTree gattTree;
+    volatile boolean useCache;
+    volatile byte[] databaseHash;
+    volatile int mtu = BluetoothLEClient.defaultMtu;
+    volatile String txPhy;
+
+    /**
+     * Last connection priority requested, one of the BluetoothGatt CONNECTION_PRIORITY constants, restored after a reconnect.
+     */
+    volatile int connectionPriority = BluetoothGatt.CONNECTION_PRIORITY_BALANCED;
+    volatile String rxPhy;
+    volatile int rssi;
+    volatile RssiMonitor rssiMonitor;
+
+    /**
+     * Times in ns the pending connection attempt and service discovery were started, 0 if none is pending.
+     */
+    volatile long connectStarted;
+    volatile long discoveryStarted;
+
+    private final AtomicInteger state = new AtomicInteger(BluetoothProfile.STATE_CONNECTING);
+    private final AtomicInteger discoveryState = new AtomicInteger(BluetoothLEClient.SERVICES_UNDISCOVERED);
+
+    private List<PendingCall> pendingCalls;
+
+    Connection(String address, String encoding, int priority, ReconnectPolicy reconnectPolicy, long waitTime, Handler worker) {
+        this.address = address;
+        this.addressBytes = NotificationRecorder.toAddressBytes(address);
+        this.encoding = encoding;
+        this.priority = priority;
+        this.reconnectPolicy = reconnectPolicy;
+        this.waitTime = waitTime;
+        this.worker = worker;
+    }
+
+    /**
+     * @return one of the BluetoothProfile connection states
+     */
+    int getState() {
+        return state.get();
+    }
+
+    void setState(int newState) {
+        state.set(newState);
+    }
+
+    boolean isConnected() {
+        return state.get() == BluetoothProfile.STATE_CONNECTED;
+    }
+
+    int getDiscoveryState() {
+        return discoveryState.get();
+    }
+
+    void setDiscoveryState(int newState) {
+        discoveryState.set(newState);
+    }
+
+    /**
+     * Starts deferring calls until {@link #takePendingCalls()}, calls deferred so far are kept.
+     */
+    synchronized void deferCalls() {
+
+        if (pendingCalls == null) {
+            pendingCalls = new ArrayList<>();
+        }
+    }
+
+    /**
+     * @return false if calls are not deferred, the call has to be processed right away then
+     */
+    synchronized boolean defer(PluginCall call, Runnable retry) {
+
+        if (pendingCalls == null) {
+            return false;
+        }
+
+        pendingCalls.add(new PendingCall(call, retry));
+        return true;
+    }
+
+    /**
+     * Removes a deferred call, e.g. after its timeout.
+     *
+     * @return false if the call is not deferred (anymore)
+     */
+    synchronized boolean removePendingCall(PluginCall call) {
+
+        if (pendingCalls == null) {
+            return false;
+        }
+
+        for (Iterator<PendingCall> iterator = pendingCalls.iterator(); iterator.hasNext(); ) {
+
+            if (iterator.next().call == call) {
+                iterator.remove();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes all deferred calls, calls made afterwards are still deferred.
+     *
+     * @return the removed calls, null if calls are not deferred
+     */
+    synchronized List<PendingCall> clearPendingCalls() {
+
+        if (pendingCalls == null) {
+            return null;
+        }
+
+        List<PendingCall> calls = pendingCalls;
+        pendingCalls = new ArrayList<>();
+
+        return calls;
+    }
+
+    /**
+     * Stops deferring calls.
+     *
+     * @return the deferred calls, null if calls were not deferred
+     */
+    synchronized List<PendingCall> takePendingCalls() {
+
+        List<PendingCall> calls = pendingCalls;
+        pendingCalls = null;
+
+        return calls;
+    }
+
+}
@@ -0,0 +1,267 @@
+package com.bleclient.plugin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+/**
+ * Limits the number of simultaneous connections and connection attempts.
+ * <p>
+ * Android's GATT client becomes unreliable once too many peripherals are connected or being
+ * connected at the same time, so connection requests beyond the limits are queued. Queued
+ * requests are started by priority, requests of equal priority in the order they were submitted,
+ * so peripherals that reconnect for short sessions take turns.
+ */
+class ConnectionScheduler {
+
+    interface Starter {
+        /**
+         * Starts the connection attempt, called outside the scheduler's lock.
+         *
+         * @param waitTime time in ms the request was queued
+         */
+        void start(long waitTime);
+
+        /**
+         * Called if the request is cancelled before it was started.
+         */
+        void cancel();
+    }
+
+    static class Request {
+
+        final String address;
+        final int priority;
+        final long sequence;
+        final long submitted;
+        final Starter starter;
+
+        Request(String address, int priority, long sequence, long submitted, Starter starter) {
+            this.address = address;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.submitted = submitted;
+            this.starter = starter;
+        }
+    }
+
+    private static final int STATE_CONNECTING = 0;
+    private static final int STATE_CONNECTED = 1;
+
+    private final PriorityQueue<Request> queue = new PriorityQueue<>(11, (a, b) -> {
+        if (a.priority != b.priority) {
+            return a.priority > b.priority ? -1 : 1;
+        }
+        return Long.compare(a.sequence, b.sequence);
+    });
+
+    private final HashMap<String, Integer> states = new HashMap<>();
+
+    private int maxConnections;
+    private int maxConnectionAttempts;
+    private int connecting;
+    private long sequence;
+
+    private long started;
+    private long totalWaitTime;
+    private long maxWaitTime;
+
+    ConnectionScheduler(int maxConnections, int maxConnectionAttempts) {
+        this.maxConnections = maxConnections;
+        this.maxConnectionAttempts = maxConnectionAttempts;
+    }
+
+    /**
+     * Queues a connection request and starts it right away if the limits allow it.
+     *
+     * @return false if a request for the address is already queued, connecting or connected
+     */
+    boolean submit(String address, int priority, Starter starter) {
+
+        synchronized (this) {
+
+            if (states.containsKey(address) || isQueued(address)) {
+                return false;
+            }
+
+            queue.add(new Request(address, priority, sequence++, System.currentTimeMillis(), starter));
+        }
+
+        dispatch();
+        return true;
+    }
+
+    /**
+     * Removes a queued request, e.g. when the app disconnects before the attempt was started.
+     *
+     * @return false if no request was queued for the address
+     */
+    boolean cancel(String address) {
+
+        Request cancelled = null;
+
+        synchronized (this) {
+
+            Iterator<Request> iterator = queue.iterator();
+
+            while (iterator.hasNext()) {
+
+                Request request = iterator.next();
+
+                if (request.address.equals(address)) {
+                    iterator.remove();
+                    cancelled = request;
+                    break;
+                }
+            }
+        }
+
+        if (cancelled == null) {
+            return false;
+        }
+
+        cancelled.starter.cancel();
+        return true;
+    }
+
+    /**
+     * Moves a peripheral from the connecting to the connected state, which frees an attempt slot.
+     */
+    void onConnected(String address) {
+
+        synchronized (this) {
+
+            Integer state = states.get(address);
+
+            if (state == null || state != STATE_CONNECTING) {
+                return;
+            }
+
+            states.put(address, STATE_CONNECTED);
+            connecting--;
+        }
+
+        dispatch();
+    }
+
+    /**
+     * Frees the slot of a peripheral after it disconnected or its connection attempt failed.
+     */
+    void release(String address) {
+
+        synchronized (this) {
+
+            Integer state = states.remove(address);
+
+            if (state == null) {
+                return;
+            }
+
+            if (state == STATE_CONNECTING) {
+                connecting--;
+            }
+        }
+
+        dispatch();
+    }
+
+    void setLimits(int maxConnections, int maxConnectionAttempts) {
+
+        synchronized (this) {
+            this.maxConnections = maxConnections;
+            this.maxConnectionAttempts = maxConnectionAttempts;
+        }
+
+        dispatch();
+    }
+
+    synchronized int getMaxConnections() {
+        return maxConnections;
+    }
+
+    synchronized int getMaxConnectionAttempts() {
+        return maxConnectionAttempts;
+    }
+
+    synchronized int getQueued() {
+        return queue.size();
+    }
+
+    synchronized int getConnecting() {
+        return connecting;
+    }
+
+    synchronized int getConnected() {
+        return states.size() - connecting;
+    }
+
+    /**
+     * @return the average time in ms started requests were queued
+     */
+    synchronized long getAverageWaitTime() {
+        return started == 0 ? 0 : totalWaitTime / started;
+    }
+
+    synchronized long getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    /**
+     * @return the time in ms the oldest queued request is waiting
+     */
+    synchronized long getOldestWaitTime() {
+
+        long oldest = 0;
+        long now = System.currentTimeMillis();
+
+        for (Request request : queue) {
+            oldest = Math.max(oldest, now - request.submitted);
+        }
+
+        return oldest;
+    }
+
+    private boolean isQueued(String address) {
+
+        for (Request request : queue) {
+            if (request.address.equals(address)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void dispatch() {
+
+        ArrayList<Request> ready = new ArrayList<>();
+        ArrayList<Long> waitTimes = new ArrayList<>();
+
+        synchronized (this) {
+
+            long now = System.currentTimeMillis();
+
+            while (!queue.isEmpty() && states.size() < maxConnections && connecting < maxConnectionAttempts) {
+
+                Request request = queue.poll();
+                long waitTime = now - request.submitted;
+
+                states.put(request.address, STATE_CONNECTING);
+                connecting++;
+
+                started++;
+                totalWaitTime += waitTime;
+                maxWaitTime = Math.max(maxWaitTime, waitTime);
+
+                ready.add(request);
+                waitTimes.add(waitTime);
+            }
+        }
+
+        for (int i = 0; i < ready.size(); i++) {
+            ready.get(i).starter.start(waitTimes.get(i));
+        }
+    }
+
+}
@@ -0,0 +1,311 @@
+package com.bleclient.plugin;
+
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattDescriptor;
+import android.bluetooth.BluetoothGattService;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Snapshot of a peripheral's discovered services, characteristics and descriptors.
+ * <p>
+ * Unlike the objects of the Android stack, a snapshot does not depend on a connection,
+ * so it can be written to disk and answer queries about the GATT tree before services
+ * have been discovered again.
+ */
+final class GattDatabase {
+
+    static final int FORMAT_MAGIC = 0x47415454;
+    static final int FORMAT_VERSION = 1;
+
+    static final class Service {
+
+        final UUID uuid;
+        final boolean primary;
+        final List<UUID> included;
+        final List<Characteristic> characteristics;
+
+        Service(UUID uuid, boolean primary, List<UUID> included, List<Characteristic> characteristics) {
+            this.uuid = uuid;
+            this.primary = primary;
+            this.included = Collections.unmodifiableList(included);
+            this.characteristics = Collections.unmodifiableList(characteristics);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (!(o instanceof Service)) {
+                return false;
+            }
+
+            Service other = (Service) o;
+
+            return uuid.equals(other.uuid) && primary == other.primary && included.equals(other.included) && characteristics.equals(other.characteristics);
+        }
+
+        @Override
+        public int hashCode() {
+            return uuid.hashCode();
+        }
+    }
+
+    static final class Characteristic {
+
+        final UUID uuid;
+        final int properties;
+        final List<UUID> descriptors;
+
+        Characteristic(UUID uuid, int properties, List<UUID> descriptors) {
+            this.uuid = uuid;
+            this.properties = properties;
+            this.descriptors = Collections.unmodifiableList(descriptors);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (!(o instanceof Characteristic)) {
+                return false;
+            }
+
+            Characteristic other = (Characteristic) o;
+
+            return uuid.equals(other.uuid) && properties == other.properties && descriptors.equals(other.descriptors);
+        }
+
+        @Override
+        public int hashCode() {
+            return uuid.hashCode();
+        }
+    }
+
+    /**
+     * Database hash the snapshot was taken for, null if unknown.
+     */
+    final byte[] hash;
+    final List<Service> services;
+
+    private final HashMap<UUID, Service> servicesByUuid = new HashMap<>();
+
+    GattDatabase(List<Service> services, byte[] hash) {
+
+        this.services = Collections.unmodifiableList(services);
+        this.hash = hash;
+
+        for (Service service : services) {
+            if (!servicesByUuid.containsKey(service.uuid)) {
+                servicesByUuid.put(service.uuid, service);
+            }
+        }
+    }
+
+    static GattDatabase from(List<BluetoothGattService> discoveredServices, byte[] hash) {
+
+        ArrayList<Service> services = new ArrayList<>(discoveredServices.size());
+
+        for (BluetoothGattService service : discoveredServices) {
+
+            ArrayList<UUID> included = new ArrayList<>();
+
+            for (BluetoothGattService includedService : service.getIncludedServices()) {
+                included.add(includedService.getUuid());
+            }
+
+            ArrayList<Characteristic> characteristics = new ArrayList<>();
+
+            for (BluetoothGattCharacteristic characteristic : service.getCharacteristics()) {
+
+                ArrayList<UUID> descriptors = new ArrayList<>();
+
+                for (BluetoothGattDescriptor descriptor : characteristic.getDescriptors()) {
+                    descriptors.add(descriptor.getUuid());
+                }
+
+                characteristics.add(new Characteristic(characteristic.getUuid(), characteristic.getProperties(), descriptors));
+            }
+
+            boolean primary = service.getType() == BluetoothGattService.SERVICE_TYPE_PRIMARY;
+            services.add(new Service(service.getUuid(), primary, included, characteristics));
+        }
+
+        return new GattDatabase(services, hash);
+    }
+
+    Service getService(UUID uuid) {
+        return servicesByUuid.get(uuid);
+    }
+
+    /**
+     * @return the characteristic or null if either the service or the characteristic is unknown
+     */
+    Characteristic getCharacteristic(UUID service, UUID characteristic) {
+
+        Service found = servicesByUuid.get(service);
+
+        if (found == null) {
+            return null;
+        }
+
+        for (Characteristic candidate : found.characteristics) {
+            if (candidate.uuid.equals(characteristic)) {
+                return candidate;
+            }
+        }
+
+        return null;
+    }
+
+    boolean isEmpty() {
+        return services.isEmpty();
+    }
+
+    /**
+     * @return true if both snapshots describe the same tree, regardless of their hash
+     */
+    boolean hasSameTree(GattDatabase other) {
+        return other != null && services.equals(other.services);
+    }
+
+    boolean hasHash(byte[] otherHash) {
+        return Arrays.equals(hash, otherHash);
+    }
+
+    void write(DataOutputStream out) throws IOException {
+
+        out.writeInt(FORMAT_MAGIC);
+        out.writeByte(FORMAT_VERSION);
+
+        if (hash == null) {
+            out.writeShort(-1);
+        } else {
+            out.writeShort(hash.length);
+            out.write(hash);
+        }
+
+        out.writeShort(services.size());
+
+        for (Service service : services) {
+
+            writeUUID(out, service.uuid);
+            out.writeBoolean(service.primary);
+
+            out.writeShort(service.included.size());
+
+            for (UUID included : service.included) {
+                writeUUID(out, included);
+            }
+
+            out.writeShort(service.characteristics.size());
+
+            for (Characteristic characteristic : service.characteristics) {
+
+                writeUUID(out, characteristic.uuid);
+                out.writeByte(characteristic.properties);
+                out.writeShort(characteristic.descriptors.size());
+
+                for (UUID descriptor : characteristic.descriptors) {
+                    writeUUID(out, descriptor);
+                }
+            }
+        }
+    }
+
+    /**
+     * @throws IOException if the data is truncated or not written by {@link #write(DataOutputStream)}
+     */
+    static GattDatabase read(DataInputStream in) throws IOException {
+
+        if (in.readInt() != FORMAT_MAGIC || in.readUnsignedByte() != FORMAT_VERSION) {
+            throw new IOException("Unsupported GATT database format");
+        }
+
+        byte[] hash = null;
+        short hashLength = in.readShort();
+
+        if (hashLength >= 0) {
+            hash = new byte[hashLength];
+            in.readFully(hash);
+        }
+
+        int serviceCount = in.readUnsignedShort();
+        ArrayList<Service> services = new ArrayList<>(serviceCount);
+
+        for (int i = 0; i < serviceCount; i++) {
+
+            UUID uuid = readUUID(in);
+            boolean primary = in.readBoolean();
+
+            int includedCount = in.readUnsignedShort();
+            ArrayList<UUID> included = new ArrayList<>(includedCount);
+
+            for (int j = 0; j < includedCount; j++) {
+                included.add(readUUID(in));
+            }
+
+            int characteristicCount = in.readUnsignedShort();
+            ArrayList<Characteristic> characteristics = new ArrayList<>(characteristicCount);
+
+            for (int j = 0; j < characteristicCount; j++) {
+
+                UUID characteristicUuid = readUUID(in);
+                int properties = in.readUnsignedByte();
+                int descriptorCount = in.readUnsignedShort();
+                ArrayList<UUID> descriptors = new ArrayList<>(descriptorCount);
+
+                for (int k = 0; k < descriptorCount; k++) {
+                    descriptors.add(readUUID(in));
+                }
+
+                characteristics.add(new Characteristic(characteristicUuid, properties, descriptors));
+            }
+
+            services.add(new Service(uuid, primary, included, characteristics));
+        }
+
+        return new GattDatabase(services, hash);
+    }
+
+    /**
+     * UUIDs based on the Bluetooth Base UUID take 2 bytes, all others 16.
+     */
+    private static void writeUUID(DataOutputStream out, UUID uuid) throws IOException {
+
+        if (BluetoothUUIDs.is16Bit(uuid)) {
+            out.writeByte(2);
+            out.writeShort(BluetoothUUIDs.to16Bit(uuid));
+            return;
+        }
+
+        out.writeByte(16);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUUID(DataInputStream in) throws IOException {
+
+        int length = in.readUnsignedByte();
+
+        if (length == 2) {
+            return BluetoothUUIDs.from32Bit(in.readUnsignedShort());
+        }
+
+        if (length != 16) {
+            throw new IOException("Invalid UUID length " + length);
+        }
+
+        long mostSignificantBits = in.readLong();
+        long leastSignificantBits = in.readLong();
+
+        return BluetoothUUIDs.intern(new UUID(mostSignificantBits, leastSignificantBits));
+    }
+
+}
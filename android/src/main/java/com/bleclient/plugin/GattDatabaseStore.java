@@ -0,0 +1,81 @@
+package com.bleclient.plugin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Keeps one {@link GattDatabase} file per peripheral address in a directory, usually below the app's files dir.
+ */
+class GattDatabaseStore {
+
+    static final String FILE_EXTENSION = ".gattdb";
+
+    private final File directory;
+
+    GattDatabaseStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the stored database or null if there is none or it could not be read, unreadable files are deleted
+     */
+    synchronized GattDatabase load(String address) {
+
+        File file = getFile(address);
+
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return GattDatabase.read(in);
+        } catch (IOException e) {
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Writes to a temporary file first, so an interrupted save never leaves a truncated database behind.
+     *
+     * @return true if the database was stored
+     */
+    synchronized boolean save(String address, GattDatabase database) {
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            return false;
+        }
+
+        File file = getFile(address);
+        File temporary = new File(directory, file.getName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            database.write(out);
+        } catch (IOException e) {
+            temporary.delete();
+            return false;
+        }
+
+        if (!temporary.renameTo(file)) {
+            temporary.delete();
+            return false;
+        }
+
+        return true;
+    }
+
+    synchronized void remove(String address) {
+        getFile(address).delete();
+    }
+
+    private File getFile(String address) {
+        return new File(directory, address.replace(":", "") + FILE_EXTENSION);
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.bleclient.plugin;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counters and latency histograms of a single peripheral, kept across connections.
+ * <p>
+ * Durations are recorded in ms, except the time spent handing events to the bridge, which is
+ * recorded in microseconds since it is usually far below a millisecond.
+ */
+class GattMetrics {
+
+    /**
+     * Report names of the operation types, indexed by {@link GattOperation} type.
+     */
+    static final String[] OPERATION_NAMES = {
+            "read", "write", "readDescriptor", "writeDescriptor", "mtu", "setPhy", "readPhy", "executeReliableWrite", "readRssi"
+    };
+
+    /**
+     * Length of the window the notification rate is measured over.
+     */
+    static final long RATE_WINDOW = 1000;
+
+    final LatencyHistogram connectTime = new LatencyHistogram();
+    final LatencyHistogram discoveryTime = new LatencyHistogram();
+    final LatencyHistogram emitTime = new LatencyHistogram();
+
+    private final LatencyHistogram[] operationTimes = new LatencyHistogram[OPERATION_NAMES.length];
+
+    private final TreeMap<Integer, Long> failures = new TreeMap<>();
+    private long timeouts;
+    private long notifications;
+
+    private long windowStart = -1;
+    private long windowNotifications;
+    private double notificationRate;
+
+    GattMetrics() {
+
+        for (int i = 0; i < operationTimes.length; i++) {
+            operationTimes[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * @return histogram of the round trip times of the operation type, null for unknown types
+     */
+    LatencyHistogram getOperationTime(int type) {
+        return type >= 0 && type < operationTimes.length ? operationTimes[type] : null;
+    }
+
+    synchronized void addFailure(int status) {
+
+        Long count = failures.get(status);
+        failures.put(status, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * @return number of failures by GATT status
+     */
+    synchronized Map<Integer, Long> getFailures() {
+        return new TreeMap<>(failures);
+    }
+
+    synchronized void addTimeout() {
+        timeouts++;
+    }
+
+    synchronized long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @param time arrival of the notification in ms
+     */
+    synchronized void addNotification(long time) {
+
+        notifications++;
+
+        if (windowStart < 0) {
+            windowStart = time;
+        }
+
+        if (time - windowStart >= RATE_WINDOW) {
+            notificationRate = windowNotifications * 1000.0 / (time - windowStart);
+            windowStart = time;
+            windowNotifications = 0;
+        }
+
+        windowNotifications++;
+    }
+
+    synchronized long getNotifications() {
+        return notifications;
+    }
+
+    /**
+     * @return notifications per second over the last complete window, 0 if no notification arrived for longer than a window
+     */
+    synchronized double getNotificationRate(long time) {
+
+        if (windowStart < 0) {
+            return 0;
+        }
+
+        long elapsed = time - windowStart;
+
+        if (elapsed >= 2 * RATE_WINDOW) {
+            return windowNotifications * 1000.0 / elapsed;
+        }
+
+        return notificationRate;
+    }
+
+    synchronized void reset() {
+
+        connectTime.reset();
+        discoveryTime.reset();
+        emitTime.reset();
+
+        for (LatencyHistogram histogram : operationTimes) {
+            histogram.reset();
+        }
+
+        failures.clear();
+        timeouts = 0;
+        notifications = 0;
+        windowStart = -1;
+        windowNotifications = 0;
+        notificationRate = 0;
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.bleclient.plugin;
+
+import android.bluetooth.BluetoothGatt;
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattDescriptor;
+
+/**
+ * A single request against a peripheral's GATT server, e.g. a characteristic read.
+ * Operations are executed one at a time by a {@link GattOperationQueue}.
+ */
+class GattOperation {
+
+    static final int TYPE_READ = 0;
+    static final int TYPE_WRITE = 1;
+    static final int TYPE_READ_DESCRIPTOR = 2;
+    static final int TYPE_WRITE_DESCRIPTOR = 3;
+    static final int TYPE_MTU = 4;
+    static final int TYPE_SET_PHY = 5;
+    static final int TYPE_READ_PHY = 6;
+    static final int TYPE_EXECUTE_RELIABLE_WRITE = 7;
+    static final int TYPE_READ_RSSI = 8;
+
+    interface Action {
+        /**
+         * Starts the operation, returns false if the request could not be issued.
+         */
+        boolean execute(BluetoothGatt gatt);
+    }
+
+    interface Callback {
+        void onSuccess(byte[] value);
+
+        void onError(String message);
+    }
+
+    final int type;
+
+    /**
+     * Key of the characteristic or descriptor the operation refers to, see {@link #targetOf(BluetoothGattCharacteristic)},
+     * null if it has none or callbacks of any target complete it.
+     */
+    final Object target;
+
+    final Action action;
+    final Callback callback;
+    final String startError;
+
+    /**
+     * Time in ms the operation may be in flight before it fails, 0 to wait for the callback forever.
+     */
+    final long timeout;
+
+    /**
+     * Time in ns the operation was issued, set by the queue.
+     */
+    long started;
+
+    GattOperation(int type, Action action, Callback callback, String startError) {
+        this(type, action, callback, startError, BluetoothLEClient.defaultOperationTimeout);
+    }
+
+    GattOperation(int type, Action action, Callback callback, String startError, long timeout) {
+        this(type, null, action, callback, startError, timeout);
+    }
+
+    GattOperation(int type, Object target, Action action, Callback callback, String startError, long timeout) {
+        this.type = type;
+        this.target = target;
+        this.action = action;
+        this.callback = callback;
+        this.startError = startError;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param target key of the characteristic or descriptor reported by the callback, null if the callback reports none
+     * @return true if a callback of the given type and target answers this operation
+     */
+    boolean matches(int type, Object target) {
+        return this.type == type && (this.target == null || target == null || this.target.equals(target));
+    }
+
+    /**
+     * Keys a characteristic by UUID and instance id, since a rediscovery replaces the instances of the stack.
+     * The key is taken when the operation is created, so matching a callback does not depend on the stack's objects.
+     */
+    static Object targetOf(BluetoothGattCharacteristic characteristic) {
+        return characteristic.getUuid() + "#" + characteristic.getInstanceId();
+    }
+
+    static Object targetOf(BluetoothGattDescriptor descriptor) {
+        return targetOf(descriptor.getCharacteristic()) + "/" + descriptor.getUuid();
+    }
+
+}
@@ -0,0 +1,203 @@
+package com.bleclient.plugin;
+
+import android.bluetooth.BluetoothGatt;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * FIFO queue of GATT operations for a single peripheral.
+ * <p>
+ * Android's GATT client drops a request while another one is still outstanding,
+ * so operations are started one after another, each as soon as the callback of
+ * its predecessor arrived and was handled, so an operation can rely on the outcome of
+ * the one before it. An operation whose callback does not arrive within its
+ * timeout fails, so a peripheral which went silent does not block the queue forever.
+ * <p>
+ * Callbacks are matched by operation type and, where the callback reports one, by the
+ * characteristic or descriptor. The peripheral answers requests in the order they were
+ * sent, so a callback matching an operation which timed out is its late answer and is
+ * dropped instead of completing a later operation with a wrong value. Android's callbacks
+ * carry no request id though, so once an operation of the same type and target was issued
+ * a late answer cannot be told from the answer to the new operation. The timed out operation
+ * is forgotten then and its late answer completes the new operation, which would otherwise
+ * swallow its own answer and run into its timeout as well.
+ */
+class GattOperationQueue {
+
+    interface Timer {
+        /**
+         * Runs the task after the delay unless the timer is cancelled for the token before.
+         */
+        void schedule(Runnable task, Object token, long delay);
+
+        void cancel(Object token);
+    }
+
+    private final BluetoothGatt gatt;
+    private final Timer timer;
+    private final ArrayDeque<GattOperation> pending = new ArrayDeque<>();
+    private final ArrayDeque<GattOperation> timedOut = new ArrayDeque<>();
+    private GattOperation current;
+    private boolean completing;
+    private int maxSize;
+
+    GattOperationQueue(BluetoothGatt gatt, Timer timer) {
+        this.gatt = gatt;
+        this.timer = timer;
+    }
+
+    synchronized void enqueue(GattOperation operation) {
+        pending.add(operation);
+        maxSize = Math.max(maxSize, size());
+
+        if (current == null) {
+            next();
+        }
+    }
+
+    /**
+     * Queues the operations back to back, no operation enqueued by another thread meanwhile gets between them.
+     */
+    synchronized void enqueueAll(List<GattOperation> operations) {
+        pending.addAll(operations);
+        maxSize = Math.max(maxSize, size());
+
+        if (current == null) {
+            next();
+        }
+    }
+
+    /**
+     * Completes the operation in flight if the callback answers it. The queue waits until
+     * {@link #finish(GattOperation)} is called, so the caller runs the operation's callback
+     * before the next operation is started.
+     *
+     * @param target key of the characteristic or descriptor reported by the callback, null if it reports none
+     * @return the completed operation or null if the callback answers no operation in flight
+     */
+    synchronized GattOperation complete(int type, Object target) {
+
+        for (Iterator<GattOperation> iterator = timedOut.iterator(); iterator.hasNext(); ) {
+
+            if (iterator.next().matches(type, target)) {
+                iterator.remove();
+                return null;
+            }
+        }
+
+        if (current == null || completing || !current.matches(type, target)) {
+            return null;
+        }
+
+        completing = true;
+        timer.cancel(current);
+
+        return current;
+    }
+
+    /**
+     * Starts the next operation after the callback of the completed one ran.
+     */
+    synchronized void finish(GattOperation operation) {
+
+        if (current != operation) {
+            return;
+        }
+
+        current = null;
+        completing = false;
+        next();
+    }
+
+    /**
+     * Fails the operation in flight as well as all pending operations, e.g. after a disconnect.
+     *
+     * @return number of failed operations
+     */
+    synchronized int clear(String message) {
+
+        int cleared = pending.size();
+        timedOut.clear();
+
+        if (current != null) {
+
+            // a completing operation's callback is run by its completer
+            if (!completing) {
+                timer.cancel(current);
+                current.callback.onError(message);
+            }
+
+            current = null;
+            completing = false;
+            cleared++;
+        }
+
+        while (!pending.isEmpty()) {
+            pending.poll().callback.onError(message);
+        }
+
+        return cleared;
+    }
+
+    synchronized int size() {
+        return pending.size() + (current == null ? 0 : 1);
+    }
+
+    /**
+     * @return the largest number of operations queued at once, including the one in flight
+     */
+    synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Fails the operation if it is still in flight and starts the next one.
+     */
+    void timeout(GattOperation operation) {
+
+        synchronized (this) {
+
+            if (current != operation || completing) {
+                return;
+            }
+
+            completing = true;
+            timedOut.add(operation);
+        }
+
+        try {
+            operation.callback.onError(BluetoothLEClient.keyErrorOperationTimeout);
+        } finally {
+            finish(operation);
+        }
+    }
+
+    private void next() {
+
+        while (current == null && !pending.isEmpty()) {
+
+            GattOperation operation = pending.poll();
+            operation.started = System.nanoTime();
+
+            for (Iterator<GattOperation> iterator = timedOut.iterator(); iterator.hasNext(); ) {
+
+                if (iterator.next().matches(operation.type, operation.target)) {
+                    iterator.remove();
+                }
+            }
+
+            if (operation.action.execute(gatt)) {
+                current = operation;
+
+                if (operation.timeout > 0) {
+                    timer.schedule(() -> timeout(operation), operation, operation.timeout);
+                }
+            } else {
+                operation.callback.onError(operation.startError);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.bleclient.plugin;
+
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lookup table of a peripheral's discovered services and their characteristics.
+ * <p>
+ * {@link android.bluetooth.BluetoothGatt#getService(UUID)} and
+ * {@link BluetoothGattService#getCharacteristic(UUID)} scan lists on every call,
+ * the index resolves both with a single hash lookup. Like the Android stack, the
+ * first instance wins if a UUID occurs more than once.
+ */
+class GattServiceIndex {
+
+    private final HashMap<UUID, BluetoothGattService> services = new HashMap<>();
+    private final HashMap<UUID, HashMap<UUID, BluetoothGattCharacteristic>> characteristics = new HashMap<>();
+
+    GattServiceIndex(List<BluetoothGattService> discoveredServices) {
+
+        for (BluetoothGattService service : discoveredServices) {
+
+            UUID serviceUuid = service.getUuid();
+
+            if (services.containsKey(serviceUuid)) {
+                continue;
+            }
+
+            services.put(serviceUuid, service);
+
+            HashMap<UUID, BluetoothGattCharacteristic> serviceCharacteristics = new HashMap<>();
+
+            for (BluetoothGattCharacteristic characteristic : service.getCharacteristics()) {
+
+                UUID characteristicUuid = characteristic.getUuid();
+
+                if (!serviceCharacteristics.containsKey(characteristicUuid)) {
+                    serviceCharacteristics.put(characteristicUuid, characteristic);
+                }
+            }
+
+            characteristics.put(serviceUuid, serviceCharacteristics);
+        }
+    }
+
+    BluetoothGattService getService(UUID service) {
+        return services.get(service);
+    }
+
+    /**
+     * @return the characteristic or null if either the service or the characteristic was not discovered
+     */
+    BluetoothGattCharacteristic getCharacteristic(UUID service, UUID characteristic) {
+
+        HashMap<UUID, BluetoothGattCharacteristic> serviceCharacteristics = characteristics.get(service);
+
+        if (serviceCharacteristics == null) {
+            return null;
+        }
+
+        return serviceCharacteristics.get(characteristic);
+    }
+
+    boolean isEmpty() {
+        return services.isEmpty();
+    }
+
+}
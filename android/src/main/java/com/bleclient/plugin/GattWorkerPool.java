@@ -0,0 +1,75 @@
+package com.bleclient.plugin;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+
+/**
+ * Striped pool of worker threads processing GATT callbacks and connection tasks.
+ * <p>
+ * Binder threads delivering GATT callbacks only capture the callback's values and post them to
+ * the worker of the peripheral, which builds the events for JavaScript. A peripheral is always
+ * served by the same worker, so its callbacks are processed in the order they arrived, while a
+ * peripheral flooding its worker with notifications only delays the peripherals sharing the stripe.
+ */
+class GattWorkerPool {
+
+    static final int MAX_WORKERS = 4;
+
+    private final HandlerThread[] threads;
+    private final Handler[] handlers;
+
+    /**
+     * @param size number of workers, at least one
+     */
+    GattWorkerPool(String name, int size) {
+
+        threads = new HandlerThread[size];
+        handlers = new Handler[size];
+
+        for (int i = 0; i < size; i++) {
+            threads[i] = new HandlerThread(name + "-" + i);
+            threads[i].start();
+            handlers[i] = new Handler(threads[i].getLooper());
+        }
+    }
+
+    /**
+     * @return a worker for each processor, limited to {@link #MAX_WORKERS}
+     */
+    static int defaultSize() {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), MAX_WORKERS));
+    }
+
+    /**
+     * @return index of the worker serving the given peripheral
+     */
+    static int stripe(String address, int size) {
+        return (address.hashCode() & Integer.MAX_VALUE) % size;
+    }
+
+    Handler get(String address) {
+        return handlers[stripe(address, handlers.length)];
+    }
+
+    /**
+     * @return worker for tasks not bound to a peripheral
+     */
+    Handler getDefault() {
+        return handlers[0];
+    }
+
+    int size() {
+        return handlers.length;
+    }
+
+    /**
+     * Stops the workers once the tasks already due are processed.
+     */
+    void quit() {
+
+        for (HandlerThread thread : threads) {
+            thread.quitSafely();
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.bleclient.plugin;
+
+/**
+ * Histogram of durations with exponentially growing buckets.
+ * <p>
+ * Bucket 0 counts durations below 1, bucket i durations from 2^(i-1) up to 2^i, the last bucket
+ * all longer ones. A fixed number of buckets keeps recording allocation free, percentiles are
+ * reported as the upper bound of the bucket they fall into.
+ */
+class LatencyHistogram {
+
+    static final int BUCKETS = 20;
+
+    private final long[] buckets = new long[BUCKETS];
+
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    static int getBucket(long duration) {
+
+        if (duration < 1) {
+            return 0;
+        }
+
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(duration));
+    }
+
+    /**
+     * @return the exclusive upper bound of the bucket, Long.MAX_VALUE for the last one
+     */
+    static long getUpperBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    synchronized void add(long duration) {
+
+        buckets[getBucket(duration)]++;
+        count++;
+        sum += duration;
+        min = Math.min(min, duration);
+        max = Math.max(max, duration);
+    }
+
+    synchronized long getCount() {
+        return count;
+    }
+
+    synchronized double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    synchronized long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    synchronized long getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return upper bound of the bucket holding the percentile, limited to the maximum recorded, 0 if nothing was recorded
+     */
+    synchronized long getPercentile(double percentile) {
+
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+
+            seen += buckets[i];
+
+            if (seen >= rank && buckets[i] > 0) {
+                return Math.min(getUpperBound(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    synchronized long[] getBuckets() {
+        return buckets.clone();
+    }
+
+    synchronized void reset() {
+
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = 0;
+        }
+
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.bleclient.plugin;
+
+import com.bleclient.plugin.decoders.CharacteristicDecoder;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates notifications of a single characteristic, so they can be
+ * delivered to JavaScript as one event instead of one event per value.
+ */
+class NotificationBuffer {
+
+    final int capacity;
+    final long interval;
+    final String encoding;
+    final CharacteristicDecoder decoder;
+
+    private final byte[][] values;
+    private final long[] timestamps;
+    private int count;
+    private boolean gap;
+
+    /**
+     * @param capacity number of values after which the buffer is flushed
+     * @param interval time in ms between periodic flushes, 0 to flush by capacity only
+     * @param encoding encoding of the values once they are delivered
+     * @param decoder  decoder applied to the values once they are delivered, may be null
+     */
+    NotificationBuffer(int capacity, long interval, String encoding, CharacteristicDecoder decoder) {
+        this.capacity = capacity;
+        this.interval = interval;
+        this.encoding = encoding;
+        this.decoder = decoder;
+        this.values = new byte[capacity][];
+        this.timestamps = new long[capacity];
+    }
+
+    /**
+     * @return the buffered values if the buffer is full after adding the given value, otherwise null
+     */
+    synchronized Batch add(byte[] value, long timestamp) {
+
+        values[count] = value;
+        timestamps[count] = timestamp;
+        count++;
+
+        if (count < capacity) {
+            return null;
+        }
+
+        return drain();
+    }
+
+    synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Marks the next batch as the first one after values were lost, e.g. while the peripheral was disconnected.
+     */
+    synchronized void markGap() {
+        gap = true;
+    }
+
+    synchronized Batch drain() {
+
+        Batch batch = new Batch(Arrays.copyOf(values, count), Arrays.copyOf(timestamps, count), gap);
+
+        Arrays.fill(values, 0, count, null);
+        count = 0;
+        gap = false;
+
+        return batch;
+    }
+
+    static class Batch {
+
+        final byte[][] values;
+        final long[] timestamps;
+        final boolean gap;
+
+        Batch(byte[][] values, long[] timestamps, boolean gap) {
+            this.values = values;
+            this.timestamps = timestamps;
+            this.gap = gap;
+        }
+    }
+
+}
@@ -0,0 +1,494 @@
+package com.bleclient.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Append-only log of notification values, split into memory-mapped segment files.
+ * <p>
+ * A value is recorded by copying it into the mapped segment, the kernel writes the pages back
+ * on its own, so recording costs no system call per value and survives the app being killed.
+ * Once a segment is full the next one is started and the oldest segments beyond the limit are
+ * deleted.
+ * <p>
+ * A segment starts with a header followed by records of the form
+ * (length, time, address, characteristic, value), where length covers the whole record. The
+ * unused rest of a segment is zero-filled, so a length of 0 marks its end.
+ * <p>
+ * Mappings are kept for the most recently read segments, so paging through a recording does not
+ * map a segment again for every page.
+ */
+class NotificationRecorder {
+
+    static final class Record {
+
+        final long time;
+        final String address;
+        final UUID characteristic;
+        final byte[] value;
+
+        Record(long time, String address, UUID characteristic, byte[] value) {
+            this.time = time;
+            this.address = address;
+            this.characteristic = characteristic;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Records found by {@link #read(long, long, String, UUID, int, Cursor)}.
+     */
+    static final class Result {
+
+        final List<Record> records;
+
+        /**
+         * Position to continue reading from, null if all records were read.
+         */
+        final Cursor next;
+
+        Result(List<Record> records, Cursor next) {
+            this.records = records;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Position of a record given by its segment and offset.
+     */
+    static final class Cursor {
+
+        final long segment;
+        final int offset;
+
+        Cursor(long segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        /**
+         * @return the cursor or null if the string is no cursor
+         */
+        static Cursor parse(String cursor) {
+
+            int separator = cursor.indexOf(':');
+
+            if (separator < 0) {
+                return null;
+            }
+
+            try {
+                return new Cursor(Long.parseLong(cursor.substring(0, separator)), Integer.parseInt(cursor.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return segment + ":" + offset;
+        }
+    }
+
+    static final int MAGIC = 0x4e4f5446;
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 8;
+    static final int ADDRESS_LENGTH = 6;
+    static final int RECORD_HEADER_LENGTH = 4 + 8 + ADDRESS_LENGTH + 16;
+    static final String FILE_EXTENSION = ".rec";
+    static final int MAX_MAPPED_SEGMENTS = 8;
+
+    private final File directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    private MappedByteBuffer current;
+    private long currentSegment = -1;
+
+    /**
+     * Read-only mappings by segment, least recently used first.
+     */
+    private final LinkedHashMap<Long, ByteBuffer> mapped = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param segmentSize size of a segment file in bytes, also limits the size of a single value
+     * @param maxSegments number of segments kept, older ones are deleted
+     */
+    NotificationRecorder(File directory, int segmentSize, int maxSegments) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * @param address the peripheral's address as returned by {@link #toAddressBytes(String)}
+     * @return false if the value could not be recorded, e.g. because the storage is full
+     */
+    synchronized boolean append(long time, byte[] address, UUID characteristic, byte[] value) {
+
+        int length = RECORD_HEADER_LENGTH + value.length;
+
+        if (HEADER_LENGTH + length > segmentSize) {
+            return false;
+        }
+
+        try {
+
+            if (current == null) {
+                openLastSegment();
+            }
+
+            if (current.remaining() < length) {
+                startSegment(currentSegment + 1);
+            }
+
+        } catch (IOException e) {
+            current = null;
+            return false;
+        }
+
+        current.putInt(length);
+        current.putLong(time);
+        current.put(address, 0, ADDRESS_LENGTH);
+        current.putLong(characteristic.getMostSignificantBits());
+        current.putLong(characteristic.getLeastSignificantBits());
+        current.put(value);
+
+        return true;
+    }
+
+    /**
+     * Reads the records within the given time range, the records of a segment are read in the order they were recorded.
+     *
+     * @param address        only records of this peripheral, null for all
+     * @param characteristic only records of this characteristic, null for all
+     * @param limit          maximal number of records returned
+     * @param from           position to continue a previous read from, null to start with the oldest segment
+     * @return null if the cursor does not point to a record
+     */
+    synchronized Result read(long start, long end, String address, UUID characteristic, int limit, Cursor from) {
+
+        List<Record> records = new ArrayList<>();
+        long[] segments = listSegments();
+
+        for (int i = 0; i < segments.length; i++) {
+
+            long segment = segments[i];
+
+            if (from != null && segment < from.segment) {
+                continue;
+            }
+
+            // segments are written one after another, so a segment followed by one starting before the range only holds older records
+            if (i + 1 < segments.length && getFirstTime(segments[i + 1]) < start) {
+                continue;
+            }
+
+            ByteBuffer buffer = getMapping(segment);
+
+            if (buffer == null || !hasHeader(buffer)) {
+                continue;
+            }
+
+            if (from != null && segment == from.segment) {
+
+                if (!isRecordStart(buffer, from.offset)) {
+                    return null;
+                }
+
+                buffer.position(from.offset);
+            }
+
+            if (buffer.remaining() >= RECORD_HEADER_LENGTH && peekTime(buffer) > end) {
+                break;
+            }
+
+            while (buffer.remaining() >= RECORD_HEADER_LENGTH) {
+
+                int position = buffer.position();
+                int length = buffer.getInt();
+
+                if (length < RECORD_HEADER_LENGTH || length - 4 > buffer.remaining()) {
+                    break;
+                }
+
+                if (records.size() == limit) {
+                    return new Result(records, new Cursor(segment, position));
+                }
+
+                long time = buffer.getLong();
+                byte[] addressBytes = new byte[ADDRESS_LENGTH];
+                buffer.get(addressBytes);
+                UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+                byte[] value = new byte[length - RECORD_HEADER_LENGTH];
+                buffer.get(value);
+
+                String recordAddress = toAddress(addressBytes);
+
+                if (time < start || time > end || (address != null && !address.equalsIgnoreCase(recordAddress)) || (characteristic != null && !characteristic.equals(uuid))) {
+                    continue;
+                }
+
+                records.add(new Record(time, recordAddress, uuid, value));
+            }
+        }
+
+        return new Result(records, null);
+    }
+
+    /**
+     * Deletes all segments, recording continues with a new one.
+     */
+    synchronized void clear() {
+
+        current = null;
+        mapped.clear();
+
+        for (long segment : listSegments()) {
+            getFile(segment).delete();
+        }
+    }
+
+    /**
+     * Writes the current segment to storage and releases the mappings, the next append continues the newest segment.
+     */
+    synchronized void close() {
+
+        if (current != null) {
+            current.force();
+            current = null;
+        }
+
+        mapped.clear();
+    }
+
+    /**
+     * Continues the newest segment after its last record, or starts the first one.
+     */
+    private void openLastSegment() throws IOException {
+
+        long[] segments = listSegments();
+
+        // numbering continues after clear, so cursors into deleted segments do not point into new ones
+        if (segments.length == 0) {
+            startSegment(currentSegment + 1);
+            return;
+        }
+
+        long segment = segments[segments.length - 1];
+        MappedByteBuffer buffer = map(segment, FileChannel.MapMode.READ_WRITE);
+
+        if (!hasHeader(buffer)) {
+            startSegment(segment + 1);
+            return;
+        }
+
+        buffer.position(HEADER_LENGTH);
+
+        while (buffer.remaining() >= 4) {
+
+            int length = buffer.getInt(buffer.position());
+
+            if (length < RECORD_HEADER_LENGTH || length > buffer.remaining()) {
+                break;
+            }
+
+            buffer.position(buffer.position() + length);
+        }
+
+        current = buffer;
+        currentSegment = segment;
+    }
+
+    private void startSegment(long segment) throws IOException {
+
+        if (current != null) {
+            current.force();
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+
+        MappedByteBuffer buffer = map(segment, FileChannel.MapMode.READ_WRITE);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+
+        current = buffer;
+        currentSegment = segment;
+
+        long[] segments = listSegments();
+
+        for (int i = 0; i < segments.length - maxSegments; i++) {
+            mapped.remove(segments[i]);
+            getFile(segments[i]).delete();
+        }
+    }
+
+    /**
+     * @return the read-only mapping of the segment, null if it cannot be mapped
+     */
+    private ByteBuffer getMapping(long segment) {
+
+        ByteBuffer buffer = mapped.get(segment);
+
+        if (buffer == null) {
+
+            try {
+                buffer = map(segment, FileChannel.MapMode.READ_ONLY);
+            } catch (IOException e) {
+                return null;
+            }
+
+            mapped.put(segment, buffer);
+
+            if (mapped.size() > MAX_MAPPED_SEGMENTS) {
+                mapped.remove(mapped.keySet().iterator().next());
+            }
+        }
+
+        return buffer;
+    }
+
+    /**
+     * @return true if a record starts at the offset or the offset is the end of the segment's records
+     */
+    private static boolean isRecordStart(ByteBuffer buffer, int offset) {
+
+        int position = HEADER_LENGTH;
+
+        while (position < offset && position + 4 <= buffer.limit()) {
+
+            int length = buffer.getInt(position);
+
+            if (length < RECORD_HEADER_LENGTH || length > buffer.limit() - position) {
+                return false;
+            }
+
+            position += length;
+        }
+
+        return position == offset;
+    }
+
+    private MappedByteBuffer map(long segment, FileChannel.MapMode mode) throws IOException {
+
+        File file = getFile(segment);
+
+        // the mapping stays valid after the file is closed
+        try (RandomAccessFile access = new RandomAccessFile(file, mode == FileChannel.MapMode.READ_ONLY ? "r" : "rw")) {
+            return access.getChannel().map(mode, 0, mode == FileChannel.MapMode.READ_ONLY ? access.length() : segmentSize);
+        }
+    }
+
+    /**
+     * @return time of the first record of the segment, Long.MAX_VALUE if it has none
+     */
+    private long getFirstTime(long segment) {
+
+        ByteBuffer buffer = getMapping(segment);
+
+        if (buffer == null || !hasHeader(buffer) || buffer.remaining() < RECORD_HEADER_LENGTH || buffer.getInt(HEADER_LENGTH) == 0) {
+            return Long.MAX_VALUE;
+        }
+
+        return buffer.getLong(HEADER_LENGTH + 4);
+    }
+
+    private static long peekTime(ByteBuffer buffer) {
+        return buffer.getInt(buffer.position()) == 0 ? Long.MAX_VALUE : buffer.getLong(buffer.position() + 4);
+    }
+
+    private static boolean hasHeader(ByteBuffer buffer) {
+
+        if (buffer.limit() < HEADER_LENGTH || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return false;
+        }
+
+        buffer.position(HEADER_LENGTH);
+        return true;
+    }
+
+    /**
+     * @return segment numbers in ascending order
+     */
+    private long[] listSegments() {
+
+        File[] files = directory.listFiles();
+
+        if (files == null) {
+            return new long[0];
+        }
+
+        long[] segments = new long[files.length];
+        int count = 0;
+
+        for (File file : files) {
+
+            String name = file.getName();
+
+            if (!name.endsWith(FILE_EXTENSION)) {
+                continue;
+            }
+
+            long segment;
+
+            try {
+                segment = Long.parseLong(name.substring(0, name.length() - FILE_EXTENSION.length()));
+            } catch (NumberFormatException e) {
+                // not a segment
+                continue;
+            }
+
+            segments[count++] = segment;
+        }
+
+        segments = Arrays.copyOf(segments, count);
+        Arrays.sort(segments);
+
+        return segments;
+    }
+
+    private File getFile(long segment) {
+        return new File(directory, String.format(Locale.US, "%020d", segment) + FILE_EXTENSION);
+    }
+
+    static byte[] toAddressBytes(String address) {
+
+        byte[] bytes = new byte[ADDRESS_LENGTH];
+        String[] parts = address.split(":");
+
+        for (int i = 0; i < ADDRESS_LENGTH && i < parts.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(parts[i], 16);
+        }
+
+        return bytes;
+    }
+
+    static String toAddress(byte[] bytes) {
+
+        StringBuilder address = new StringBuilder(ADDRESS_LENGTH * 3 - 1);
+
+        for (int i = 0; i < bytes.length; i++) {
+
+            if (i > 0) {
+                address.append(':');
+            }
+
+            address.append(String.format(Locale.US, "%02X", bytes[i] & 0xff));
+        }
+
+        return address.toString();
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.bleclient.plugin;
+
+import java.util.Random;
+
+/**
+ * Exponential backoff with jitter for reconnecting to a peripheral which was lost unexpectedly.
+ * <p>
+ * The delay doubles with every attempt up to a maximum. A random part of the delay is dropped,
+ * so several peripherals lost at the same time, e.g. when leaving their range, are not
+ * reconnected in lockstep.
+ */
+class ReconnectPolicy {
+
+    static final double JITTER = 0.5;
+
+    final long initialDelay;
+    final long maxDelay;
+    final int maxAttempts;
+
+    private final Random random;
+
+    private int attempts;
+    private long disconnectedAt = -1;
+
+    /**
+     * @param maxAttempts number of attempts before giving up, 0 to retry until the peripheral is reconnected
+     */
+    ReconnectPolicy(long initialDelay, long maxDelay, int maxAttempts, Random random) {
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.maxAttempts = maxAttempts;
+        this.random = random;
+    }
+
+    /**
+     * Counts an attempt.
+     *
+     * @return time in ms to wait before the attempt or -1 if all attempts are used up
+     */
+    synchronized long nextDelay() {
+
+        if (maxAttempts > 0 && attempts >= maxAttempts) {
+            return -1;
+        }
+
+        long delay = initialDelay;
+
+        for (int i = 0; i < attempts && delay < maxDelay; i++) {
+            delay *= 2;
+        }
+
+        delay = Math.min(delay, maxDelay);
+        attempts++;
+
+        return delay - (long) (delay * JITTER * random.nextDouble());
+    }
+
+    synchronized int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Remembers when the connection was lost, later calls keep the time of the first one.
+     */
+    synchronized void onDisconnected(long time) {
+
+        if (disconnectedAt < 0) {
+            disconnectedAt = time;
+        }
+    }
+
+    synchronized boolean isReconnecting() {
+        return disconnectedAt >= 0;
+    }
+
+    /**
+     * Resets the policy once the peripheral is connected again.
+     *
+     * @return time in ms the peripheral was disconnected
+     */
+    synchronized long onReconnected(long time) {
+
+        long downtime = disconnectedAt < 0 ? 0 : time - disconnectedAt;
+
+        attempts = 0;
+        disconnectedAt = -1;
+
+        return downtime;
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.bleclient.plugin;
+
+import android.bluetooth.BluetoothGatt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Queues the steps of a reliable write transaction, the prepared writes followed by their execution.
+ * <p>
+ * The peripheral echoes each prepared value, which is compared with the value sent. The queue
+ * handles a step's callback before it issues the next step, so once a write failed or its echo
+ * did not match, the transaction is aborted, the remaining steps are skipped and none of the
+ * values is applied. A step which fails for any other reason, e.g. it timed out or the queue
+ * was cleared, aborts the transaction as well, so the client does not stay in reliable write
+ * mode and turn later writes into prepared ones.
+ */
+class ReliableWrite {
+
+    interface Transaction {
+        boolean begin(BluetoothGatt gatt);
+
+        /**
+         * Issues the prepared write of the value at the given index, returns false if the request could not be issued.
+         */
+        boolean write(BluetoothGatt gatt, int index, byte[] value);
+
+        boolean execute(BluetoothGatt gatt);
+
+        void abort(BluetoothGatt gatt);
+    }
+
+    interface Listener {
+        void onComplete(int writes);
+
+        void onError(String message);
+    }
+
+    private final GattOperationQueue queue;
+    private final List<byte[]> values;
+    private final long timeout;
+    private final Transaction transaction;
+    private final Listener listener;
+
+    // set by the first failing step, the remaining steps are skipped
+    private final AtomicBoolean failed = new AtomicBoolean(false);
+
+    // set once the transaction began, until then there is nothing to abort
+    private volatile boolean began;
+    private volatile BluetoothGatt gatt;
+
+    ReliableWrite(GattOperationQueue queue, List<byte[]> values, long timeout, Transaction transaction, Listener listener) {
+        this.queue = queue;
+        this.values = values;
+        this.timeout = timeout;
+        this.transaction = transaction;
+        this.listener = listener;
+    }
+
+    /**
+     * Queues all steps at once, since the client turns any write issued while the transaction is open into a prepared one.
+     */
+    void start() {
+
+        List<GattOperation> operations = new ArrayList<>(values.size() + 1);
+
+        for (int index = 0; index < values.size(); index++) {
+            operations.add(createWriteOperation(index));
+        }
+
+        GattOperation.Action execute = (BluetoothGatt gatt) -> !failed.get() && transaction.execute(gatt);
+
+        GattOperation.Callback callback = new GattOperation.Callback() {
+            @Override
+            public void onSuccess(byte[] value) {
+
+                if (!failed.get()) {
+                    listener.onComplete(values.size());
+                }
+            }
+
+            @Override
+            public void onError(String message) {
+                fail(message);
+            }
+        };
+
+        operations.add(new GattOperation(GattOperation.TYPE_EXECUTE_RELIABLE_WRITE, execute, callback, BluetoothLEClient.keyErrorReliableWriteExecute, timeout));
+
+        queue.enqueueAll(operations);
+    }
+
+    private GattOperation createWriteOperation(int index) {
+
+        byte[] toWrite = values.get(index);
+
+        GattOperation.Action action = (BluetoothGatt gatt) -> {
+
+            if (failed.get()) {
+                return false;
+            }
+
+            if (index == 0) {
+
+                if (!transaction.begin(gatt)) {
+                    fail(BluetoothLEClient.keyErrorReliableWriteBegin);
+                    return false;
+                }
+
+                this.gatt = gatt;
+                began = true;
+            }
+
+            return transaction.write(gatt, index, toWrite);
+        };
+
+        // the peripheral echoes each prepared value, which has to match the value sent
+        GattOperation.Callback callback = new GattOperation.Callback() {
+            @Override
+            public void onSuccess(byte[] value) {
+                if (!Arrays.equals(toWrite, value)) {
+                    fail(BluetoothLEClient.keyErrorReliableWriteVerify);
+                }
+            }
+
+            @Override
+            public void onError(String message) {
+                fail(message);
+            }
+        };
+
+        return new GattOperation(GattOperation.TYPE_WRITE, action, callback, BluetoothLEClient.keyErrorValueWrite, timeout);
+    }
+
+    /**
+     * Aborts the transaction if it began, a successful execution reports no error which could get here.
+     */
+    private void fail(String message) {
+
+        if (!failed.compareAndSet(false, true)) {
+            return;
+        }
+
+        if (began) {
+            transaction.abort(gatt);
+        }
+
+        listener.onError(message);
+    }
+
+}
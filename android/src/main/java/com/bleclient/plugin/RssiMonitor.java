@@ -0,0 +1,158 @@
+package com.bleclient.plugin;
+
+/**
+ * Rolling window of RSSI samples of a connection and the link quality derived from it.
+ * <p>
+ * Samples are aggregated natively, listeners only receive the mean, variance and trend of the
+ * window every report interval instead of each sample.
+ */
+class RssiMonitor {
+
+    final long interval;
+    final int windowSize;
+    final long reportInterval;
+
+    private final int[] samples;
+    private final long[] times;
+
+    private int next;
+    private int count;
+    private long lastReport = -1;
+    private boolean sampling;
+
+    RssiMonitor(long interval, int windowSize, long reportInterval) {
+        this.interval = interval;
+        this.windowSize = windowSize;
+        this.reportInterval = reportInterval;
+        this.samples = new int[windowSize];
+        this.times = new long[windowSize];
+    }
+
+    /**
+     * Marks a sample as requested.
+     *
+     * @return false if the previous sample is still pending, so a slow link is not flooded with requests
+     */
+    synchronized boolean startSample() {
+
+        if (sampling) {
+            return false;
+        }
+
+        sampling = true;
+        return true;
+    }
+
+    synchronized void finishSample() {
+        sampling = false;
+    }
+
+    /**
+     * Adds a sample, replacing the oldest one once the window is full.
+     *
+     * @param time of the sample in ms
+     */
+    synchronized void add(int rssi, long time) {
+
+        samples[next] = rssi;
+        times[next] = time;
+        next = (next + 1) % windowSize;
+
+        if (count < windowSize) {
+            count++;
+        }
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    synchronized int getLatest() {
+        return samples[(next + windowSize - 1) % windowSize];
+    }
+
+    synchronized double getMean() {
+
+        if (count == 0) {
+            return 0;
+        }
+
+        long sum = 0;
+
+        for (int i = 0; i < count; i++) {
+            sum += samples[i];
+        }
+
+        return (double) sum / count;
+    }
+
+    synchronized double getVariance() {
+
+        if (count == 0) {
+            return 0;
+        }
+
+        double mean = getMean();
+        double sum = 0;
+
+        for (int i = 0; i < count; i++) {
+            double deviation = samples[i] - mean;
+            sum += deviation * deviation;
+        }
+
+        return sum / count;
+    }
+
+    /**
+     * @return the least squares slope of the samples in dB per second, negative if the link is degrading
+     */
+    synchronized double getTrend() {
+
+        if (count < 2) {
+            return 0;
+        }
+
+        // times relative to the first sample keep the sums small
+        long origin = times[0];
+        double meanTime = 0;
+
+        for (int i = 0; i < count; i++) {
+            meanTime += times[i] - origin;
+        }
+
+        meanTime /= count;
+
+        double mean = getMean();
+        double covariance = 0;
+        double timeVariance = 0;
+
+        for (int i = 0; i < count; i++) {
+            double time = times[i] - origin - meanTime;
+            covariance += time * (samples[i] - mean);
+            timeVariance += time * time;
+        }
+
+        if (timeVariance == 0) {
+            return 0;
+        }
+
+        return covariance / timeVariance * 1000;
+    }
+
+    /**
+     * The first report is due once the window is full, all further ones after the report interval.
+     *
+     * @return true if a report is due at the given time, the report is considered delivered then
+     */
+    synchronized boolean shouldReport(long time) {
+
+        boolean due = lastReport < 0 ? count >= windowSize : time - lastReport >= reportInterval;
+
+        if (due) {
+            lastReport = time;
+        }
+
+        return due;
+    }
+
+}
@@ -0,0 +1,277 @@
+package com.bleclient.plugin;
+
+import android.bluetooth.BluetoothDevice;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * Latest advertisement per device seen during a scan.
+ * <p>
+ * Repeated advertisements of a device update its entry in place: the raw advertisement is copied
+ * into the entry's buffer and manufacturer and service data are recorded as offsets into it,
+ * so a long running scan does not allocate per advertisement. Entries of devices which were not
+ * seen for longer than the TTL are removed.
+ */
+class ScanResultCache {
+
+    static final int NO_TX_POWER = Integer.MIN_VALUE;
+
+    static final int TYPE_TX_POWER_LEVEL = 0x0A;
+    static final int TYPE_SERVICE_DATA_16_BIT = 0x16;
+    static final int TYPE_SERVICE_DATA_32_BIT = 0x20;
+    static final int TYPE_SERVICE_DATA_128_BIT = 0x21;
+    static final int TYPE_MANUFACTURER_SPECIFIC_DATA = 0xFF;
+
+    /**
+     * Legacy advertisement and scan response, 31 bytes each.
+     */
+    static final int defaultRecordCapacity = 62;
+    static final int maxDataFields = 8;
+    static final long evictionInterval = 1000;
+
+    final long ttl;
+    final double rssiSmoothing;
+
+    private final HashMap<String, Entry> entries = new HashMap<>();
+    private long lastEviction;
+
+    /**
+     * @param ttl           time in ms after which a device that was not seen again is removed
+     * @param rssiSmoothing weight of a new RSSI sample in the exponentially weighted moving average, 1 disables smoothing
+     */
+    ScanResultCache(long ttl, double rssiSmoothing) {
+        this.ttl = ttl;
+        this.rssiSmoothing = rssiSmoothing;
+    }
+
+    /**
+     * Records an advertisement, removing expired entries at most once per {@link #evictionInterval}.
+     *
+     * @return true if the device was not in the cache before
+     */
+    synchronized boolean update(String address, BluetoothDevice device, int rssi, byte[] record, long timestamp) {
+
+        if (timestamp - lastEviction >= evictionInterval) {
+            evict(timestamp);
+            lastEviction = timestamp;
+        }
+
+        Entry entry = entries.get(address);
+        boolean isNew = entry == null;
+
+        if (isNew) {
+            entry = new Entry(address);
+            entries.put(address, entry);
+        }
+
+        entry.update(device, rssi, record, timestamp, rssiSmoothing);
+
+        return isNew;
+    }
+
+    synchronized Entry get(String address) {
+        return entries.get(address);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized void evict(long now) {
+
+        Iterator<Entry> iterator = entries.values().iterator();
+
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(now, ttl)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Entries are updated in place, so callers reading them concurrently to a scan should hold the cache's lock.
+     *
+     * @return the entries which did not expire yet
+     */
+    synchronized ArrayList<Entry> getEntries(long now) {
+
+        ArrayList<Entry> result = new ArrayList<>(entries.size());
+
+        for (Entry entry : entries.values()) {
+            if (!entry.isExpired(now, ttl)) {
+                result.add(entry);
+            }
+        }
+
+        return result;
+    }
+
+    static class Entry {
+
+        final String address;
+
+        private boolean seen;
+        BluetoothDevice device;
+        double rssi;
+        int lastRssi;
+        int txPower = NO_TX_POWER;
+        long firstSeen;
+        long lastSeen;
+
+        byte[] record = new byte[defaultRecordCapacity];
+        int recordLength;
+
+        int manufacturerDataCount;
+        final int[] manufacturerDataOffsets = new int[maxDataFields];
+        final int[] manufacturerDataLengths = new int[maxDataFields];
+
+        int serviceDataCount;
+        final int[] serviceDataOffsets = new int[maxDataFields];
+        final int[] serviceDataLengths = new int[maxDataFields];
+        final int[] serviceDataUuidLengths = new int[maxDataFields];
+
+        Entry(String address) {
+            this.address = address;
+        }
+
+        void update(BluetoothDevice device, int rssi, byte[] record, long timestamp, double rssiSmoothing) {
+
+            if (!seen) {
+                this.seen = true;
+                this.firstSeen = timestamp;
+                this.rssi = rssi;
+            } else {
+                this.rssi += rssiSmoothing * (rssi - this.rssi);
+            }
+
+            this.device = device;
+            this.lastRssi = rssi;
+            this.lastSeen = timestamp;
+
+            setRecord(record);
+        }
+
+        boolean isExpired(long now, long ttl) {
+            return now - lastSeen > ttl;
+        }
+
+        /**
+         * @return the company identifier of the i-th manufacturer specific data field
+         */
+        int getManufacturerId(int i) {
+            int offset = manufacturerDataOffsets[i];
+            return (record[offset] & 0xFF) | ((record[offset + 1] & 0xFF) << 8);
+        }
+
+        byte[] getManufacturerData(int i) {
+            int offset = manufacturerDataOffsets[i];
+            return Arrays.copyOfRange(record, offset + 2, offset + manufacturerDataLengths[i]);
+        }
+
+        UUID getServiceDataUuid(int i) {
+
+            int offset = serviceDataOffsets[i];
+            ByteBuffer buffer = ByteBuffer.wrap(record, offset, serviceDataUuidLengths[i]).order(ByteOrder.LITTLE_ENDIAN);
+
+            switch (serviceDataUuidLengths[i]) {
+                case 2:
+                    return BluetoothUUIDs.from32Bit(buffer.getShort() & 0xFFFF);
+                case 4:
+                    return BluetoothUUIDs.from32Bit(buffer.getInt() & 0xFFFFFFFFL);
+                default:
+                    long leastSignificantBits = buffer.getLong();
+                    long mostSignificantBits = buffer.getLong();
+                    return BluetoothUUIDs.intern(new UUID(mostSignificantBits, leastSignificantBits));
+            }
+        }
+
+        byte[] getServiceData(int i) {
+            int offset = serviceDataOffsets[i];
+            return Arrays.copyOfRange(record, offset + serviceDataUuidLengths[i], offset + serviceDataLengths[i]);
+        }
+
+        byte[] getRecord() {
+            return Arrays.copyOf(record, recordLength);
+        }
+
+        private void setRecord(byte[] value) {
+
+            manufacturerDataCount = 0;
+            serviceDataCount = 0;
+            txPower = NO_TX_POWER;
+
+            if (value == null) {
+                recordLength = 0;
+                return;
+            }
+
+            if (value.length > record.length) {
+                record = new byte[value.length];
+            }
+
+            System.arraycopy(value, 0, record, 0, value.length);
+            recordLength = value.length;
+
+            int position = 0;
+
+            while (position < recordLength) {
+
+                int length = record[position] & 0xFF;
+
+                // a zero length marks the end of the significant part
+                if (length == 0 || position + length >= recordLength) {
+                    break;
+                }
+
+                int type = record[position + 1] & 0xFF;
+                int dataOffset = position + 2;
+                int dataLength = length - 1;
+
+                switch (type) {
+                    case TYPE_TX_POWER_LEVEL:
+                        if (dataLength >= 1) {
+                            txPower = record[dataOffset];
+                        }
+                        break;
+                    case TYPE_MANUFACTURER_SPECIFIC_DATA:
+                        if (dataLength >= 2 && manufacturerDataCount < maxDataFields) {
+                            manufacturerDataOffsets[manufacturerDataCount] = dataOffset;
+                            manufacturerDataLengths[manufacturerDataCount] = dataLength;
+                            manufacturerDataCount++;
+                        }
+                        break;
+                    case TYPE_SERVICE_DATA_16_BIT:
+                        addServiceData(dataOffset, dataLength, 2);
+                        break;
+                    case TYPE_SERVICE_DATA_32_BIT:
+                        addServiceData(dataOffset, dataLength, 4);
+                        break;
+                    case TYPE_SERVICE_DATA_128_BIT:
+                        addServiceData(dataOffset, dataLength, 16);
+                        break;
+                }
+
+                position += length + 1;
+            }
+        }
+
+        private void addServiceData(int offset, int length, int uuidLength) {
+
+            if (length < uuidLength || serviceDataCount >= maxDataFields) {
+                return;
+            }
+
+            serviceDataOffsets[serviceDataCount] = offset;
+            serviceDataLengths[serviceDataCount] = length;
+            serviceDataUuidLengths[serviceDataCount] = uuidLength;
+            serviceDataCount++;
+        }
+    }
+
+}
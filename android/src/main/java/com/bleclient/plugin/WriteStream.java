@@ -0,0 +1,200 @@
+package com.bleclient.plugin;
+
+import android.bluetooth.BluetoothGatt;
+
+import java.util.Arrays;
+
+/**
+ * Writes a large value as a sequence of chunks with credit based flow control.
+ * <p>
+ * Each credit allows one chunk to be queued ahead of the chunk in flight, so the next chunk is
+ * issued from the write callback of its predecessor without any round trip to JavaScript, while
+ * the number of chunks held in memory stays bounded. A credit is returned with every completed
+ * write, which for writes without response happens once the stack accepted the packet.
+ */
+class WriteStream {
+
+    interface Writer {
+        /**
+         * Issues the write of a single chunk, returns false if the request could not be issued.
+         */
+        boolean write(BluetoothGatt gatt, byte[] chunk);
+    }
+
+    interface Listener {
+        void onComplete(WriteStream stream);
+
+        void onError(String message);
+    }
+
+    final int chunkSize;
+    final int credits;
+
+    /**
+     * MTU negotiated for the connection, a write without response longer than the MTU minus the ATT header is truncated by the stack.
+     */
+    final int mtu;
+
+    /**
+     * Time in ms each chunk may be in flight before the stream fails, 0 to wait forever.
+     */
+    final long timeout;
+
+    private final GattOperationQueue queue;
+    private final byte[] value;
+    private final Writer writer;
+    private final Listener listener;
+
+    private int offset;
+    private int inFlight;
+    private int bytesWritten;
+    private int chunks;
+    private boolean finished;
+    private long startTime;
+    private long endTime;
+
+    WriteStream(GattOperationQueue queue, byte[] value, int chunkSize, int credits, int mtu, long timeout, Writer writer, Listener listener) {
+        this.queue = queue;
+        this.value = value;
+        this.chunkSize = chunkSize;
+        this.credits = credits;
+        this.mtu = mtu;
+        this.timeout = timeout;
+        this.writer = writer;
+        this.listener = listener;
+    }
+
+    /**
+     * Fails without writing anything if a chunk does not fit into a single packet, the peripheral would receive less than reported otherwise.
+     */
+    void start() {
+
+        if (chunkSize > getMaxChunkSize(mtu)) {
+            listener.onError(BluetoothLEClient.keyErrorChunkSizeInvalid);
+            return;
+        }
+
+        synchronized (this) {
+            startTime = System.nanoTime();
+        }
+
+        fill();
+    }
+
+    static int getMaxChunkSize(int mtu) {
+        return mtu - BluetoothLEClient.attHeaderLength;
+    }
+
+    synchronized int getBytesWritten() {
+        return bytesWritten;
+    }
+
+    synchronized int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return time in ms from the start until the last chunk was written
+     */
+    synchronized long getDuration() {
+        return (endTime - startTime) / 1000000;
+    }
+
+    /**
+     * @return bytes written per second
+     */
+    synchronized double getThroughput() {
+
+        long nanos = endTime - startTime;
+
+        if (nanos <= 0) {
+            return 0;
+        }
+
+        return bytesWritten * 1e9 / nanos;
+    }
+
+    /**
+     * Queues chunks until all credits are used or the value is exhausted.
+     */
+    private void fill() {
+
+        while (true) {
+
+            byte[] chunk;
+
+            synchronized (this) {
+
+                if (finished || inFlight >= credits || (offset >= value.length && chunks + inFlight > 0)) {
+                    return;
+                }
+
+                int end = Math.min(value.length, offset + chunkSize);
+                chunk = Arrays.copyOfRange(value, offset, end);
+                offset = end;
+                inFlight++;
+            }
+
+            queue.enqueue(createOperation(chunk));
+        }
+    }
+
+    private GattOperation createOperation(byte[] chunk) {
+
+        GattOperation.Action action = (BluetoothGatt gatt) -> !isFinished() && writer.write(gatt, chunk);
+
+        GattOperation.Callback callback = new GattOperation.Callback() {
+            @Override
+            public void onSuccess(byte[] written) {
+
+                boolean complete;
+
+                synchronized (WriteStream.this) {
+
+                    if (finished) {
+                        return;
+                    }
+
+                    inFlight--;
+                    chunks++;
+                    bytesWritten += chunk.length;
+                    complete = offset >= value.length && inFlight == 0;
+
+                    if (complete) {
+                        finished = true;
+                        endTime = System.nanoTime();
+                    }
+                }
+
+                if (complete) {
+                    listener.onComplete(WriteStream.this);
+                } else {
+                    fill();
+                }
+            }
+
+            @Override
+            public void onError(String message) {
+
+                synchronized (WriteStream.this) {
+
+                    if (finished) {
+                        return;
+                    }
+
+                    finished = true;
+                    endTime = System.nanoTime();
+                }
+
+                listener.onError(message);
+            }
+        };
+
+        return new GattOperation(GattOperation.TYPE_WRITE, action, callback, BluetoothLEClient.keyErrorValueWrite, timeout);
+    }
+
+    private synchronized boolean isFinished() {
+        return finished;
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.bleclient.plugin.decoders;
+
+import java.util.LinkedHashMap;
+
+import static com.bleclient.plugin.decoders.DecoderUtils.getSFloat;
+import static com.bleclient.plugin.decoders.DecoderUtils.getTimestamp;
+import static com.bleclient.plugin.decoders.DecoderUtils.getUint16;
+import static com.bleclient.plugin.decoders.DecoderUtils.getUint8;
+import static com.bleclient.plugin.decoders.DecoderUtils.isSet;
+
+class BloodPressureMeasurementDecoder implements CharacteristicDecoder {
+
+    @Override
+    public Object decode(byte[] value) {
+
+        int flags = getUint8(value, 0);
+
+        LinkedHashMap<String, Object> measurement = new LinkedHashMap<>();
+        measurement.put("unit", isSet(flags, 0x1) ? "kPa" : "mmHg");
+
+        int index = 1;
+
+        LinkedHashMap<String, Object> compoundValue = new LinkedHashMap<>();
+        compoundValue.put("systolic", getSFloat(value, index));
+        compoundValue.put("diastolic", getSFloat(value, index + 2));
+        compoundValue.put("meanArterialPressure", getSFloat(value, index + 4));
+        measurement.put("compoundValue", compoundValue);
+
+        index += 6;
+
+        if (isSet(flags, 0x2)) {
+            measurement.put("timestamp", getTimestamp(value, index));
+            index += 7;
+        }
+
+        if (isSet(flags, 0x4)) {
+            measurement.put("pulse", getSFloat(value, index));
+            index += 2;
+        }
+
+        if (isSet(flags, 0x8)) {
+            measurement.put("userId", getUint8(value, index));
+            index += 1;
+        }
+
+        if (isSet(flags, 0x10)) {
+
+            int measurementStatus = getUint16(value, index);
+
+            LinkedHashMap<String, Object> status = new LinkedHashMap<>();
+            status.put("bodyMovement", isSet(measurementStatus, 0x1));
+            status.put("cuffTooLose", isSet(measurementStatus, 0x2));
+            status.put("irregularPulse", isSet(measurementStatus, 0x4));
+            status.put("pulseRateRange", (measurementStatus >> 3) & 0x3);
+            status.put("improperPosition", isSet(measurementStatus, 0x20));
+
+            measurement.put("status", status);
+        }
+
+        return measurement;
+    }
+
+}
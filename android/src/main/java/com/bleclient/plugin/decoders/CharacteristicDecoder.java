@@ -0,0 +1,13 @@
+package com.bleclient.plugin.decoders;
+
+/**
+ * Decodes the raw value of a standard GATT-Characteristic into a measurement.
+ */
+public interface CharacteristicDecoder {
+
+    /**
+     * @return a {@link java.util.Map} of measurement properties or a {@link Number} for single value characteristics
+     */
+    Object decode(byte[] value);
+
+}
@@ -0,0 +1,51 @@
+package com.bleclient.plugin.decoders;
+
+import java.util.HashMap;
+
+/**
+ * Registry of native decoders, keyed by the 16 bit UUID of the GATT-Characteristic.
+ * Mirrors the TypeScript transformers in src/utils/transformers.
+ */
+public final class CharacteristicDecoders {
+
+    static final int BATTERY_LEVEL = 0x2A19;
+    static final int BODY_SENSOR_LOCATION = 0x2A38;
+    static final int HEART_RATE_MEASUREMENT = 0x2A37;
+    static final int BLOOD_PRESSURE_MEASUREMENT = 0x2A35;
+    static final int GLUCOSE_MEASUREMENT = 0x2A18;
+    static final int PLX_SPOT_CHECK_MEASUREMENT = 0x2A5E;
+    static final int PLX_CONTINUOUS_MEASUREMENT = 0x2A5F;
+    static final int TEMPERATURE_MEASUREMENT = 0x2A1C;
+    static final int TEMPERATURE_TYPE = 0x2A1D;
+    static final int INTERMEDIATE_TEMPERATURE = 0x2A1E;
+    static final int WEIGHT_MEASUREMENT = 0x2A9D;
+
+    private static final HashMap<Integer, CharacteristicDecoder> decoders = new HashMap<>();
+
+    static {
+        CharacteristicDecoder singleByte = (byte[] value) -> DecoderUtils.getUint8(value, 0);
+
+        decoders.put(BATTERY_LEVEL, singleByte);
+        decoders.put(BODY_SENSOR_LOCATION, singleByte);
+        decoders.put(TEMPERATURE_TYPE, singleByte);
+        decoders.put(HEART_RATE_MEASUREMENT, new HeartRateMeasurementDecoder());
+        decoders.put(BLOOD_PRESSURE_MEASUREMENT, new BloodPressureMeasurementDecoder());
+        decoders.put(GLUCOSE_MEASUREMENT, new GlucoseMeasurementDecoder());
+        decoders.put(PLX_SPOT_CHECK_MEASUREMENT, new PLXSpotCheckMeasurementDecoder());
+        decoders.put(PLX_CONTINUOUS_MEASUREMENT, new PLXContinuousMeasurementDecoder());
+        decoders.put(TEMPERATURE_MEASUREMENT, new TemperatureMeasurementDecoder());
+        decoders.put(INTERMEDIATE_TEMPERATURE, new TemperatureMeasurementDecoder());
+        decoders.put(WEIGHT_MEASUREMENT, new WeightMeasurementDecoder());
+    }
+
+    private CharacteristicDecoders() {
+    }
+
+    /**
+     * @return the decoder for the given characteristic or null if there is none
+     */
+    public static CharacteristicDecoder get(int characteristic16BitUuid) {
+        return decoders.get(characteristic16BitUuid);
+    }
+
+}
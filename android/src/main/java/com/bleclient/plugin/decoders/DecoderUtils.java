@@ -0,0 +1,96 @@
+package com.bleclient.plugin.decoders;
+
+import java.util.Locale;
+
+/**
+ * Little endian accessors and IEEE-11073 float conversions shared by the decoders.
+ */
+final class DecoderUtils {
+
+    private DecoderUtils() {
+    }
+
+    static int getUint8(byte[] value, int offset) {
+        return value[offset] & 0xFF;
+    }
+
+    static int getUint16(byte[] value, int offset) {
+        return (value[offset] & 0xFF) | ((value[offset + 1] & 0xFF) << 8);
+    }
+
+    static int getInt16(byte[] value, int offset) {
+        return (short) getUint16(value, offset);
+    }
+
+    static int getUint24(byte[] value, int offset) {
+        return getUint16(value, offset) | (getUint8(value, offset + 2) << 16);
+    }
+
+    /**
+     * IEEE-11073 16 bit SFLOAT, special values are mapped to NaN and infinity.
+     */
+    static double getSFloat(byte[] value, int offset) {
+
+        int raw = getUint16(value, offset);
+
+        switch (raw) {
+            case 0x07FF:
+            case 0x0800:
+            case 0x0801:
+                return Double.NaN;
+            case 0x07FE:
+                return Double.POSITIVE_INFINITY;
+            case 0x0802:
+                return Double.NEGATIVE_INFINITY;
+        }
+
+        int mantissa = unsignedToSigned(raw & 0xFFF, 12);
+        int exponent = unsignedToSigned((raw >> 12) & 0xF, 4);
+
+        return mantissa * Math.pow(10, exponent);
+    }
+
+    /**
+     * IEEE-11073 32 bit FLOAT.
+     */
+    static double getFloat32(byte[] value, int offset) {
+
+        int mantissa = unsignedToSigned(getUint24(value, offset), 24);
+        int exponent = value[offset + 3];
+
+        return mantissa * Math.pow(10, exponent);
+    }
+
+    /**
+     * Date Time characteristic format (7 bytes) as local ISO-8601 string.
+     */
+    static String getTimestamp(byte[] value, int offset) {
+
+        int year = getUint16(value, offset);
+        int month = getUint8(value, offset + 2);
+        int day = getUint8(value, offset + 3);
+        int hours = getUint8(value, offset + 4);
+        int minutes = getUint8(value, offset + 5);
+        int seconds = getUint8(value, offset + 6);
+
+        return String.format(Locale.US, "%04d-%02d-%02dT%02d:%02d:%02d", year, month, day, hours, minutes, seconds);
+    }
+
+    static double applyDecimalExponent(int value, int pow, int mult) {
+        return value * mult * Math.pow(10, pow);
+    }
+
+    static boolean isSet(int bits, int mask) {
+        return (bits & mask) != 0;
+    }
+
+    private static int unsignedToSigned(int unsigned, int size) {
+
+        if ((unsigned & (1 << size - 1)) != 0) {
+            unsigned = -1 * ((1 << size - 1) - (unsigned & ((1 << size - 1) - 1)));
+        }
+
+        return unsigned;
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.bleclient.plugin.decoders;
+
+import java.util.LinkedHashMap;
+
+import static com.bleclient.plugin.decoders.DecoderUtils.getInt16;
+import static com.bleclient.plugin.decoders.DecoderUtils.getSFloat;
+import static com.bleclient.plugin.decoders.DecoderUtils.getTimestamp;
+import static com.bleclient.plugin.decoders.DecoderUtils.getUint16;
+import static com.bleclient.plugin.decoders.DecoderUtils.getUint8;
+import static com.bleclient.plugin.decoders.DecoderUtils.isSet;
+
+class GlucoseMeasurementDecoder implements CharacteristicDecoder {
+
+    private static final String[] sensorStatusNames = {
+            "batteryLow",
+            "sensorMalfunction",
+            "sampleSizeInsufficient",
+            "stripInsertionError",
+            "stripTypeIncorrect",
+            "sensorResultTooHigh",
+            "sensorResultTooLow",
+            "sensorTemperatureTooHigh",
+            "sensorTemperatureTooLow",
+            "stripPulledTooSoon",
+            "generalDeviceFault",
+            "timeFault"
+    };
+
+    @Override
+    public Object decode(byte[] value) {
+
+        int flags = getUint8(value, 0);
+
+        int index = 1;
+        LinkedHashMap<String, Object> measurement = new LinkedHashMap<>();
+
+        measurement.put("sequenceNumber", getUint16(value, index));
+        index += 2;
+
+        measurement.put("baseTime", getTimestamp(value, index));
+        index += 7;
+
+        if (isSet(flags, 0x1)) {
+            measurement.put("timeOffset", getInt16(value, index));
+            index += 2;
+        }
+
+        if (isSet(flags, 0x2)) {
+
+            measurement.put("glucoseConcentrationUnit", isSet(flags, 0x4) ? "mol/L" : "kg/L");
+            measurement.put("glucoseConcentration", getSFloat(value, index));
+            index += 2;
+
+            int sampleAndLocation = getUint8(value, index);
+            index += 1;
+
+            measurement.put("type", sampleAndLocation & 0xF);
+            measurement.put("sampleLocation", (sampleAndLocation >> 4) & 0xF);
+        }
+
+        if (isSet(flags, 0x8)) {
+
+            int sensorStatusBits = getUint16(value, index);
+            index += 2;
+
+            LinkedHashMap<String, Object> sensorStatus = new LinkedHashMap<>();
+
+            for (int bit = 0; bit < sensorStatusNames.length; bit++) {
+                sensorStatus.put(sensorStatusNames[bit], isSet(sensorStatusBits, 1 << bit));
+            }
+
+            measurement.put("sensorStatus", sensorStatus);
+        }
+
+        measurement.put("contextInformationFollows", isSet(flags, 0x10));
+
+        return measurement;
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.bleclient.plugin.decoders;
+
+import java.util.LinkedHashMap;
+
+import static com.bleclient.plugin.decoders.DecoderUtils.getUint16;
+import static com.bleclient.plugin.decoders.DecoderUtils.getUint8;
+import static com.bleclient.plugin.decoders.DecoderUtils.isSet;
+
+class HeartRateMeasurementDecoder implements CharacteristicDecoder {
+
+    @Override
+    public Object decode(byte[] value) {
+
+        int flags = getUint8(value, 0);
+
+        int index = 1;
+        LinkedHashMap<String, Object> measurement = new LinkedHashMap<>();
+
+        if (isSet(flags, 0x1)) {
+            measurement.put("heartRate", getUint16(value, index));
+            index += 2;
+        } else {
+            measurement.put("heartRate", getUint8(value, index));
+            index += 1;
+        }
+
+        if (isSet(flags, 0x4)) {
+            measurement.put("contactDetected", isSet(flags, 0x2));
+        }
+
+        if (isSet(flags, 0x8)) {
+            measurement.put("energyExpended", getUint16(value, index));
+            index += 2;
+        }
+
+        if (isSet(flags, 0x10)) {
+
+            int[] rrIntervals = new int[(value.length - index) / 2];
+
+            for (int interval = 0; interval < rrIntervals.length; interval++, index += 2) {
+                rrIntervals[interval] = getUint16(value, index);
+            }
+
+            measurement.put("rrIntervals", rrIntervals);
+        }
+
+        return measurement;
+    }
+
+}
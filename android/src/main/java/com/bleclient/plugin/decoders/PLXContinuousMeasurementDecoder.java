@@ -0,0 +1,56 @@
+package com.bleclient.plugin.decoders;
+
+import java.util.LinkedHashMap;
+
+import static com.bleclient.plugin.decoders.DecoderUtils.getSFloat;
+import static com.bleclient.plugin.decoders.DecoderUtils.getUint16;
+import static com.bleclient.plugin.decoders.DecoderUtils.getUint24;
+import static com.bleclient.plugin.decoders.DecoderUtils.getUint8;
+import static com.bleclient.plugin.decoders.DecoderUtils.isSet;
+
+class PLXContinuousMeasurementDecoder implements CharacteristicDecoder {
+
+    @Override
+    public Object decode(byte[] value) {
+
+        int flags = getUint8(value, 0);
+
+        int index = 1;
+        LinkedHashMap<String, Object> measurement = new LinkedHashMap<>();
+
+        measurement.put("spO2", getSFloat(value, index));
+        index += 2;
+
+        measurement.put("pr", getSFloat(value, index));
+        index += 2;
+
+        if (isSet(flags, 0x1)) {
+            measurement.put("spO2Fast", getSFloat(value, index));
+            measurement.put("prFast", getSFloat(value, index + 2));
+            index += 4;
+        }
+
+        if (isSet(flags, 0x2)) {
+            measurement.put("spO2Slow", getSFloat(value, index));
+            measurement.put("prSlow", getSFloat(value, index + 2));
+            index += 4;
+        }
+
+        if (isSet(flags, 0x4)) {
+            measurement.put("measurementStatus", PLXStatus.getMeasurementStatus(getUint16(value, index)));
+            index += 2;
+        }
+
+        if (isSet(flags, 0x8)) {
+            measurement.put("deviceAndSensorStatus", PLXStatus.getDeviceAndSensorStatus(getUint24(value, index)));
+            index += 3;
+        }
+
+        if (isSet(flags, 0x10)) {
+            measurement.put("pulseAmplitudeIndex", getSFloat(value, index));
+        }
+
+        return measurement;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.bleclient.plugin.decoders;
+
+import java.util.LinkedHashMap;
+
+import static com.bleclient.plugin.decoders.DecoderUtils.isSet;
+
+/**
+ * Status fields shared by the PLX Spot-Check and PLX Continuous measurements.
+ */
+final class PLXStatus {
+
+    private static final String[] measurementStatusNames = {
+            "measurementOngoing",
+            "earlyEstimatedData",
+            "validatedData",
+            "fullyQualifiedData",
+            "dataFromMeasurementStorage",
+            "dataForDemonstration",
+            "dataForTesting",
+            "calibrationOngoing",
+            "measurementUnavailable",
+            "questionablePulseDetected",
+            "invalidMeasurementDetected"
+    };
+
+    private static final String[] deviceAndSensorStatusNames = {
+            "extendedDisplayUpdateOngoing",
+            "equipmentMalfunctionDetected",
+            "signalProcessingIrregularityDetected",
+            "inadequiteSignalDetected",
+            "poorSignalDetected",
+            "lowPerfusionDetected",
+            "erraticSignalDetected",
+            "nonpulsatileSignalDetected",
+            "questionablePulseDetected",
+            "signalAnalysisOngoing",
+            "sensorInterfaceDetected",
+            "sensorUnconnectedToUser",
+            "unknownSensorConnected",
+            "sensorDisplaced",
+            "sensorMalfunctioning",
+            "sensorDisconnected"
+    };
+
+    private PLXStatus() {
+    }
+
+    /**
+     * Measurement status bits start at bit 5, bits 0-4 are reserved.
+     */
+    static LinkedHashMap<String, Object> getMeasurementStatus(int bits) {
+
+        LinkedHashMap<String, Object> status = new LinkedHashMap<>();
+
+        for (int bit = 0; bit < measurementStatusNames.length; bit++) {
+            status.put(measurementStatusNames[bit], isSet(bits, 0x20 << bit));
+        }
+
+        return status;
+    }
+
+    static LinkedHashMap<String, Object> getDeviceAndSensorStatus(int bits) {
+
+        LinkedHashMap<String, Object> status = new LinkedHashMap<>();
+
+        for (int bit = 0; bit < deviceAndSensorStatusNames.length; bit++) {
+            status.put(deviceAndSensorStatusNames[bit], isSet(bits, 1 << bit));
+        }
+
+        return status;
+    }
+
+}
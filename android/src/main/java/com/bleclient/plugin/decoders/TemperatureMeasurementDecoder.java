@@ -0,0 +1,36 @@
+package com.bleclient.plugin.decoders;
+
+import java.util.LinkedHashMap;
+
+import static com.bleclient.plugin.decoders.DecoderUtils.getFloat32;
+import static com.bleclient.plugin.decoders.DecoderUtils.getTimestamp;
+import static com.bleclient.plugin.decoders.DecoderUtils.getUint8;
+import static com.bleclient.plugin.decoders.DecoderUtils.isSet;
+
+class TemperatureMeasurementDecoder implements CharacteristicDecoder {
+
+    @Override
+    public Object decode(byte[] value) {
+
+        int flags = getUint8(value, 0);
+
+        int index = 1;
+        LinkedHashMap<String, Object> measurement = new LinkedHashMap<>();
+
+        measurement.put("unit", isSet(flags, 0x1) ? "F" : "C");
+        measurement.put("temperature", getFloat32(value, index));
+        index += 4;
+
+        if (isSet(flags, 0x2)) {
+            measurement.put("timestamp", getTimestamp(value, index));
+            index += 7;
+        }
+
+        if (isSet(flags, 0x4)) {
+            measurement.put("temperatureType", getUint8(value, index));
+        }
+
+        return measurement;
+    }
+
+}
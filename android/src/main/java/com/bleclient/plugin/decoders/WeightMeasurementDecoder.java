@@ -0,0 +1,49 @@
+package com.bleclient.plugin.decoders;
+
+import java.util.LinkedHashMap;
+
+import static com.bleclient.plugin.decoders.DecoderUtils.applyDecimalExponent;
+import static com.bleclient.plugin.decoders.DecoderUtils.getTimestamp;
+import static com.bleclient.plugin.decoders.DecoderUtils.getUint16;
+import static com.bleclient.plugin.decoders.DecoderUtils.getUint8;
+import static com.bleclient.plugin.decoders.DecoderUtils.isSet;
+
+class WeightMeasurementDecoder implements CharacteristicDecoder {
+
+    @Override
+    public Object decode(byte[] value) {
+
+        int flags = getUint8(value, 0);
+
+        int index = 1;
+        LinkedHashMap<String, Object> measurement = new LinkedHashMap<>();
+
+        boolean isImperial = isSet(flags, 0x1);
+
+        LinkedHashMap<String, Object> units = new LinkedHashMap<>();
+        units.put("weight", isImperial ? "lb" : "kg");
+        units.put("height", isImperial ? "inch" : "m");
+
+        measurement.put("units", units);
+        measurement.put("weight", applyDecimalExponent(getUint16(value, index), isImperial ? -2 : -3, isImperial ? 1 : 5));
+        index += 2;
+
+        if (isSet(flags, 0x2)) {
+            measurement.put("timestamp", getTimestamp(value, index));
+            index += 7;
+        }
+
+        if (isSet(flags, 0x4)) {
+            measurement.put("userId", getUint8(value, index));
+            index += 1;
+        }
+
+        if (isSet(flags, 0x8)) {
+            measurement.put("bmi", applyDecimalExponent(getUint16(value, index), -1, 1));
+            measurement.put("height", applyDecimalExponent(getUint16(value, index + 2), isImperial ? -1 : -3, 1));
+        }
+
+        return measurement;
+    }
+
+}
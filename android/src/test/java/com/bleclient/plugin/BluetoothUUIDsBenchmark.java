@@ -0,0 +1,66 @@
+package com.bleclient.plugin;
+
+import java.util.UUID;
+
+/**
+ * Micro benchmark comparing the former string based UUID conversions with {@link BluetoothUUIDs}.
+ * Not part of the unit test suite, run its main method from the IDE.
+ */
+public class BluetoothUUIDsBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2_000_000;
+    private static final int ITERATIONS = 10_000_000;
+
+    private static UUID legacy128BitUUID(int uuid) {
+
+        String hexString = Integer.toHexString(uuid);
+
+        if (hexString.length() != 4) {
+            return null;
+        }
+
+        return UUID.fromString("0000" + hexString + "-0000-1000-8000-00805F9B34FB");
+    }
+
+    private static int legacy16BitUUID(UUID uuid) {
+        return Integer.parseInt(uuid.toString().substring(4, 8), 16);
+    }
+
+    private static long run(String name, boolean legacy, int iterations) {
+
+        UUID uuid = BluetoothUUIDs.from16Bit(0x2A37);
+        long checksum = 0;
+        long start = System.nanoTime();
+
+        for (int index = 0; index < iterations; index++) {
+
+            int uuid16 = 0x2A00 + (index & 0xFF);
+
+            if (legacy) {
+                checksum += legacy128BitUUID(uuid16).getLeastSignificantBits();
+                checksum += Integer.toString(legacy16BitUUID(uuid)).length();
+            } else {
+                checksum += BluetoothUUIDs.from16Bit(uuid16).getLeastSignificantBits();
+                checksum += BluetoothUUIDs.toEventName(BluetoothUUIDs.to16Bit(uuid)).length();
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        if (name != null) {
+            System.out.println(String.format("%-8s %6.1f ns/op (checksum %d)", name, (double) elapsed / iterations, checksum));
+        }
+
+        return elapsed;
+    }
+
+    public static void main(String[] args) {
+
+        run(null, true, WARMUP_ITERATIONS);
+        run(null, false, WARMUP_ITERATIONS);
+
+        run("legacy", true, ITERATIONS);
+        run("bits", false, ITERATIONS);
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.bleclient.plugin;
+
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class BluetoothUUIDsTest {
+
+    @Test
+    public void from16Bit_matchesBaseUuidString() {
+        assertEquals(UUID.fromString("00002a37-0000-1000-8000-00805f9b34fb"), BluetoothUUIDs.from16Bit(0x2A37));
+        assertEquals(UUID.fromString("0000fff0-0000-1000-8000-00805f9b34fb"), BluetoothUUIDs.from16Bit(0xFFF0));
+    }
+
+    @Test
+    public void from16Bit_rejectsValuesWithoutFourHexDigits() {
+        assertNull(BluetoothUUIDs.from16Bit(0x0FFF));
+        assertNull(BluetoothUUIDs.from16Bit(0x10000));
+    }
+
+    @Test
+    public void from16Bit_returnsCachedInstance() {
+        assertSame(BluetoothUUIDs.from16Bit(0x180D), BluetoothUUIDs.from16Bit(0x180D));
+    }
+
+    @Test
+    public void to16Bit_isInverseOfFrom16Bit() {
+        assertEquals(0x2902, BluetoothUUIDs.to16Bit(UUID.fromString("00002902-0000-1000-8000-00805f9b34fb")));
+        assertEquals(0xFFF0, BluetoothUUIDs.to16Bit(BluetoothUUIDs.from16Bit(0xFFF0)));
+    }
+
+    @Test
+    public void toEventName_isDecimalAndCached() {
+        assertEquals("10807", BluetoothUUIDs.toEventName(0x2A37));
+        assertSame(BluetoothUUIDs.toEventName(0x2A37), BluetoothUUIDs.toEventName(0x2A37));
+    }
+
+    @Test
+    public void fromString_parsesShortAndVendorUuids() {
+        assertEquals(BluetoothUUIDs.from16Bit(0x2A37), BluetoothUUIDs.fromString("2a37"));
+        assertEquals(UUID.fromString("6e400001-b5a3-f393-e0a9-e50e24dcca9e"), BluetoothUUIDs.fromString("6E400001-B5A3-F393-E0A9-E50E24DCCA9E"));
+        assertNull(BluetoothUUIDs.fromString("not-a-uuid"));
+    }
+
+    @Test
+    public void fromString_rejectsSignedShortUuids() {
+        assertNull(BluetoothUUIDs.fromString("-1234567"));
+        assertNull(BluetoothUUIDs.fromString("+2a37"));
+        assertEquals(BluetoothUUIDs.from32Bit(0x12345678L), BluetoothUUIDs.fromString("12345678"));
+    }
+
+    @Test
+    public void fromString_internsUuids() {
+        assertSame(BluetoothUUIDs.fromString("6e400001-b5a3-f393-e0a9-e50e24dcca9e"), BluetoothUUIDs.fromString("6E400001-B5A3-F393-E0A9-E50E24DCCA9E"));
+    }
+
+    @Test
+    public void is16Bit_distinguishesVendorUuids() {
+        assertTrue(BluetoothUUIDs.is16Bit(BluetoothUUIDs.from16Bit(0x2A37)));
+        assertFalse(BluetoothUUIDs.is16Bit(UUID.fromString("6e400001-b5a3-f393-e0a9-e50e24dcca9e")));
+        assertEquals("6e400001-b5a3-f393-e0a9-e50e24dcca9e", BluetoothUUIDs.toEventName(UUID.fromString("6e400001-b5a3-f393-e0a9-e50e24dcca9e")));
+    }
+
+    @Test
+    public void is16Bit_matchesRangeOfFrom16Bit() {
+        UUID uuid = UUID.fromString("00000fff-0000-1000-8000-00805f9b34fb");
+
+        assertFalse(BluetoothUUIDs.is16Bit(uuid));
+        assertNull(BluetoothUUIDs.from16Bit(BluetoothUUIDs.to16Bit(uuid)));
+        assertEquals(uuid, BluetoothUUIDs.fromString(BluetoothUUIDs.toString(uuid)));
+        assertTrue(BluetoothUUIDs.is16Bit(BluetoothUUIDs.from16Bit(0x1000)));
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.bleclient.plugin;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConnectionSchedulerTest {
+
+    private final List<String> started = new ArrayList<>();
+    private final List<String> cancelled = new ArrayList<>();
+
+    private ConnectionScheduler.Starter starter(final String address) {
+        return new ConnectionScheduler.Starter() {
+            @Override
+            public void start(long waitTime) {
+                started.add(address);
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.add(address);
+            }
+        };
+    }
+
+    @Test
+    public void submit_limitsConnectionAttempts() {
+        ConnectionScheduler scheduler = new ConnectionScheduler(4, 1);
+
+        scheduler.submit("A", 0, starter("A"));
+        scheduler.submit("B", 0, starter("B"));
+
+        assertEquals(Arrays.asList("A"), started);
+        assertEquals(1, scheduler.getConnecting());
+        assertEquals(1, scheduler.getQueued());
+
+        scheduler.onConnected("A");
+
+        assertEquals(Arrays.asList("A", "B"), started);
+        assertEquals(1, scheduler.getConnected());
+        assertEquals(0, scheduler.getQueued());
+    }
+
+    @Test
+    public void submit_limitsConnections() {
+        ConnectionScheduler scheduler = new ConnectionScheduler(1, 1);
+
+        scheduler.submit("A", 0, starter("A"));
+        scheduler.onConnected("A");
+        scheduler.submit("B", 0, starter("B"));
+
+        assertEquals(Arrays.asList("A"), started);
+
+        scheduler.release("A");
+
+        assertEquals(Arrays.asList("A", "B"), started);
+    }
+
+    @Test
+    public void queuedRequests_startByPriorityThenInOrder() {
+        ConnectionScheduler scheduler = new ConnectionScheduler(1, 1);
+
+        scheduler.submit("A", 0, starter("A"));
+        scheduler.submit("B", 0, starter("B"));
+        scheduler.submit("C", 5, starter("C"));
+        scheduler.submit("D", 0, starter("D"));
+
+        scheduler.release("A");
+        scheduler.release("C");
+        scheduler.release("B");
+
+        assertEquals(Arrays.asList("A", "C", "B", "D"), started);
+    }
+
+    @Test
+    public void submit_rejectsDuplicateAddresses() {
+        ConnectionScheduler scheduler = new ConnectionScheduler(1, 1);
+
+        assertTrue(scheduler.submit("A", 0, starter("A")));
+        assertFalse(scheduler.submit("A", 0, starter("A")));
+
+        assertTrue(scheduler.submit("B", 0, starter("B")));
+        assertFalse(scheduler.submit("B", 0, starter("B")));
+    }
+
+    @Test
+    public void cancel_removesQueuedRequest() {
+        ConnectionScheduler scheduler = new ConnectionScheduler(1, 1);
+
+        scheduler.submit("A", 0, starter("A"));
+        scheduler.submit("B", 0, starter("B"));
+
+        assertTrue(scheduler.cancel("B"));
+        assertFalse(scheduler.cancel("B"));
+        assertEquals(Arrays.asList("B"), cancelled);
+
+        scheduler.release("A");
+
+        assertEquals(Arrays.asList("A"), started);
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.bleclient.plugin;
+
+import android.bluetooth.BluetoothProfile;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConnectionTest {
+
+    private final Connection connection = new Connection("00:11:22:33:44:55", BluetoothLEClient.ENCODING_ARRAY, 0, null, 0, null);
+
+    @Test
+    public void newConnection_isConnectingAndUndiscovered() {
+        assertEquals(BluetoothProfile.STATE_CONNECTING, connection.getState());
+        assertEquals(BluetoothLEClient.SERVICES_UNDISCOVERED, connection.getDiscoveryState());
+        assertEquals(BluetoothLEClient.defaultMtu, connection.mtu);
+        assertFalse(connection.isConnected());
+    }
+
+    @Test
+    public void defer_onlyWhileDeferring() {
+        List<String> calls = new ArrayList<>();
+
+        assertFalse(connection.defer(null, () -> calls.add("first")));
+
+        connection.deferCalls();
+
+        assertTrue(connection.defer(null, () -> calls.add("second")));
+
+        // deferring again keeps the calls deferred so far
+        connection.deferCalls();
+
+        assertTrue(connection.defer(null, () -> calls.add("third")));
+
+        List<Connection.PendingCall> pendingCalls = connection.takePendingCalls();
+
+        assertEquals(2, pendingCalls.size());
+        assertNull(connection.takePendingCalls());
+        assertFalse(connection.defer(null, () -> calls.add("fourth")));
+
+        for (Connection.PendingCall pendingCall : pendingCalls) {
+            pendingCall.retry.run();
+        }
+
+        assertEquals(2, calls.size());
+        assertEquals("second", calls.get(0));
+    }
+
+    @Test
+    public void clearPendingCalls_keepsDeferring() {
+        assertNull(connection.clearPendingCalls());
+
+        connection.deferCalls();
+        connection.defer(null, () -> { });
+
+        assertEquals(1, connection.clearPendingCalls().size());
+        assertTrue(connection.defer(null, () -> { }));
+        assertEquals(1, connection.takePendingCalls().size());
+    }
+
+}
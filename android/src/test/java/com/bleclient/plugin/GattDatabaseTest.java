@@ -0,0 +1,79 @@
+package com.bleclient.plugin;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class GattDatabaseTest {
+
+    private static final UUID CUSTOM_SERVICE = UUID.fromString("6e400001-b5a3-f393-e0a9-e50e24dcca9e");
+    private static final UUID CUSTOM_CHARACTERISTIC = UUID.fromString("6e400003-b5a3-f393-e0a9-e50e24dcca9e");
+
+    private GattDatabase createDatabase(byte[] hash, int properties) {
+
+        GattDatabase.Characteristic heartRate = new GattDatabase.Characteristic(BluetoothUUIDs.from16Bit(0x2a37), 0x10, Arrays.asList(BluetoothUUIDs.from16Bit(0x2902)));
+        GattDatabase.Characteristic custom = new GattDatabase.Characteristic(CUSTOM_CHARACTERISTIC, properties, Collections.<UUID>emptyList());
+
+        GattDatabase.Service heartRateService = new GattDatabase.Service(BluetoothUUIDs.from16Bit(0x180d), true, Collections.<UUID>emptyList(), Arrays.asList(heartRate));
+        GattDatabase.Service customService = new GattDatabase.Service(CUSTOM_SERVICE, false, Arrays.asList(BluetoothUUIDs.from16Bit(0x180d)), Arrays.asList(custom));
+
+        return new GattDatabase(Arrays.asList(heartRateService, customService), hash);
+    }
+
+    private GattDatabase roundTrip(GattDatabase database) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        database.write(new DataOutputStream(bytes));
+
+        return GattDatabase.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    public void writeAndRead_preservesTreeAndHash() throws IOException {
+        GattDatabase database = createDatabase(new byte[]{1, 2, 3}, 0x0c);
+        GattDatabase read = roundTrip(database);
+
+        assertTrue(database.hasSameTree(read));
+        assertTrue(read.hasHash(new byte[]{1, 2, 3}));
+
+        GattDatabase.Characteristic custom = read.getCharacteristic(CUSTOM_SERVICE, CUSTOM_CHARACTERISTIC);
+
+        assertNotNull(custom);
+        assertEquals(0x0c, custom.properties);
+        assertFalse(read.getService(CUSTOM_SERVICE).primary);
+    }
+
+    @Test
+    public void writeAndRead_withoutHash() throws IOException {
+        GattDatabase read = roundTrip(createDatabase(null, 0x0c));
+
+        assertNull(read.hash);
+        assertFalse(read.hasHash(new byte[0]));
+    }
+
+    @Test
+    public void hasSameTree_detectsChangedProperties() {
+        assertFalse(createDatabase(null, 0x0c).hasSameTree(createDatabase(null, 0x08)));
+        assertTrue(createDatabase(null, 0x0c).hasSameTree(createDatabase(new byte[]{1}, 0x0c)));
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsTruncatedData() throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        createDatabase(null, 0x0c).write(new DataOutputStream(bytes));
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 4);
+
+        GattDatabase.read(new DataInputStream(new ByteArrayInputStream(truncated)));
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.bleclient.plugin;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GattMetricsTest {
+
+    @Test
+    public void notificationRate_coversLastWindow() {
+        GattMetrics metrics = new GattMetrics();
+
+        for (int i = 0; i < 20; i++) {
+            metrics.addNotification(i * 100);
+        }
+
+        assertEquals(20, metrics.getNotifications());
+        assertEquals(10, metrics.getNotificationRate(1900), 1e-9);
+
+        // without further notifications the rate decays
+        assertTrue(metrics.getNotificationRate(21000) < 1);
+    }
+
+    @Test
+    public void failures_areCountedByStatus() {
+        GattMetrics metrics = new GattMetrics();
+
+        metrics.addFailure(133);
+        metrics.addFailure(133);
+        metrics.addFailure(8);
+
+        assertEquals(Long.valueOf(2), metrics.getFailures().get(133));
+        assertEquals(Long.valueOf(1), metrics.getFailures().get(8));
+
+        metrics.reset();
+
+        assertTrue(metrics.getFailures().isEmpty());
+    }
+
+}
@@ -0,0 +1,220 @@
+package com.bleclient.plugin;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class GattOperationQueueTest {
+
+    /**
+     * Timer which runs the tasks only when the test fires them.
+     */
+    private final Map<Object, Runnable> timeouts = new HashMap<>();
+
+    private final GattOperationQueue queue = new GattOperationQueue(null, new GattOperationQueue.Timer() {
+        @Override
+        public void schedule(Runnable task, Object token, long delay) {
+            timeouts.put(token, task);
+        }
+
+        @Override
+        public void cancel(Object token) {
+            timeouts.remove(token);
+        }
+    });
+
+    private final List<String> results = new ArrayList<>();
+    private final List<String> started = new ArrayList<>();
+
+    private GattOperation createOperation(String name, long timeout) {
+        return createOperation(name, null, timeout);
+    }
+
+    private GattOperation createOperation(String name, Object target, long timeout) {
+        return createOperation(GattOperation.TYPE_READ, name, target, timeout);
+    }
+
+    private GattOperation createOperation(int type, String name, Object target, long timeout) {
+
+        GattOperation.Callback callback = new GattOperation.Callback() {
+            @Override
+            public void onSuccess(byte[] value) {
+                results.add(name);
+            }
+
+            @Override
+            public void onError(String message) {
+                results.add(name + ": " + message);
+            }
+        };
+
+        return new GattOperation(type, target, gatt -> started.add(name), callback, BluetoothLEClient.keyErrorValueRead, timeout);
+    }
+
+    private void fireTimeouts() {
+
+        List<Runnable> due = new ArrayList<>(timeouts.values());
+        timeouts.clear();
+
+        for (Runnable task : due) {
+            task.run();
+        }
+    }
+
+    @Test
+    public void timeout_failsOperationInFlightAndStartsNext() {
+
+        queue.enqueue(createOperation("first", 1000));
+        queue.enqueue(createOperation("second", 1000));
+
+        assertEquals(1, timeouts.size());
+
+        fireTimeouts();
+
+        assertEquals(1, results.size());
+        assertEquals("first: " + BluetoothLEClient.keyErrorOperationTimeout, results.get(0));
+        assertEquals(2, started.size());
+        assertEquals(1, queue.size());
+
+        queue.complete(GattOperation.TYPE_READ, null).callback.onSuccess(null);
+
+        assertEquals("second", results.get(1));
+        assertTrue(timeouts.isEmpty());
+    }
+
+    @Test
+    public void lateCallback_isDroppedUntilOperationOfSameTypeIsIssued() {
+
+        queue.enqueue(createOperation("first", 1000));
+        queue.enqueue(createOperation(GattOperation.TYPE_MTU, "mtu", null, 1000));
+        queue.enqueue(createOperation("third", 1000));
+
+        fireTimeouts();
+
+        // the late answer of the first read does not complete the request of another type
+        assertNull(queue.complete(GattOperation.TYPE_READ, null));
+
+        GattOperation operation = queue.complete(GattOperation.TYPE_MTU, null);
+        operation.callback.onSuccess(null);
+        queue.finish(operation);
+
+        assertEquals("third", started.get(2));
+        assertNotNull(queue.complete(GattOperation.TYPE_READ, null));
+    }
+
+    @Test
+    public void lateCallback_completesIndistinguishableNextOperation() {
+
+        queue.enqueue(createOperation("first", 1000));
+        queue.enqueue(createOperation("second", 1000));
+
+        fireTimeouts();
+
+        // without a target or request id the late answer cannot be told from the answer to the second read
+        GattOperation operation = queue.complete(GattOperation.TYPE_READ, null);
+
+        assertEquals("second", started.get(1));
+        assertNotNull(operation);
+
+        operation.callback.onSuccess(null);
+        queue.finish(operation);
+
+        assertEquals("second", results.get(1));
+        assertNull(queue.complete(GattOperation.TYPE_READ, null));
+    }
+
+    @Test
+    public void lateCallback_doesNotCompleteOperationOfOtherCharacteristic() {
+
+        String first = "6e400002-b5a3-f393-e0a9-e50e24dcca9e#0";
+        String second = "6e400003-b5a3-f393-e0a9-e50e24dcca9e#0";
+
+        queue.enqueue(createOperation("first", first, 1000));
+        queue.enqueue(createOperation("second", second, 1000));
+
+        fireTimeouts();
+
+        assertNull(queue.complete(GattOperation.TYPE_READ, first));
+
+        GattOperation operation = queue.complete(GattOperation.TYPE_READ, second);
+        operation.callback.onSuccess(null);
+        queue.finish(operation);
+
+        assertEquals("second", results.get(1));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void callbackOfOtherCharacteristic_isIgnored() {
+
+        String first = "6e400002-b5a3-f393-e0a9-e50e24dcca9e#0";
+        String second = "6e400003-b5a3-f393-e0a9-e50e24dcca9e#0";
+
+        queue.enqueue(createOperation("first", first, 1000));
+
+        assertNull(queue.complete(GattOperation.TYPE_READ, second));
+        assertNotNull(queue.complete(GattOperation.TYPE_READ, first));
+    }
+
+    @Test
+    public void complete_cancelsTimeout() {
+
+        queue.enqueue(createOperation("first", 1000));
+        queue.complete(GattOperation.TYPE_READ, null);
+
+        assertTrue(timeouts.isEmpty());
+    }
+
+    @Test
+    public void complete_startsNextOperationOnlyAfterFinish() {
+
+        queue.enqueue(createOperation("first", 1000));
+        queue.enqueue(createOperation("second", 1000));
+
+        GattOperation operation = queue.complete(GattOperation.TYPE_READ, null);
+        queue.enqueue(createOperation("third", 1000));
+
+        assertEquals(1, started.size());
+        assertNull(queue.complete(GattOperation.TYPE_READ, null));
+
+        queue.finish(operation);
+
+        assertEquals(2, started.size());
+        assertEquals("second", started.get(1));
+    }
+
+    @Test
+    public void zeroTimeout_waitsForever() {
+
+        queue.enqueue(createOperation("first", 0));
+
+        assertTrue(timeouts.isEmpty());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void clear_failsAllOperationsAndReportsCount() {
+
+        queue.enqueue(createOperation("first", 1000));
+        queue.enqueue(createOperation("second", 1000));
+
+        assertEquals(2, queue.clear(BluetoothLEClient.keyErrorOperationCancelled));
+        assertEquals(2, results.size());
+        assertEquals(0, queue.size());
+        assertTrue(timeouts.isEmpty());
+
+        // a timeout which fires anyway must not fail the operation twice
+        queue.enqueue(createOperation("third", 1000));
+        Runnable timeout = timeouts.values().iterator().next();
+        queue.complete(GattOperation.TYPE_READ, null);
+        timeout.run();
+
+        assertEquals(2, results.size());
+    }
+
+}
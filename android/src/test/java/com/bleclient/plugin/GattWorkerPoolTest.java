@@ -0,0 +1,32 @@
+package com.bleclient.plugin;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GattWorkerPoolTest {
+
+    @Test
+    public void stripe_isStableAndInRange() {
+
+        String[] addresses = {"00:11:22:33:44:55", "AA:BB:CC:DD:EE:FF", "F0:0D:F0:0D:F0:0D", "12:34:56:78:9A:BC"};
+
+        for (String address : addresses) {
+
+            int stripe = GattWorkerPool.stripe(address, 3);
+
+            assertTrue(stripe >= 0 && stripe < 3);
+            assertEquals(stripe, GattWorkerPool.stripe(address, 3));
+            assertEquals(0, GattWorkerPool.stripe(address, 1));
+        }
+    }
+
+    @Test
+    public void defaultSize_isBounded() {
+
+        int size = GattWorkerPool.defaultSize();
+
+        assertTrue(size >= 1 && size <= GattWorkerPool.MAX_WORKERS);
+    }
+
+}
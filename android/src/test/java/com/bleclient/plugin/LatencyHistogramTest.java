@@ -0,0 +1,47 @@
+package com.bleclient.plugin;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void getBucket_growsExponentially() {
+        assertEquals(0, LatencyHistogram.getBucket(0));
+        assertEquals(1, LatencyHistogram.getBucket(1));
+        assertEquals(2, LatencyHistogram.getBucket(2));
+        assertEquals(2, LatencyHistogram.getBucket(3));
+        assertEquals(3, LatencyHistogram.getBucket(4));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.getBucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void statistics_coverAllValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 100; i++) {
+            histogram.add(i);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        assertEquals(1, histogram.getMin());
+        assertEquals(100, histogram.getMax());
+        assertEquals(64, histogram.getPercentile(50));
+        assertEquals(100, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void empty_reportsZeros() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.add(5);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+}
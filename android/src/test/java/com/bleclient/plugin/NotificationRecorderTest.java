@@ -0,0 +1,226 @@
+package com.bleclient.plugin;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class NotificationRecorderTest {
+
+    private static final String ADDRESS = "00:11:22:AA:BB:CC";
+    private static final String OTHER_ADDRESS = "F0:0D:F0:0D:F0:0D";
+    private static final byte[] ADDRESS_BYTES = NotificationRecorder.toAddressBytes(ADDRESS);
+    private static final byte[] OTHER_ADDRESS_BYTES = NotificationRecorder.toAddressBytes(OTHER_ADDRESS);
+    private static final UUID HEART_RATE = UUID.fromString("00002a37-0000-1000-8000-00805f9b34fb");
+
+    /**
+     * Room for exactly three records with a two byte value per segment.
+     */
+    private static final int SEGMENT_SIZE = NotificationRecorder.HEADER_LENGTH + 3 * (NotificationRecorder.RECORD_HEADER_LENGTH + 2);
+
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("recordings").toFile();
+    }
+
+    @After
+    public void deleteDirectory() {
+
+        File[] files = directory.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+
+        directory.delete();
+    }
+
+    private NotificationRecorder createRecorder(int maxSegments) {
+        return new NotificationRecorder(directory, SEGMENT_SIZE, maxSegments);
+    }
+
+    @Test
+    public void read_returnsRecordsAcrossSegments() {
+
+        NotificationRecorder recorder = createRecorder(10);
+
+        for (int i = 0; i < 7; i++) {
+            assertTrue(recorder.append(1000 + i, i % 2 == 0 ? ADDRESS_BYTES : OTHER_ADDRESS_BYTES, HEART_RATE, new byte[]{0, (byte) i}));
+        }
+
+        assertEquals(3, directory.listFiles().length);
+
+        NotificationRecorder.Result result = recorder.read(0, Long.MAX_VALUE, null, null, 100, null);
+
+        assertEquals(7, result.records.size());
+        assertNull(result.next);
+
+        NotificationRecorder.Record record = result.records.get(5);
+
+        assertEquals(1005, record.time);
+        assertEquals(OTHER_ADDRESS, record.address);
+        assertEquals(HEART_RATE, record.characteristic);
+        assertArrayEquals(new byte[]{0, 5}, record.value);
+    }
+
+    @Test
+    public void read_filtersByTimeAndAddress() {
+
+        NotificationRecorder recorder = createRecorder(10);
+
+        for (int i = 0; i < 7; i++) {
+            recorder.append(1000 + i, i % 2 == 0 ? ADDRESS_BYTES : OTHER_ADDRESS_BYTES, HEART_RATE, new byte[]{0, (byte) i});
+        }
+
+        NotificationRecorder.Result result = recorder.read(1002, 1005, ADDRESS, HEART_RATE, 100, null);
+
+        assertEquals(2, result.records.size());
+        assertEquals(1002, result.records.get(0).time);
+        assertEquals(1004, result.records.get(1).time);
+    }
+
+    @Test
+    public void read_continuesFromCursor() {
+
+        NotificationRecorder recorder = createRecorder(10);
+
+        for (int i = 0; i < 7; i++) {
+            recorder.append(1000 + i, ADDRESS_BYTES, HEART_RATE, new byte[]{0, (byte) i});
+        }
+
+        NotificationRecorder.Result first = recorder.read(0, Long.MAX_VALUE, null, null, 4, null);
+
+        assertEquals(4, first.records.size());
+        assertNotNull(first.next);
+
+        NotificationRecorder.Cursor cursor = NotificationRecorder.Cursor.parse(first.next.toString());
+        NotificationRecorder.Result second = recorder.read(0, Long.MAX_VALUE, null, null, 4, cursor);
+
+        assertEquals(3, second.records.size());
+        assertEquals(1004, second.records.get(0).time);
+        assertNull(second.next);
+    }
+
+    @Test
+    public void read_rejectsCursorOutsideRecords() {
+
+        NotificationRecorder recorder = createRecorder(10);
+
+        for (int i = 0; i < 2; i++) {
+            recorder.append(1000 + i, ADDRESS_BYTES, HEART_RATE, new byte[]{0, (byte) i});
+        }
+
+        assertNull(recorder.read(0, Long.MAX_VALUE, null, null, 100, new NotificationRecorder.Cursor(0, SEGMENT_SIZE * 2)));
+        assertNull(recorder.read(0, Long.MAX_VALUE, null, null, 100, new NotificationRecorder.Cursor(0, NotificationRecorder.HEADER_LENGTH + 1)));
+        assertNull(recorder.read(0, Long.MAX_VALUE, null, null, 100, new NotificationRecorder.Cursor(0, -1)));
+
+        NotificationRecorder.Result result = recorder.read(0, Long.MAX_VALUE, null, null, 100, new NotificationRecorder.Cursor(0, NotificationRecorder.HEADER_LENGTH + NotificationRecorder.RECORD_HEADER_LENGTH + 2));
+
+        assertEquals(1, result.records.size());
+        assertEquals(1001, result.records.get(0).time);
+    }
+
+    @Test
+    public void clear_continuesSegmentNumbering() {
+
+        NotificationRecorder recorder = createRecorder(10);
+
+        for (int i = 0; i < 4; i++) {
+            recorder.append(1000 + i, ADDRESS_BYTES, HEART_RATE, new byte[]{0, (byte) i});
+        }
+
+        recorder.clear();
+        recorder.append(2000, ADDRESS_BYTES, HEART_RATE, new byte[]{1, 2});
+
+        NotificationRecorder.Result result = recorder.read(0, Long.MAX_VALUE, null, null, 100, new NotificationRecorder.Cursor(1, NotificationRecorder.HEADER_LENGTH));
+
+        assertEquals(1, result.records.size());
+        assertEquals(2000, result.records.get(0).time);
+    }
+
+    @Test
+    public void append_deletesOldestSegments() {
+
+        NotificationRecorder recorder = createRecorder(2);
+
+        for (int i = 0; i < 9; i++) {
+            recorder.append(1000 + i, ADDRESS_BYTES, HEART_RATE, new byte[]{0, (byte) i});
+        }
+
+        NotificationRecorder.Result result = recorder.read(0, Long.MAX_VALUE, null, null, 100, null);
+
+        assertEquals(2, directory.listFiles().length);
+        assertEquals(6, result.records.size());
+        assertEquals(1003, result.records.get(0).time);
+    }
+
+    @Test
+    public void append_continuesAfterRestart() {
+
+        createRecorder(10).append(1000, ADDRESS_BYTES, HEART_RATE, new byte[]{1, 2});
+
+        NotificationRecorder recorder = createRecorder(10);
+        recorder.append(1001, ADDRESS_BYTES, HEART_RATE, new byte[]{3, 4});
+
+        NotificationRecorder.Result result = recorder.read(0, Long.MAX_VALUE, null, null, 100, null);
+
+        assertEquals(1, directory.listFiles().length);
+        assertEquals(2, result.records.size());
+        assertArrayEquals(new byte[]{3, 4}, result.records.get(1).value);
+    }
+
+    @Test
+    public void append_rejectsValueLargerThanSegment() {
+        assertFalse(createRecorder(10).append(1000, ADDRESS_BYTES, HEART_RATE, new byte[SEGMENT_SIZE]));
+    }
+
+    @Test
+    public void addressBytes_roundTrip() {
+        assertEquals(ADDRESS, NotificationRecorder.toAddress(NotificationRecorder.toAddressBytes(ADDRESS)));
+    }
+
+    @Test
+    public void append_afterClose_continuesNewestSegment() {
+
+        NotificationRecorder recorder = createRecorder(10);
+
+        assertTrue(recorder.append(1000, ADDRESS_BYTES, HEART_RATE, new byte[]{0, 1}));
+
+        recorder.close();
+
+        assertTrue(recorder.append(1001, ADDRESS_BYTES, HEART_RATE, new byte[]{0, 2}));
+
+        NotificationRecorder.Result result = recorder.read(0, Long.MAX_VALUE, null, null, 100, null);
+
+        assertEquals(1, directory.listFiles().length);
+        assertEquals(2, result.records.size());
+        assertEquals(1001, result.records.get(1).time);
+    }
+
+    @Test
+    public void foreignFile_isNoSegment() throws IOException {
+
+        assertTrue(new File(directory, "notes" + NotificationRecorder.FILE_EXTENSION).createNewFile());
+
+        NotificationRecorder recorder = createRecorder(10);
+
+        assertTrue(recorder.append(1000, ADDRESS_BYTES, HEART_RATE, new byte[]{0, 1}));
+
+        NotificationRecorder.Result result = recorder.read(0, Long.MAX_VALUE, null, null, 100, null);
+
+        // the foreign file and the first segment, no segment was made up for the foreign file
+        assertEquals(2, directory.listFiles().length);
+        assertEquals(1, result.records.size());
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.bleclient.plugin;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ReconnectPolicyTest {
+
+    /**
+     * Random source without jitter, so delays are predictable.
+     */
+    private static final Random NO_JITTER = new Random() {
+        @Override
+        public double nextDouble() {
+            return 0;
+        }
+    };
+
+    @Test
+    public void nextDelay_doublesUpToMaximum() {
+        ReconnectPolicy policy = new ReconnectPolicy(1000, 5000, 0, NO_JITTER);
+
+        assertEquals(1000, policy.nextDelay());
+        assertEquals(2000, policy.nextDelay());
+        assertEquals(4000, policy.nextDelay());
+        assertEquals(5000, policy.nextDelay());
+        assertEquals(5000, policy.nextDelay());
+        assertEquals(5, policy.getAttempts());
+    }
+
+    @Test
+    public void nextDelay_dropsAtMostHalfOfTheDelay() {
+        ReconnectPolicy policy = new ReconnectPolicy(1000, 1000, 0, new Random(42));
+
+        for (int i = 0; i < 100; i++) {
+            long delay = policy.nextDelay();
+            assertTrue(delay > 500 && delay <= 1000);
+        }
+    }
+
+    @Test
+    public void nextDelay_stopsAfterMaxAttempts() {
+        ReconnectPolicy policy = new ReconnectPolicy(1000, 5000, 2, NO_JITTER);
+
+        assertEquals(1000, policy.nextDelay());
+        assertEquals(2000, policy.nextDelay());
+        assertEquals(-1, policy.nextDelay());
+    }
+
+    @Test
+    public void onReconnected_resetsAttemptsAndReportsDowntime() {
+        ReconnectPolicy policy = new ReconnectPolicy(1000, 5000, 0, NO_JITTER);
+
+        policy.onDisconnected(10000);
+        policy.nextDelay();
+        policy.onDisconnected(12000);
+        policy.nextDelay();
+
+        assertTrue(policy.isReconnecting());
+        assertEquals(5000, policy.onReconnected(15000));
+        assertFalse(policy.isReconnecting());
+        assertEquals(0, policy.getAttempts());
+        assertEquals(1000, policy.nextDelay());
+    }
+
+}
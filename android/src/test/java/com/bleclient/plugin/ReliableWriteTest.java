@@ -0,0 +1,191 @@
+package com.bleclient.plugin;
+
+import android.bluetooth.BluetoothGatt;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReliableWriteTest {
+
+    private final GattOperationQueue queue = new GattOperationQueue(null, new GattOperationQueue.Timer() {
+        @Override
+        public void schedule(Runnable task, Object token, long delay) {
+        }
+
+        @Override
+        public void cancel(Object token) {
+        }
+    });
+
+    private final List<String> steps = new ArrayList<>();
+
+    private int completed = -1;
+    private String error;
+    private Runnable onBegin;
+
+    private final ReliableWrite.Transaction transaction = new ReliableWrite.Transaction() {
+        @Override
+        public boolean begin(BluetoothGatt gatt) {
+            steps.add("begin");
+
+            if (onBegin != null) {
+                onBegin.run();
+            }
+
+            return true;
+        }
+
+        @Override
+        public boolean write(BluetoothGatt gatt, int index, byte[] value) {
+            steps.add("write " + index);
+            return true;
+        }
+
+        @Override
+        public boolean execute(BluetoothGatt gatt) {
+            steps.add("execute");
+            return true;
+        }
+
+        @Override
+        public void abort(BluetoothGatt gatt) {
+            steps.add("abort");
+        }
+    };
+
+    private final ReliableWrite.Listener listener = new ReliableWrite.Listener() {
+        @Override
+        public void onComplete(int writes) {
+            completed = writes;
+        }
+
+        @Override
+        public void onError(String message) {
+            error = message;
+        }
+    };
+
+    private void start(byte[]... values) {
+        new ReliableWrite(queue, Arrays.asList(values), 0, transaction, listener).start();
+    }
+
+    private void complete(int type, byte[] value) {
+
+        GattOperation operation = queue.complete(type, null);
+        operation.callback.onSuccess(value);
+        queue.finish(operation);
+    }
+
+    @Test
+    public void matchingEchoes_executeTransaction() {
+
+        start(new byte[]{1}, new byte[]{2});
+
+        complete(GattOperation.TYPE_WRITE, new byte[]{1});
+        complete(GattOperation.TYPE_WRITE, new byte[]{2});
+        complete(GattOperation.TYPE_EXECUTE_RELIABLE_WRITE, null);
+
+        assertEquals(Arrays.asList("begin", "write 0", "write 1", "execute"), steps);
+        assertEquals(2, completed);
+        assertNull(error);
+    }
+
+    @Test
+    public void mismatchingLastEcho_abortsInsteadOfExecuting() {
+
+        start(new byte[]{1}, new byte[]{2});
+
+        complete(GattOperation.TYPE_WRITE, new byte[]{1});
+        complete(GattOperation.TYPE_WRITE, new byte[]{3});
+
+        assertEquals(Arrays.asList("begin", "write 0", "write 1", "abort"), steps);
+        assertEquals(BluetoothLEClient.keyErrorReliableWriteVerify, error);
+        assertEquals(-1, completed);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void failedWrite_abortsRemainingSteps() {
+
+        start(new byte[]{1}, new byte[]{2}, new byte[]{3});
+
+        GattOperation operation = queue.complete(GattOperation.TYPE_WRITE, null);
+        operation.callback.onError(BluetoothLEClient.keyErrorValueWrite);
+        queue.finish(operation);
+
+        assertEquals(Arrays.asList("begin", "write 0", "abort"), steps);
+        assertEquals(BluetoothLEClient.keyErrorValueWrite, error);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void clearedQueue_abortsTransaction() {
+
+        start(new byte[]{1}, new byte[]{2});
+
+        complete(GattOperation.TYPE_WRITE, new byte[]{1});
+
+        assertEquals(2, queue.clear(BluetoothLEClient.keyErrorOperationCancelled));
+        assertEquals(Arrays.asList("begin", "write 0", "write 1", "abort"), steps);
+        assertEquals(BluetoothLEClient.keyErrorOperationCancelled, error);
+        assertEquals(-1, completed);
+    }
+
+    @Test
+    public void failedExecution_abortsTransaction() {
+
+        start(new byte[]{1});
+
+        complete(GattOperation.TYPE_WRITE, new byte[]{1});
+
+        GattOperation operation = queue.complete(GattOperation.TYPE_EXECUTE_RELIABLE_WRITE, null);
+        operation.callback.onError(BluetoothLEClient.keyErrorReliableWriteExecute);
+        queue.finish(operation);
+
+        assertEquals(Arrays.asList("begin", "write 0", "execute", "abort"), steps);
+        assertEquals(BluetoothLEClient.keyErrorReliableWriteExecute, error);
+    }
+
+    @Test
+    public void operationEnqueuedDuringStart_isIssuedAfterExecution() throws InterruptedException {
+
+        GattOperation.Callback ignored = new GattOperation.Callback() {
+            @Override
+            public void onSuccess(byte[] value) {
+            }
+
+            @Override
+            public void onError(String message) {
+            }
+        };
+
+        Thread other = new Thread(() -> queue.enqueue(new GattOperation(GattOperation.TYPE_WRITE, gatt -> steps.add("foreign write"), ignored, BluetoothLEClient.keyErrorValueWrite, 0)));
+
+        // the other thread tries to enqueue while the transaction has begun but is not queued completely
+        onBegin = () -> {
+            other.start();
+
+            try {
+                other.join(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        start(new byte[]{1}, new byte[]{2});
+        other.join();
+
+        complete(GattOperation.TYPE_WRITE, new byte[]{1});
+        complete(GattOperation.TYPE_WRITE, new byte[]{2});
+        complete(GattOperation.TYPE_EXECUTE_RELIABLE_WRITE, null);
+
+        assertEquals(Arrays.asList("begin", "write 0", "write 1", "execute", "foreign write"), steps);
+        assertEquals(2, completed);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.bleclient.plugin;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RssiMonitorTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void meanAndVariance_coverRollingWindow() {
+        RssiMonitor monitor = new RssiMonitor(1000, 3, 5000);
+
+        monitor.add(-90, 0);
+        monitor.add(-60, 1000);
+        monitor.add(-62, 2000);
+        monitor.add(-64, 3000);
+
+        assertEquals(3, monitor.size());
+        assertEquals(-64, monitor.getLatest());
+        assertEquals(-62, monitor.getMean(), DELTA);
+        assertEquals(8.0 / 3, monitor.getVariance(), DELTA);
+    }
+
+    @Test
+    public void trend_isSlopeInDbPerSecond() {
+        RssiMonitor monitor = new RssiMonitor(500, 4, 5000);
+
+        monitor.add(-60, 10000);
+        monitor.add(-61, 10500);
+        monitor.add(-62, 11000);
+        monitor.add(-63, 11500);
+
+        assertEquals(-2, monitor.getTrend(), DELTA);
+
+        // the oldest sample is replaced, so the window is no longer in time order
+        monitor.add(-64, 12000);
+
+        assertEquals(-2, monitor.getTrend(), DELTA);
+    }
+
+    @Test
+    public void trend_isZeroForSingleSample() {
+        RssiMonitor monitor = new RssiMonitor(1000, 4, 5000);
+
+        monitor.add(-70, 0);
+
+        assertEquals(0, monitor.getTrend(), DELTA);
+    }
+
+    @Test
+    public void shouldReport_waitsForFullWindowThenReportInterval() {
+        RssiMonitor monitor = new RssiMonitor(1000, 2, 5000);
+
+        monitor.add(-70, 0);
+        assertFalse(monitor.shouldReport(0));
+
+        monitor.add(-70, 1000);
+        assertTrue(monitor.shouldReport(1000));
+
+        monitor.add(-70, 2000);
+        assertFalse(monitor.shouldReport(2000));
+        assertTrue(monitor.shouldReport(6000));
+    }
+
+    @Test
+    public void startSample_skipsWhilePending() {
+        RssiMonitor monitor = new RssiMonitor(1000, 2, 5000);
+
+        assertTrue(monitor.startSample());
+        assertFalse(monitor.startSample());
+
+        monitor.finishSample();
+
+        assertTrue(monitor.startSample());
+    }
+
+}
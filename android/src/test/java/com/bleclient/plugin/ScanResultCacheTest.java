@@ -0,0 +1,122 @@
+package com.bleclient.plugin;
+
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class ScanResultCacheTest {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+
+    private static final byte[] ADVERTISEMENT = {
+            0x02, 0x01, 0x06,                               // flags
+            0x02, 0x0A, (byte) 0xF4,                        // tx power -12 dBm
+            0x05, (byte) 0xFF, 0x4C, 0x00, 0x01, 0x02,      // manufacturer 0x004C, data 01 02
+            0x04, 0x16, 0x0F, 0x18, 0x55,                   // service data of 0x180F, data 55
+            0x00, 0x00, 0x00                                // padding
+    };
+
+    @Test
+    public void update_reportsNewDevicesOnce() {
+        ScanResultCache cache = new ScanResultCache(10000, 0.25);
+
+        assertTrue(cache.update(ADDRESS, null, -60, ADVERTISEMENT, 1000));
+        assertFalse(cache.update(ADDRESS, null, -70, ADVERTISEMENT, 1100));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void update_smoothsRssiAndTracksTimestamps() {
+        ScanResultCache cache = new ScanResultCache(10000, 0.25);
+
+        cache.update(ADDRESS, null, -60, ADVERTISEMENT, 1000);
+        cache.update(ADDRESS, null, -80, ADVERTISEMENT, 1500);
+
+        ScanResultCache.Entry entry = cache.get(ADDRESS);
+        assertEquals(-65, entry.rssi, 0.001);
+        assertEquals(-80, entry.lastRssi);
+        assertEquals(1000, entry.firstSeen);
+        assertEquals(1500, entry.lastSeen);
+    }
+
+    @Test
+    public void update_parsesAdvertisementData() {
+        ScanResultCache cache = new ScanResultCache(10000, 0.25);
+        cache.update(ADDRESS, null, -60, ADVERTISEMENT, 1000);
+
+        ScanResultCache.Entry entry = cache.get(ADDRESS);
+        assertEquals(-12, entry.txPower);
+
+        assertEquals(1, entry.manufacturerDataCount);
+        assertEquals(0x004C, entry.getManufacturerId(0));
+        assertArrayEquals(new byte[]{0x01, 0x02}, entry.getManufacturerData(0));
+
+        assertEquals(1, entry.serviceDataCount);
+        assertSame(BluetoothUUIDs.from16Bit(0x180F), entry.getServiceDataUuid(0));
+        assertArrayEquals(new byte[]{0x55}, entry.getServiceData(0));
+    }
+
+    @Test
+    public void update_parses128BitServiceDataUuid() {
+        UUID uuid = UUID.fromString("6e400001-b5a3-f393-e0a9-e50e24dcca9e");
+        byte[] advertisement = new byte[19];
+        advertisement[0] = 18;
+        advertisement[1] = 0x21;
+
+        for (int i = 0; i < 8; i++) {
+            advertisement[2 + i] = (byte) (uuid.getLeastSignificantBits() >>> (8 * i));
+            advertisement[10 + i] = (byte) (uuid.getMostSignificantBits() >>> (8 * i));
+        }
+
+        advertisement[18] = 0x7F;
+
+        ScanResultCache cache = new ScanResultCache(10000, 0.25);
+        cache.update(ADDRESS, null, -60, advertisement, 1000);
+
+        ScanResultCache.Entry entry = cache.get(ADDRESS);
+        assertEquals(uuid, entry.getServiceDataUuid(0));
+        assertArrayEquals(new byte[]{0x7F}, entry.getServiceData(0));
+    }
+
+    @Test
+    public void update_reusesEntryAndBuffer() {
+        ScanResultCache cache = new ScanResultCache(10000, 0.25);
+        cache.update(ADDRESS, null, -60, ADVERTISEMENT, 1000);
+
+        ScanResultCache.Entry entry = cache.get(ADDRESS);
+        byte[] record = entry.record;
+
+        cache.update(ADDRESS, null, -60, new byte[]{0x02, 0x01, 0x06}, 1100);
+
+        assertSame(entry, cache.get(ADDRESS));
+        assertSame(record, entry.record);
+        assertEquals(3, entry.recordLength);
+        assertEquals(0, entry.manufacturerDataCount);
+        assertEquals(ScanResultCache.NO_TX_POWER, entry.txPower);
+    }
+
+    @Test
+    public void update_ignoresTruncatedStructures() {
+        ScanResultCache cache = new ScanResultCache(10000, 0.25);
+        cache.update(ADDRESS, null, -60, new byte[]{0x05, (byte) 0xFF, 0x4C, 0x00}, 1000);
+
+        assertEquals(0, cache.get(ADDRESS).manufacturerDataCount);
+    }
+
+    @Test
+    public void entries_expireAfterTtl() {
+        ScanResultCache cache = new ScanResultCache(1000, 0.25);
+        cache.update(ADDRESS, null, -60, ADVERTISEMENT, 1000);
+        cache.update("66:77:88:99:AA:BB", null, -60, ADVERTISEMENT, 1800);
+
+        assertEquals(1, cache.getEntries(2500).size());
+
+        cache.update("66:77:88:99:AA:BB", null, -60, ADVERTISEMENT, 2500);
+
+        assertNull(cache.get(ADDRESS));
+        assertEquals(1, cache.size());
+    }
+
+}
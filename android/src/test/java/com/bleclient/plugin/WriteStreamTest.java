@@ -0,0 +1,139 @@
+package com.bleclient.plugin;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WriteStreamTest {
+
+    private static final int MTU = 23;
+
+    private final List<Long> scheduled = new ArrayList<>();
+
+    private final GattOperationQueue queue = new GattOperationQueue(null, new GattOperationQueue.Timer() {
+        @Override
+        public void schedule(Runnable task, Object token, long delay) {
+            scheduled.add(delay);
+        }
+
+        @Override
+        public void cancel(Object token) {
+        }
+    });
+    private final List<byte[]> written = new ArrayList<>();
+
+    private WriteStream completed;
+    private String error;
+
+    private final WriteStream.Listener listener = new WriteStream.Listener() {
+        @Override
+        public void onComplete(WriteStream stream) {
+            completed = stream;
+        }
+
+        @Override
+        public void onError(String message) {
+            error = message;
+        }
+    };
+
+    private boolean completeWrite(boolean success) {
+
+        GattOperation operation = queue.complete(GattOperation.TYPE_WRITE, null);
+
+        if (operation == null) {
+            return false;
+        }
+
+        if (success) {
+            operation.callback.onSuccess(null);
+        } else {
+            operation.callback.onError("failed");
+        }
+
+        queue.finish(operation);
+
+        return true;
+    }
+
+    @Test
+    public void start_queuesChunksUpToCredits() {
+        WriteStream stream = new WriteStream(queue, new byte[100], 10, 3, MTU, 0, (gatt, chunk) -> written.add(chunk), listener);
+        stream.start();
+
+        assertEquals(1, written.size());
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    public void completedWrites_returnCredits() {
+        WriteStream stream = new WriteStream(queue, new byte[25], 10, 2, MTU, 0, (gatt, chunk) -> written.add(chunk), listener);
+        stream.start();
+
+        while (completeWrite(true)) {
+            assertTrue(queue.size() <= 2);
+        }
+
+        assertEquals(3, written.size());
+        assertEquals(10, written.get(0).length);
+        assertEquals(5, written.get(2).length);
+
+        assertSame(stream, completed);
+        assertEquals(25, stream.getBytesWritten());
+        assertEquals(3, stream.getChunks());
+        assertNull(error);
+    }
+
+    @Test
+    public void failedWrite_rejectsOnceAndSkipsRemainingChunks() {
+        WriteStream stream = new WriteStream(queue, new byte[100], 10, 4, MTU, 0, (gatt, chunk) -> written.add(chunk), listener);
+        stream.start();
+
+        completeWrite(false);
+
+        assertEquals("failed", error);
+
+        // the failure is reported before the queue issues the next chunk, so no further chunk is written
+        while (completeWrite(true)) {
+        }
+
+        assertEquals(0, queue.size());
+        assertEquals(1, written.size());
+        assertNull(completed);
+    }
+
+    @Test
+    public void emptyValue_isWrittenAsSingleChunk() {
+        WriteStream stream = new WriteStream(queue, new byte[0], 10, 4, MTU, 0, (gatt, chunk) -> written.add(chunk), listener);
+        stream.start();
+
+        completeWrite(true);
+
+        assertEquals(1, written.size());
+        assertSame(stream, completed);
+    }
+
+    @Test
+    public void chunkLargerThanMtu_failsWithoutWriting() {
+        WriteStream stream = new WriteStream(queue, new byte[100], MTU - BluetoothLEClient.attHeaderLength + 1, 4, MTU, 0, (gatt, chunk) -> written.add(chunk), listener);
+        stream.start();
+
+        assertEquals(BluetoothLEClient.keyErrorChunkSizeInvalid, error);
+        assertEquals(0, queue.size());
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    public void chunks_useTimeoutOfStream() {
+        WriteStream stream = new WriteStream(queue, new byte[30], 10, 2, MTU, 5000, (gatt, chunk) -> written.add(chunk), listener);
+        stream.start();
+
+        // only the chunk in flight is timed
+        assertEquals(1, scheduled.size());
+        assertEquals(Long.valueOf(5000), scheduled.get(0));
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.bleclient.plugin.decoders;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CharacteristicDecodersTest {
+
+    private static Map<?, ?> decode(int characteristic, int... bytes) {
+
+        byte[] value = new byte[bytes.length];
+
+        for (int index = 0; index < bytes.length; index++) {
+            value[index] = (byte) bytes[index];
+        }
+
+        return (Map<?, ?>) CharacteristicDecoders.get(characteristic).decode(value);
+    }
+
+    @Test
+    public void unknownCharacteristic_hasNoDecoder() {
+        assertNull(CharacteristicDecoders.get(0x2A00));
+    }
+
+    @Test
+    public void batteryLevel_isDecoded() {
+        assertEquals(87, CharacteristicDecoders.get(CharacteristicDecoders.BATTERY_LEVEL).decode(new byte[]{87}));
+    }
+
+    @Test
+    public void heartRate_withRRIntervals_isDecoded() {
+
+        Map<?, ?> measurement = decode(CharacteristicDecoders.HEART_RATE_MEASUREMENT,
+                0x1E, 0x48, 0x10, 0x00, 0x20, 0x03, 0x30, 0x03);
+
+        assertEquals(72, measurement.get("heartRate"));
+        assertEquals(true, measurement.get("contactDetected"));
+        assertEquals(16, measurement.get("energyExpended"));
+        assertArrayEquals(new int[]{800, 816}, (int[]) measurement.get("rrIntervals"));
+    }
+
+    @Test
+    public void heartRate_16Bit_isDecoded() {
+
+        Map<?, ?> measurement = decode(CharacteristicDecoders.HEART_RATE_MEASUREMENT, 0x01, 0x2C, 0x01);
+
+        assertEquals(300, measurement.get("heartRate"));
+        assertFalse(measurement.containsKey("contactDetected"));
+    }
+
+    @Test
+    public void bloodPressure_isDecoded() {
+
+        Map<?, ?> measurement = decode(CharacteristicDecoders.BLOOD_PRESSURE_MEASUREMENT,
+                0x1C, 0x78, 0x00, 0x50, 0x00, 0x5D, 0x00, 0x3C, 0x00, 0x02, 0x05, 0x00);
+
+        Map<?, ?> compoundValue = (Map<?, ?>) measurement.get("compoundValue");
+        Map<?, ?> status = (Map<?, ?>) measurement.get("status");
+
+        assertEquals("mmHg", measurement.get("unit"));
+        assertEquals(120.0, (double) compoundValue.get("systolic"), 0);
+        assertEquals(80.0, (double) compoundValue.get("diastolic"), 0);
+        assertEquals(93.0, (double) compoundValue.get("meanArterialPressure"), 0);
+        assertEquals(60.0, (double) measurement.get("pulse"), 0);
+        assertEquals(2, measurement.get("userId"));
+        assertEquals(true, status.get("bodyMovement"));
+        assertEquals(true, status.get("irregularPulse"));
+        assertEquals(0, status.get("pulseRateRange"));
+    }
+
+    @Test
+    public void glucose_isDecoded() {
+
+        Map<?, ?> measurement = decode(CharacteristicDecoders.GLUCOSE_MEASUREMENT,
+                0x0B, 0x07, 0x00, 0xE3, 0x07, 0x03, 0x0F, 0x0A, 0x1E, 0x00, 0xF6, 0xFF, 0x5A, 0xB0, 0x11, 0x01, 0x00);
+
+        Map<?, ?> sensorStatus = (Map<?, ?>) measurement.get("sensorStatus");
+
+        assertEquals(7, measurement.get("sequenceNumber"));
+        assertEquals("2019-03-15T10:30:00", measurement.get("baseTime"));
+        assertEquals(-10, measurement.get("timeOffset"));
+        assertEquals("kg/L", measurement.get("glucoseConcentrationUnit"));
+        assertEquals(0.0009, (double) measurement.get("glucoseConcentration"), 1e-9);
+        assertEquals(1, measurement.get("type"));
+        assertEquals(1, measurement.get("sampleLocation"));
+        assertEquals(true, sensorStatus.get("batteryLow"));
+        assertEquals(false, sensorStatus.get("timeFault"));
+        assertEquals(false, measurement.get("contextInformationFollows"));
+    }
+
+    @Test
+    public void plxContinuous_isDecoded() {
+
+        Map<?, ?> measurement = decode(CharacteristicDecoders.PLX_CONTINUOUS_MEASUREMENT,
+                0x04, 0x62, 0x00, 0x48, 0x00, 0x80, 0x00);
+
+        Map<?, ?> measurementStatus = (Map<?, ?>) measurement.get("measurementStatus");
+
+        assertEquals(98.0, (double) measurement.get("spO2"), 0);
+        assertEquals(72.0, (double) measurement.get("pr"), 0);
+        assertEquals(true, measurementStatus.get("validatedData"));
+        assertEquals(false, measurementStatus.get("measurementOngoing"));
+    }
+
+    @Test
+    public void plxSpotCheck_withSpecialValues_isDecoded() {
+
+        Map<?, ?> measurement = decode(CharacteristicDecoders.PLX_SPOT_CHECK_MEASUREMENT,
+                0x14, 0xFF, 0x07, 0xFE, 0x07, 0x01, 0x00, 0x00);
+
+        Map<?, ?> deviceAndSensorStatus = (Map<?, ?>) measurement.get("deviceAndSensorStatus");
+
+        assertTrue(Double.isNaN((double) measurement.get("spO2")));
+        assertEquals(Double.POSITIVE_INFINITY, (double) measurement.get("pr"), 0);
+        assertEquals(true, measurement.get("deviceClockNotSet"));
+        assertEquals(true, deviceAndSensorStatus.get("extendedDisplayUpdateOngoing"));
+    }
+
+    @Test
+    public void temperature_isDecoded() {
+
+        Map<?, ?> measurement = decode(CharacteristicDecoders.TEMPERATURE_MEASUREMENT,
+                0x04, 0x72, 0x01, 0x00, 0xFF, 0x02);
+
+        assertEquals("C", measurement.get("unit"));
+        assertEquals(37.0, (double) measurement.get("temperature"), 1e-9);
+        assertEquals(2, measurement.get("temperatureType"));
+    }
+
+    @Test
+    public void weight_isDecoded() {
+
+        Map<?, ?> measurement = decode(CharacteristicDecoders.WEIGHT_MEASUREMENT,
+                0x08, 0x98, 0x3A, 0xEB, 0x00, 0xD2, 0x06);
+
+        assertEquals(75.0, (double) measurement.get("weight"), 1e-9);
+        assertEquals(23.5, (double) measurement.get("bmi"), 1e-9);
+        assertEquals(1.746, (double) measurement.get("height"), 1e-9);
+    }
+
+}
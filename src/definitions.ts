@@ -21,16 +21,48 @@ export interface BluetoothLEClientPlugin extends WebPlugin{
 
   scan(options: BluetoothGATTScanOptions): Promise<BluetoothGATTScanResults>;
 
+  stopScan(): Promise<BluetoothGATTStopScanResult>;
+
   connect(options: BluetoothGATTConnectOptions): Promise<BluetoothGATTConnectResult>;
 
   discover(options: BluetoothGATTServiceDiscoveryOptions): Promise<BluetoothGATTServiceDiscoveryResult>;
 
   disconnect(options: BluetoothGATTDisconnectOptions): Promise<BluetoothGATTDisconnectResult>
 
+  cancelOperations(options: BluetoothGATTCancelOperationsOptions): Promise<BluetoothGATTCancelOperationsResult>;
+
+  setConnectionLimits(options: BluetoothGATTConnectionLimitsOptions): Promise<BluetoothGATTConnectionStatus>;
+
+  getConnectionStatus(): Promise<BluetoothGATTConnectionStatus>;
+
   read(options: BluetoothGATTCharacteristicReadOptions): Promise<BluetoothGATTCharacteristicReadResult>;
 
+  readMany(options: BluetoothGATTCharacteristicReadManyOptions): Promise<BluetoothGATTCharacteristicReadManyResult>;
+
   write(options: BluetoothGATTCharacteristicWriteOptions): Promise<BluetoothGATTCharacteristicWriteResult>;
 
+  writeReliable(options: BluetoothGATTReliableWriteOptions): Promise<BluetoothGATTReliableWriteResult>;
+
+  writeStream(options: BluetoothGATTCharacteristicWriteStreamOptions): Promise<BluetoothGATTCharacteristicWriteStreamResult>;
+
+  requestMtu(options: BluetoothGATTMtuOptions): Promise<BluetoothGATTMtuResult>;
+
+  requestConnectionPriority(options: BluetoothGATTConnectionPriorityOptions): Promise<BluetoothGATTConnectionPriorityResult>;
+
+  setPreferredPhy(options: BluetoothGATTPhyOptions): Promise<BluetoothGATTPhyResult>;
+
+  readPhy(options: BluetoothGATTReadPhyOptions): Promise<BluetoothGATTPhyResult>;
+
+  startRssiMonitor(options: BluetoothGATTRssiMonitorOptions): Promise<BluetoothGATTRssiMonitorStartResult>;
+
+  stopRssiMonitor(options: BluetoothGATTRssiMonitorStopOptions): Promise<BluetoothGATTRssiMonitorStopResult>;
+
+  getMetrics(options?: BluetoothGATTMetricsOptions): Promise<BluetoothGATTMetricsResult>;
+
+  startMetricsReporting(options?: BluetoothGATTMetricsReportingOptions): Promise<BluetoothGATTMetricsReportingStartResult>;
+
+  stopMetricsReporting(): Promise<BluetoothGATTMetricsReportingStopResult>;
+
   readDescriptor(options: BluetoothGATTDescriptorReadOptions): Promise<BluetoothGATTDescriptorReadResult>;
 
   writeDescriptor(options: BluetoothGATTDescriptorWriteOptions): Promise<BluetoothGATTDescriptorWriteResult>;
@@ -43,10 +75,16 @@ export interface BluetoothLEClientPlugin extends WebPlugin{
 
   getCharacteristic(options: GetCharacteristicOptions): Promise<GetCharacteristicResult>;
 
+  getGattTree(options: GetGattTreeOptions): Promise<GetGattTreeResult>;
+
   enableNotifications(options: BluetoothGATTNotificationOptions): Promise<BluetoothGATTEnableNotificationsResult>;
 
   disableNotifications(options: BluetoothGATTNotificationOptions): Promise<BluetoothGATTDisableNotificationsResult>;
 
+  readRecording(options: BluetoothGATTReadRecordingOptions): Promise<BluetoothGATTReadRecordingResult>;
+
+  clearRecording(): Promise<BluetoothGATTClearRecordingResult>;
+
 }
 
 export interface BluetoothGATTAvailabilityResult{
@@ -62,12 +100,36 @@ export type BluetoothGATTEnableResult = {
 }
 
 export interface BluetoothGATTScanOptions{
-  services: Array<BluetoothGATTServices | number>
+  services: Array<BluetoothGATTServices | number | string>,
+  stream?: boolean, //Emit a "scanResult" event for each newly found device (Android only)
+  duration?: number, //Scan duration in ms, defaults to 2000 (Android only)
+  continuous?: boolean, //Scan until stopScan() is called (Android only)
+  encoding?: BluetoothGATTValueEncoding, //Encoding of streamed advertisement data
+  scanMode?: BluetoothGATTScanMode, //Defaults to "lowPower" (Android only)
+  reportDelay?: number, //Deliver results in batches every reportDelay ms if supported by the controller (Android only)
+  matchMode?: "aggressive" | "sticky", //Defaults to "aggressive" (Android 6+ only)
+  numOfMatches?: "one" | "few" | "max", //Defaults to "max" (Android 6+ only)
+  ttl?: number, //Time in ms after which a device that is no longer advertising is dropped, defaults to 10000 (Android only)
+  rssiSmoothing?: number //Weight of a new RSSI sample in (0, 1], defaults to 0.25 (Android only)
 }
 
+export type BluetoothGATTScanMode = "lowPower" | "balanced" | "lowLatency" | "opportunistic";
+
 export interface BluetoothGATTPeripheral{
   name: string,
-  id: string
+  id: string,
+  rssi?: number, //Smoothed RSSI in dBm
+  lastRssi?: number, //RSSI of the latest advertisement in dBm (Android only)
+  txPower?: number,
+  firstSeen?: number,
+  lastSeen?: number,
+  advertisement?: BluetoothGATTByteData,
+  manufacturerData?: {[companyIdentifier: string]: BluetoothGATTByteData},
+  serviceData?: {[service: string]: BluetoothGATTByteData}
+}
+
+export interface BluetoothGATTStopScanResult{
+  stopped: true
 }
 
 export interface BluetoothGATTScanResults{
@@ -76,11 +138,45 @@ export interface BluetoothGATTScanResults{
 
 export interface BluetoothGATTConnectOptions{
   id: string,
-  autoConnect?: boolean
+  autoConnect?: boolean,
+  encoding?: BluetoothGATTValueEncoding,
+  priority?: number, //Queued connections with higher priority are started first, defaults to 0 (Android only)
+  reconnect?: boolean, //Reconnect automatically if the connection is lost, defaults to false (Android only)
+  reconnectDelay?: number, //Delay in ms before the first reconnect attempt, doubled for each further attempt, defaults to 1000
+  maxReconnectDelay?: number, //Maximal delay in ms between two reconnect attempts, defaults to 30000
+  maxReconnectAttempts?: number, //Number of attempts before giving up, defaults to 0 for unlimited attempts
+  timeout?: number //Time in ms before the attempt fails with "Operation timed out", 0 to wait forever, defaults to 30000 or 0 with autoConnect (Android only)
+}
+
+export type BluetoothGATTReconnectState = "reconnecting" | "reconnected" | "failed";
+
+export interface BluetoothGATTReconnectEvent{
+  id: string,
+  state: BluetoothGATTReconnectState,
+  attempt: number, //Number of attempts made so far
+  delay?: number, //Time in ms until the next attempt, if reconnecting
+  downtime?: number //Time in ms the peripheral was disconnected, if reconnected
 }
 
 export interface BluetoothGATTConnectResult{
-  connected: true
+  connected: true,
+  waitTime?: number //Time in ms the connection request was queued (Android only)
+}
+
+export interface BluetoothGATTConnectionLimitsOptions{
+  maxConnections?: number,
+  maxConnectionAttempts?: number
+}
+
+export interface BluetoothGATTConnectionStatus{
+  connected: number,
+  connecting: number,
+  queued: number,
+  maxConnections: number,
+  maxConnectionAttempts: number,
+  averageWaitTime: number,
+  maxWaitTime: number,
+  oldestWaitTime: number
 }
 
 export interface BluetoothGATTDisconnectOptions{
@@ -91,20 +187,43 @@ export interface BluetoothGATTDisconnectResult{
   disconnected: true;
 }
 
-export interface BluetoothGATTServiceDiscoveryOptions{
+export interface BluetoothGATTCancelOperationsOptions{
   id: string
 }
 
+export interface BluetoothGATTCancelOperationsResult{
+  cancelled: number //Number of calls failed with "Operation cancelled"
+}
+
+export interface BluetoothGATTServiceDiscoveryOptions{
+  id: string,
+  useCache?: boolean, //Resolve from the services stored by an earlier discovery while services are rediscovered in the background (Android only)
+  databaseHash?: string, //Hex encoded database hash of the peripheral, a stored database taken for another hash is not used
+  timeout?: number //Time in ms before the call fails with "Operation timed out", 0 to wait forever, defaults to 30000 (Android only)
+}
+
 export interface BluetoothGATTServiceDiscoveryResult{
-  discovered: true
+  discovered: true,
+  cached?: boolean //True if the result was resolved from the stored services
+}
+
+export interface BluetoothGATTServicesChangedEvent{
+  id: string
 }
 
-export type BluetoothGATTByteData = number[];
+/**
+ * Array of bytes or, depending on the requested encoding, a base64 or hex string
+ */
+export type BluetoothGATTByteData = number[] | string;
+
+export type BluetoothGATTValueEncoding = "array" | "base64" | "hex";
 
 export interface BluetoothGATTCharacteristicReadOptions{
   id: string,
-  service: BluetoothGATTServices | number,
-  characteristic: BluetoothGATTCharacteristics | number
+  service: BluetoothGATTServices | number | string,
+  characteristic: BluetoothGATTCharacteristics | number | string,
+  encoding?: BluetoothGATTValueEncoding,
+  timeout?: number //Time in ms before the call fails with "Operation timed out", 0 to wait forever, defaults to 10000 (Android only)
 }
 
 
@@ -113,22 +232,194 @@ export interface BluetoothGATTCharacteristicReadResult{
   value: BluetoothGATTByteData
 }
 
+export interface BluetoothGATTCharacteristicReadManyOptions{
+  id: string,
+  characteristics: Array<{
+    service: BluetoothGATTServices | number | string,
+    characteristic: BluetoothGATTCharacteristics | number | string
+  }>,
+  encoding?: BluetoothGATTValueEncoding,
+  timeout?: number //Time in ms each read may take, defaults to 10000 (Android only)
+}
+
+export interface BluetoothGATTCharacteristicValue{
+  service: BluetoothGATTServices | number | string,
+  characteristic: BluetoothGATTCharacteristics | number | string,
+  value: BluetoothGATTByteData
+}
+
+export interface BluetoothGATTCharacteristicReadManyResult{
+  values: BluetoothGATTCharacteristicValue[]
+}
+
 export interface BluetoothGATTCharacteristicWriteOptions{
   id: string,
-  service: BluetoothGATTServices | number,
-  characteristic: BluetoothGATTCharacteristics | number
-  value: string //Base64 encoded string of byte array
+  service: BluetoothGATTServices | number | string,
+  characteristic: BluetoothGATTCharacteristics | number | string
+  value: string, //Base64 encoded string of byte array
+  encoding?: BluetoothGATTValueEncoding,
+  chunked?: boolean, //Split the value into chunks fitting the negotiated MTU and write them one after another
+  timeout?: number //Time in ms each write may take before the call fails with "Operation timed out", 0 to wait forever, defaults to 10000 (Android only)
 }
 
 export interface BluetoothGATTCharacteristicWriteResult{
-  value: BluetoothGATTByteData
+  value: BluetoothGATTByteData,
+  chunks?: number
+}
+
+export interface BluetoothGATTReliableWriteOptions{
+  id: string,
+  writes: Array<{
+    service: BluetoothGATTServices | number | string,
+    characteristic: BluetoothGATTCharacteristics | number | string,
+    value: string //Base64 encoded string of byte array
+  }>,
+  timeout?: number //Time in ms each prepared write and the execution may take, defaults to 10000 (Android only)
+}
+
+export interface BluetoothGATTReliableWriteResult{
+  executed: true,
+  writes: number
+}
+
+export interface BluetoothGATTCharacteristicWriteStreamOptions{
+  id: string,
+  service: BluetoothGATTServices | number | string,
+  characteristic: BluetoothGATTCharacteristics | number | string,
+  value: string, //Base64 encoded string of byte array
+  chunkSize?: number, //Defaults to and must not exceed the negotiated MTU minus 3 bytes
+  credits?: number, //Number of chunks queued ahead of the one in flight, defaults to 8 (Android only)
+  timeout?: number //Time in ms each chunk may take before the call fails with "Operation timed out", 0 to wait forever, defaults to 10000 (Android only)
+}
+
+export interface BluetoothGATTCharacteristicWriteStreamResult{
+  bytesWritten: number,
+  chunks: number,
+  duration: number, //Time in ms
+  throughput: number //Bytes per second
+}
+
+export type BluetoothGATTConnectionPriority = "high" | "balanced" | "lowPower";
+
+export interface BluetoothGATTConnectionPriorityOptions{
+  id: string,
+  connectionPriority: BluetoothGATTConnectionPriority
+}
+
+export interface BluetoothGATTConnectionPriorityResult{
+  connectionPriority: BluetoothGATTConnectionPriority
+}
+
+export type BluetoothGATTPhy = "1M" | "2M" | "coded";
+
+export interface BluetoothGATTPhyOptions{
+  id: string,
+  phy: BluetoothGATTPhy, //Preferred PHY for both directions
+  codedOption?: "any" | "s2" | "s8", //Preferred coding when using the coded PHY, defaults to "any"
+  timeout?: number //Time in ms before the call fails with "Operation timed out", 0 to wait forever, defaults to 10000 (Android only)
+}
+
+export interface BluetoothGATTReadPhyOptions{
+  id: string,
+  timeout?: number //Time in ms before the call fails with "Operation timed out", 0 to wait forever, defaults to 10000 (Android only)
+}
+
+export interface BluetoothGATTPhyResult{
+  txPhy: BluetoothGATTPhy,
+  rxPhy: BluetoothGATTPhy
+}
+
+export interface BluetoothGATTRssiMonitorOptions{
+  id: string,
+  interval?: number, //Time between two RSSI samples in ms, defaults to 1000
+  windowSize?: number, //Number of samples aggregated in a link quality event, defaults to 10
+  reportInterval?: number //Minimal time between two link quality events in ms, defaults to 5000
+}
+
+export interface BluetoothGATTRssiMonitorStartResult{
+  started: true
+}
+
+export interface BluetoothGATTRssiMonitorStopOptions{
+  id: string
+}
+
+export interface BluetoothGATTRssiMonitorStopResult{
+  stopped: true
+}
+
+export interface BluetoothGATTLinkQualityEvent{
+  id: string,
+  rssi: number, //Latest sample in dBm
+  mean: number, //Mean of the samples in dBm
+  variance: number, //Variance of the samples in dBm²
+  trend: number, //Change of the RSSI in dB per second, negative if the link is degrading
+  samples: number //Number of samples in the window
+}
+
+export interface BluetoothGATTMetricsOptions{
+  id?: string, //Only the metrics of this peripheral
+  reset?: boolean //Reset the returned metrics after reading them
+}
+
+export interface BluetoothGATTHistogram{
+  count: number,
+  mean: number,
+  min: number,
+  max: number,
+  p50: number, //Percentiles are reported as the upper bound of their bucket
+  p95: number,
+  p99: number,
+  buckets: number[] //Bucket 0 counts values below 1, bucket i values from 2^(i-1) up to 2^i, the last bucket all larger ones
+}
+
+export interface BluetoothGATTDeviceMetrics{
+  id: string,
+  connectTime: BluetoothGATTHistogram, //Time in ms
+  discoveryTime: BluetoothGATTHistogram, //Time in ms
+  operations: {[operation: string]: BluetoothGATTHistogram}, //Round trip time in ms by operation, e.g. read or write
+  notifications: number,
+  notificationRate: number, //Notifications per second
+  emitTime: BluetoothGATTHistogram, //Time in microseconds spent handing a notification event to the bridge
+  queueDepth: number, //Operations queued, including the one in flight
+  maxQueueDepth: number, //Largest queue depth of the current connection
+  failures: {[status: string]: number}, //Failed GATT callbacks by status code
+  timeouts: number
+}
+
+export interface BluetoothGATTMetricsResult{
+  devices: BluetoothGATTDeviceMetrics[]
+}
+
+export interface BluetoothGATTMetricsReportingOptions{
+  interval?: number //Time in ms between two metrics events, defaults to 10000
+}
+
+export interface BluetoothGATTMetricsReportingStartResult{
+  started: true
+}
+
+export interface BluetoothGATTMetricsReportingStopResult{
+  stopped: true
+}
+
+export interface BluetoothGATTMtuOptions{
+  id: string,
+  mtu: number, //Between 23 and 517
+  timeout?: number //Time in ms before the call fails with "Operation timed out", 0 to wait forever, defaults to 10000 (Android only)
+}
+
+export interface BluetoothGATTMtuResult{
+  mtu: number //Negotiated MTU, the payload of a single write is 3 bytes less
 }
 
 export interface BluetoothGATTDescriptorReadOptions{
   id: string,
-  service: BluetoothGATTServices | number,
-  characteristic: BluetoothGATTCharacteristics | number,
-  descriptor: number
+  service: BluetoothGATTServices | number | string,
+  characteristic: BluetoothGATTCharacteristics | number | string,
+  descriptor: number | string,
+  encoding?: BluetoothGATTValueEncoding,
+  timeout?: number //Time in ms before the call fails with "Operation timed out", 0 to wait forever, defaults to 10000 (Android only)
 }
 
 export interface BluetoothGATTDescriptorReadResult{
@@ -137,9 +428,9 @@ export interface BluetoothGATTDescriptorReadResult{
 
 export interface BluetoothGATTDescriptorWriteOptions{
   id: string,
-  service: BluetoothGATTServices | number,
-  characteristic: BluetoothGATTCharacteristics | number,
-  descriptor: number,
+  service: BluetoothGATTServices | number | string,
+  characteristic: BluetoothGATTCharacteristics | number | string,
+  descriptor: number | string,
   value: string //Base64 encoded string of byte array
 }
 
@@ -149,36 +440,73 @@ export interface BluetoothGATTDescriptorWriteResult{
 
 export interface BluetoothGATTNotificationOptions{
   id: string,
-  service: BluetoothGATTServices | number,
-  characteristic: BluetoothGATTCharacteristics | number,
+  service: BluetoothGATTServices | number | string,
+  characteristic: BluetoothGATTCharacteristics | number | string,
+  encoding?: BluetoothGATTValueEncoding,
+  batchSize?: number, //Number of values after which a batch is delivered
+  batchInterval?: number, //Time in ms after which a batch is delivered
+  decode?: boolean, //Deliver natively decoded measurements instead of raw values (Android only)
+  record?: boolean, //Append values to the native recording instead of delivering them as events (Android only)
+  timeout?: number //Time in ms before the call fails with "Operation timed out", 0 to wait forever, defaults to 10000 (Android only)
+}
+
+export interface BluetoothGATTNotificationBatch{
+  values: BluetoothGATTByteData[],
+  timestamps: number[]
 }
 
 export interface BluetoothGATTEnableNotificationsResult{
   enabled: true
 }
 
+export interface BluetoothGATTReadRecordingOptions{
+  from?: number, //Start of the time range in ms since the epoch
+  to?: number, //End of the time range in ms since the epoch
+  id?: string, //Only records of this peripheral
+  characteristic?: BluetoothGATTCharacteristics | number | string, //Only records of this characteristic
+  limit?: number, //Maximal number of records returned, defaults to 1000
+  encoding?: BluetoothGATTValueEncoding,
+  cursor?: string //Cursor returned by the previous call, to continue reading after its last record
+}
+
+export interface BluetoothGATTRecord{
+  time: number, //Time the notification arrived in ms since the epoch
+  id: string,
+  characteristic: BluetoothGATTCharacteristics | number | string,
+  value: BluetoothGATTByteData
+}
+
+export interface BluetoothGATTReadRecordingResult{
+  records: BluetoothGATTRecord[],
+  cursor?: string //Set if more records may follow
+}
+
+export interface BluetoothGATTClearRecordingResult{
+  cleared: true
+}
+
 export interface BluetoothGATTDisableNotificationsResult{
   disabled: true
 }
 
 export interface GetServiceOptions{
   id:string,
-  service?: BluetoothGATTServices | number
+  service?: BluetoothGATTServices | number | string
 }
 
 export interface GATTService{
-  uuid: BluetoothGATTServices | number,
+  uuid: BluetoothGATTServices | number | string,
   isPrimary: boolean,
-  characteristics: Array<BluetoothGATTCharacteristics | number>,
-  included?: Array<BluetoothGATTServices | number>
+  characteristics: Array<BluetoothGATTCharacteristics | number | string>,
+  included?: Array<BluetoothGATTServices | number | string>
 }
 
 export type GetServiceResult = GATTService | {services: GATTService[]};
 
 export interface GetCharacteristicOptions{
   id: string,
-  service: BluetoothGATTServices | number,
-  characteristic?: BluetoothGATTCharacteristics | number
+  service: BluetoothGATTServices | number | string,
+  characteristic?: BluetoothGATTCharacteristics | number | string
 }
 
 export interface GATTCharacteristicProperties{
@@ -194,13 +522,28 @@ export interface GATTCharacteristicProperties{
 }
 
 export interface GATTCharacteristic{
-  uuid: BluetoothGATTCharacteristics | number,
+  uuid: BluetoothGATTCharacteristics | number | string,
   properties: GATTCharacteristicProperties,
-  descriptors: number[]
+  descriptors: Array<number | string>
 }
 
 export type GetCharacteristicResult = GATTCharacteristic | {characteristics: GATTCharacteristic[]};
 
+export interface GetGattTreeOptions{
+  id: string
+}
+
+export interface GATTServiceTree{
+  uuid: BluetoothGATTServices | number | string,
+  isPrimary: boolean,
+  characteristics: GATTCharacteristic[],
+  included?: Array<BluetoothGATTServices | number | string>
+}
+
+export interface GetGattTreeResult{
+  services: GATTServiceTree[]
+}
+
 export type BluetoothGATTCallback = (data: BluetoothGATTByteData) => any;
 
 export interface BluetoothGATTCallbacks{
@@ -5,6 +5,13 @@ export class OptionsRequiredError extends Error{
 }
 
 
+export class NotSupportedError extends Error{
+    constructor(){
+        super("This method is not supported on this platform")
+    }
+}
+
+
 export class NotConnectedError extends Error{
     constructor(){
         super("Not connected to requested peripheral")
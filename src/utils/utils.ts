@@ -1,4 +1,4 @@
-import {BluetoothGATTByteData} from "../definitions";
+import {BluetoothGATTByteData, BluetoothGATTValueEncoding} from "../definitions";
 
 export const get16BitUUID = (uuid: string) => {
     const prefix = "0x";
@@ -6,7 +6,33 @@ export const get16BitUUID = (uuid: string) => {
     return parseInt(prefix.concat(id));
 };
 
-export const toDataView = (value: BluetoothGATTByteData) => {
+const BASE_UUID_TAIL = "-0000-1000-8000-00805f9b34fb";
+
+/**
+ * Returns 16 bit UUIDs based on the Bluetooth Base UUID with four hexadecimal digits (0x1000 to 0xFFFF) as number
+ * and all other UUIDs as string, like the Android implementation does
+ */
+export const getUUID = (uuid: string): number | string => {
+
+    const lowerCaseUuid = uuid.toLowerCase();
+
+    if(lowerCaseUuid.startsWith("0000") && lowerCaseUuid.endsWith(BASE_UUID_TAIL)){
+
+        const shortUuid = get16BitUUID(lowerCaseUuid);
+
+        if(shortUuid >= 0x1000){
+            return shortUuid;
+        }
+    }
+
+    return lowerCaseUuid;
+};
+
+export const toDataView = (value: BluetoothGATTByteData, encoding: BluetoothGATTValueEncoding = "base64") => {
+
+    if(typeof value === "string"){
+        return encoding === "hex" ? fromHexString(value) : fromBase64String(value);
+    }
 
     const buffer = new ArrayBuffer(value.length);
     const view = new DataView(buffer);
@@ -18,6 +44,29 @@ export const toDataView = (value: BluetoothGATTByteData) => {
     return view;
 };
 
+const fromBase64String = (value: string) => {
+
+    const binary = atob(value);
+    const view = new DataView(new ArrayBuffer(binary.length));
+
+    for(let index = 0; index < binary.length; index++){
+        view.setUint8(index, binary.charCodeAt(index));
+    }
+
+    return view;
+};
+
+const fromHexString = (value: string) => {
+
+    const view = new DataView(new ArrayBuffer(value.length >> 1));
+
+    for(let index = 0; index < view.byteLength; index++){
+        view.setUint8(index, parseInt(value.substr(index * 2, 2), 16));
+    }
+
+    return view;
+};
+
 export const getSFloat = ( data: DataView, offset: number ) => {
 
     const value = data.getUint16(offset, true);
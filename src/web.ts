@@ -1,10 +1,22 @@
 import { WebPlugin } from '@capacitor/core';
 import {
   BluetoothGATTAvailabilityResult,
+  BluetoothGATTCancelOperationsOptions,
+  BluetoothGATTCancelOperationsResult,
+  BluetoothGATTClearRecordingResult,
+  BluetoothGATTCharacteristicReadManyOptions,
+  BluetoothGATTCharacteristicReadManyResult,
   BluetoothGATTCharacteristicReadOptions,
   BluetoothGATTCharacteristicReadResult,
+  BluetoothGATTCharacteristicValue,
   BluetoothGATTCharacteristicWriteOptions,
   BluetoothGATTCharacteristicWriteResult,
+  BluetoothGATTCharacteristicWriteStreamOptions,
+  BluetoothGATTCharacteristicWriteStreamResult,
+  BluetoothGATTConnectionLimitsOptions,
+  BluetoothGATTConnectionStatus,
+  BluetoothGATTConnectionPriorityOptions,
+  BluetoothGATTConnectionPriorityResult,
   BluetoothGATTConnectOptions,
   BluetoothGATTConnectResult,
   BluetoothGATTDescriptorReadOptions,
@@ -17,21 +29,42 @@ import {
   BluetoothGATTEnabledResult,
   BluetoothGATTEnableNotificationsResult,
   BluetoothGATTEnableResult,
+  BluetoothGATTMetricsOptions,
+  BluetoothGATTMetricsReportingOptions,
+  BluetoothGATTMetricsReportingStartResult,
+  BluetoothGATTMetricsReportingStopResult,
+  BluetoothGATTMetricsResult,
+  BluetoothGATTMtuOptions,
+  BluetoothGATTMtuResult,
   BluetoothGATTNotificationOptions,
+  BluetoothGATTPhyOptions,
+  BluetoothGATTPhyResult,
+  BluetoothGATTReadPhyOptions,
+  BluetoothGATTReadRecordingOptions,
+  BluetoothGATTReadRecordingResult,
+  BluetoothGATTReliableWriteOptions,
+  BluetoothGATTReliableWriteResult,
+  BluetoothGATTRssiMonitorOptions,
+  BluetoothGATTRssiMonitorStartResult,
+  BluetoothGATTRssiMonitorStopOptions,
+  BluetoothGATTRssiMonitorStopResult,
   BluetoothGATTScanOptions,
   BluetoothGATTScanResults,
   BluetoothGATTServiceDiscoveryOptions,
   BluetoothGATTServiceDiscoveryResult,
+  BluetoothGATTStopScanResult,
   BluetoothLEClientPlugin,
   GATTCharacteristicProperties,
   GetCharacteristicOptions,
   GetCharacteristicResult,
+  GetGattTreeOptions,
+  GetGattTreeResult,
   GetServiceOptions,
   GetServiceResult
 } from './definitions';
-import {get16BitUUID} from "./utils/utils";
+import {getUUID, toDataView} from "./utils/utils";
 import {BluetoothGATTCharacteristics} from "./utils/ble-gatt-characteristics.enum";
-import {NotConnectedError, OptionsRequiredError} from "./utils/errors";
+import {NotConnectedError, NotSupportedError, OptionsRequiredError} from "./utils/errors";
 
 const nav: Navigator = navigator;
 
@@ -40,6 +73,7 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
   private devices: Map<string, BluetoothDevice> = new Map();
 
   private connections: Map<string, any> = new Map();
+  private defaultChunkSize = 20;
 
   constructor() {
     super({
@@ -82,7 +116,7 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
     const filters = options.services.map((service) => {
       return {services: [service]};
     });
-    const optionalServices: number[] = options.services || [];
+    const optionalServices: Array<number | string> = options.services || [];
 
     try {
 
@@ -97,6 +131,13 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
     }
   }
 
+  /**
+   * Returns {stopped: true} by default since scanning in the web browser ends once a device was chosen
+   */
+  async stopScan(): Promise<BluetoothGATTStopScanResult>{
+    return {stopped: true};
+  }
+
   async connect( options: BluetoothGATTConnectOptions):Promise<BluetoothGATTConnectResult>{
 
     if(!options){
@@ -129,6 +170,29 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
 
   }
 
+  /**
+   * Connections are not scheduled in the web browser, so the limits are only reported back
+   */
+  async setConnectionLimits(options: BluetoothGATTConnectionLimitsOptions): Promise<BluetoothGATTConnectionStatus>{
+
+    const status = await this.getConnectionStatus();
+
+    return {...status, ...options};
+  }
+
+  async getConnectionStatus(): Promise<BluetoothGATTConnectionStatus>{
+    return {
+      connected: this.connections.size,
+      connecting: 0,
+      queued: 0,
+      maxConnections: Infinity,
+      maxConnectionAttempts: Infinity,
+      averageWaitTime: 0,
+      maxWaitTime: 0,
+      oldestWaitTime: 0
+    };
+  }
+
   async disconnect(options: BluetoothGATTDisconnectOptions): Promise<BluetoothGATTDisconnectResult>{
 
     if(!options){
@@ -150,6 +214,13 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
     }
   }
 
+  /**
+   * Rejects since Web Bluetooth requests can not be aborted
+   */
+  async cancelOperations(_options: BluetoothGATTCancelOperationsOptions): Promise<BluetoothGATTCancelOperationsResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
   async discover(options: BluetoothGATTServiceDiscoveryOptions): Promise<BluetoothGATTServiceDiscoveryResult>{
     return {discovered: true};
   }
@@ -179,6 +250,30 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
     }
   }
 
+  async readMany(options: BluetoothGATTCharacteristicReadManyOptions): Promise<BluetoothGATTCharacteristicReadManyResult>{
+
+    if(!options){
+      return Promise.reject(new OptionsRequiredError());
+    }
+
+    const {id, characteristics} = options;
+    this.checkArgs({id, characteristics});
+
+    try {
+      const values: BluetoothGATTCharacteristicValue[] = [];
+
+      for(const {service, characteristic} of characteristics){
+        const {value} = await this.read({id, service, characteristic});
+        values.push({service, characteristic, value});
+      }
+
+      return {values};
+
+    }catch (e) {
+      return Promise.reject(e);
+    }
+  }
+
   async write(options: BluetoothGATTCharacteristicWriteOptions): Promise<BluetoothGATTCharacteristicWriteResult>{
 
     if(!options){
@@ -197,10 +292,26 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
       const encoder = new TextEncoder();
       const toWrite = encoder.encode(value);
 
-      await gattCharacteristic.writeValue(toWrite)
+      if(!options.chunked){
+
+        await gattCharacteristic.writeValue(toWrite);
+
+        return {
+          value: [...(new Uint8Array(toWrite.buffer))]
+        }
+      }
+
+      // the negotiated MTU is not exposed by the browser, so chunks fit the default MTU
+      let chunks = 0;
+
+      for(let offset = 0; offset < toWrite.length || chunks === 0; offset += this.defaultChunkSize){
+        await gattCharacteristic.writeValue(toWrite.slice(offset, offset + this.defaultChunkSize));
+        chunks++;
+      }
 
       return {
-        value: [...(new Uint8Array(toWrite.buffer))]
+        value: [...(new Uint8Array(toWrite.buffer))],
+        chunks
       }
     }catch (e) {
       return Promise.reject(e);
@@ -210,6 +321,110 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
 
   }
 
+  async writeStream(options: BluetoothGATTCharacteristicWriteStreamOptions): Promise<BluetoothGATTCharacteristicWriteStreamResult>{
+
+    if(!options){
+      return Promise.reject(new OptionsRequiredError());
+    }
+
+    const {id, service, characteristic, value} = options;
+    this.checkArgs({id, service, characteristic, value});
+
+    const chunkSize = options.chunkSize || this.defaultChunkSize;
+
+    try {
+      const connection = this.getConnection(id);
+      const gatt: BluetoothRemoteGATTServer = connection.get("peripheral");
+      const gattService: BluetoothRemoteGATTService = await gatt.getPrimaryService(service);
+      const gattCharacteristic: BluetoothRemoteGATTCharacteristic = await gattService.getCharacteristic(characteristic);
+
+      const toWrite = toDataView(value);
+      const start = Date.now();
+      let chunks = 0;
+
+      for(let offset = 0; offset < toWrite.byteLength || chunks === 0; offset += chunkSize){
+        const end = Math.min(toWrite.byteLength, offset + chunkSize);
+        await gattCharacteristic.writeValue(toWrite.buffer.slice(toWrite.byteOffset + offset, toWrite.byteOffset + end));
+        chunks++;
+      }
+
+      const duration = Date.now() - start;
+
+      return {
+        bytesWritten: toWrite.byteLength,
+        chunks,
+        duration,
+        throughput: duration > 0 ? toWrite.byteLength * 1000 / duration : 0
+      };
+    }catch (e) {
+      return Promise.reject(e);
+    }
+  }
+
+  /**
+   * Rejects since Web Bluetooth offers no prepared write transactions
+   */
+  async writeReliable(_options: BluetoothGATTReliableWriteOptions): Promise<BluetoothGATTReliableWriteResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
+  /**
+   * Rejects since connection parameters can not be influenced from the web browser
+   */
+  async requestConnectionPriority(_options: BluetoothGATTConnectionPriorityOptions): Promise<BluetoothGATTConnectionPriorityResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
+  /**
+   * Rejects since the PHY can not be influenced from the web browser
+   */
+  async setPreferredPhy(_options: BluetoothGATTPhyOptions): Promise<BluetoothGATTPhyResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
+  async readPhy(_options: BluetoothGATTReadPhyOptions): Promise<BluetoothGATTPhyResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
+  /**
+   * Rejects since Web Bluetooth does not expose the RSSI of a connection
+   */
+  async startRssiMonitor(_options: BluetoothGATTRssiMonitorOptions): Promise<BluetoothGATTRssiMonitorStartResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
+  async stopRssiMonitor(_options: BluetoothGATTRssiMonitorStopOptions): Promise<BluetoothGATTRssiMonitorStopResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
+  /**
+   * Rejects since GATT operations are not instrumented in the web browser
+   */
+  async getMetrics(_options?: BluetoothGATTMetricsOptions): Promise<BluetoothGATTMetricsResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
+  /**
+   * Rejects since GATT operations are not instrumented in the web browser
+   */
+  async startMetricsReporting(_options?: BluetoothGATTMetricsReportingOptions): Promise<BluetoothGATTMetricsReportingStartResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
+  /**
+   * Rejects since GATT operations are not instrumented in the web browser
+   */
+  async stopMetricsReporting(): Promise<BluetoothGATTMetricsReportingStopResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
+  /**
+   * Rejects since the browser negotiates the MTU on its own
+   */
+  async requestMtu(_options: BluetoothGATTMtuOptions): Promise<BluetoothGATTMtuResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
   async readDescriptor(options: BluetoothGATTDescriptorReadOptions ):Promise<BluetoothGATTDescriptorReadResult>{
 
     if(!options){
@@ -299,11 +514,11 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
 
         const meta = {
           id: dev.id,
-          service: get16BitUUID(serv.uuid),
-          characteristic: get16BitUUID(char.uuid)
+          service: getUUID(serv.uuid),
+          characteristic: getUUID(char.uuid)
         };
 
-        this.notifyListeners(get16BitUUID(char.uuid).toString(), {...meta, value});
+        this.notifyListeners(getUUID(char.uuid).toString(), {...meta, value});
       });
 
 
@@ -336,6 +551,20 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
 
   }
 
+  /**
+   * Rejects since notifications are not recorded in the web browser
+   */
+  async readRecording(_options: BluetoothGATTReadRecordingOptions): Promise<BluetoothGATTReadRecordingResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
+  /**
+   * Rejects since notifications are not recorded in the web browser
+   */
+  async clearRecording(): Promise<BluetoothGATTClearRecordingResult>{
+    return Promise.reject(new NotSupportedError());
+  }
+
   async getServices(options: GetServiceOptions): Promise<GetServiceResult>{
 
     if(!options){
@@ -355,7 +584,7 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
         const characteristics = await this.getIncludedCharacteristicUuids(service);
 
         return {
-          uuid: get16BitUUID(service.uuid),
+          uuid: getUUID(service.uuid),
           isPrimary: service.isPrimary,
           characteristics
         };
@@ -386,7 +615,7 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
       const {uuid, isPrimary} = gattService;
 
       return {
-        uuid: get16BitUUID(uuid),
+        uuid: getUUID(uuid),
         isPrimary,
         characteristics
       }
@@ -422,7 +651,7 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
         const properties = this.getCharacteristicProperties(characteristic);
 
         return {
-          uuid: get16BitUUID(uuid),
+          uuid: getUUID(uuid),
           properties,
           descriptors
         }
@@ -454,7 +683,7 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
       const gattCharacteristic = await gattService.getCharacteristic(characteristic);
       const descriptors = await this.getIncludedDescriptorUuids(gattCharacteristic);
       const properties = this.getCharacteristicProperties(gattCharacteristic);
-      const uuid = get16BitUUID(gattCharacteristic.uuid);
+      const uuid = getUUID(gattCharacteristic.uuid);
 
       return {
         uuid,
@@ -467,6 +696,54 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
     }
   }
 
+  async getGattTree(options: GetGattTreeOptions): Promise<GetGattTreeResult>{
+
+    if(!options){
+      return Promise.reject(new OptionsRequiredError());
+    }
+
+    const {id} = options;
+    this.checkArgs({id});
+
+    try {
+      const connection = this.getConnection(id);
+
+      if(connection.has("gattTree")){
+        return connection.get("gattTree");
+      }
+
+      const gatt: BluetoothRemoteGATTServer = connection.get("peripheral");
+      const gattServices: BluetoothRemoteGATTService[] = await gatt.getPrimaryServices();
+
+      const services = await Promise.all(gattServices.map(async (service: BluetoothRemoteGATTService) => {
+
+        const includedCharacteristics = await service.getCharacteristics();
+
+        const characteristics = await Promise.all(includedCharacteristics.map(async (characteristic) => {
+          return {
+            uuid: getUUID(characteristic.uuid),
+            properties: this.getCharacteristicProperties(characteristic),
+            descriptors: await this.getIncludedDescriptorUuids(characteristic)
+          };
+        }));
+
+        return {
+          uuid: getUUID(service.uuid),
+          isPrimary: service.isPrimary,
+          characteristics
+        };
+
+      }));
+
+      const tree = {services};
+      connection.set("gattTree", tree);
+
+      return tree;
+    } catch (e) {
+      return Promise.reject(e);
+    }
+  }
+
   private checkArgs(args: {[key: string]: any}): void{
 
     for(const key of Object.keys(args)){
@@ -505,7 +782,7 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
     };
   }
 
-  private async getIncludedCharacteristicUuids(service: BluetoothRemoteGATTService): Promise<Array<BluetoothGATTCharacteristics | number>> {
+  private async getIncludedCharacteristicUuids(service: BluetoothRemoteGATTService): Promise<Array<BluetoothGATTCharacteristics | number | string>> {
     let characteristics: BluetoothRemoteGATTCharacteristic[] = [];
 
     try {
@@ -514,10 +791,10 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
       return Promise.reject(e);
     }
 
-    return characteristics.map((characteristic) => get16BitUUID(characteristic.uuid));
+    return characteristics.map((characteristic) => getUUID(characteristic.uuid));
   }
 
-  private async getIncludedDescriptorUuids(characteristic: BluetoothRemoteGATTCharacteristic): Promise<number[]>{
+  private async getIncludedDescriptorUuids(characteristic: BluetoothRemoteGATTCharacteristic): Promise<Array<number | string>>{
 
     let descriptors: BluetoothRemoteGATTDescriptor [] = [];
 
@@ -527,7 +804,7 @@ export class BluetoothLEClientWeb extends WebPlugin implements BluetoothLEClient
       console.log(e);
     }
 
-    return descriptors.map((descriptor) => get16BitUUID(descriptor.uuid));
+    return descriptors.map((descriptor) => getUUID(descriptor.uuid));
   }
 
 